@@ -0,0 +1,103 @@
+#!/usr/bin/env bash
+# Arranque de la imagen normal (Dockerfile) frente a la de AOT + CDS (Dockerfile.aot).
+#
+# Por cada arranque mide:
+#   - ttfr_ms: desde "docker run" hasta la primera petición enrutada con éxito (POST /api/auth/register,
+#     que pasa por la ruta reservas-auth-service hasta un WireMock que hace de servicio).
+#   - rss_kb:  memoria residente del proceso java justo después de esa primera petición.
+#
+# Uso: scripts/startup-benchmark.sh [arranques por imagen, 5 por defecto]
+# Resultado: target/startup-benchmark.csv y la mediana de cada imagen por la salida estándar.
+set -euo pipefail
+
+RUNS="${1:-5}"
+NETWORK=gateway-startup-bench
+STUB=gateway-startup-stub
+GATEWAY=gateway-startup-bench-app
+STUB_PORT="${STUB_PORT:-18089}"
+GATEWAY_PORT="${GATEWAY_PORT:-18080}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+cd "$(dirname "$0")/.."
+mkdir -p target
+RESULT=target/startup-benchmark.csv
+
+cleanup() {
+  docker rm -f "$GATEWAY" "$STUB" >/dev/null 2>&1 || true
+  docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { if (NR % 2) print v[(NR + 1) / 2]; else print int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+echo "Construyendo imágenes..."
+docker build -q -t reservas-api-gateway:jit -f Dockerfile . >/dev/null
+docker build -q -t reservas-api-gateway:aot-cds -f Dockerfile.aot . >/dev/null
+
+cleanup
+docker network create "$NETWORK" >/dev/null
+
+# Servicio de autenticación simulado: JWKS (readiness del Gateway) y el registro de usuarios
+docker run -d --name "$STUB" --network "$NETWORK" -p "$STUB_PORT:8080" wiremock/wiremock:3.3.1 >/dev/null
+until curl -sf "http://localhost:$STUB_PORT/__admin/mappings" >/dev/null; do sleep 0.5; done
+curl -sf -X POST "http://localhost:$STUB_PORT/__admin/mappings" -d '{
+  "request": { "method": "GET", "url": "/oauth2/jwks" },
+  "response": { "status": 200, "headers": { "Content-Type": "application/json" }, "body": "{\"keys\":[]}" }
+}' >/dev/null
+# Health check del balanceador (gateway.registry.health-checks): sin el, la instancia se descarta
+curl -sf -X POST "http://localhost:$STUB_PORT/__admin/mappings" -d '{
+  "request": { "method": "GET", "url": "/actuator/health" },
+  "response": { "status": 200, "headers": { "Content-Type": "application/json" }, "body": "{\"status\":\"UP\"}" }
+}' >/dev/null
+curl -sf -X POST "http://localhost:$STUB_PORT/__admin/mappings" -d '{
+  "request": { "method": "POST", "url": "/api/auth/register" },
+  "response": { "status": 201, "headers": { "Content-Type": "application/json" }, "body": "{\"id\":1}" }
+}' >/dev/null
+
+echo "image,run,ttfr_ms,rss_kb" > "$RESULT"
+
+for image in jit aot-cds; do
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    # Sin Eureka: el balanceador encuentra el stub en el discovery client simple (la ruta sigue siendo lb://)
+    docker run -d --name "$GATEWAY" --network "$NETWORK" -p "$GATEWAY_PORT:8080" \
+      -e CLIENT_SECRET_KEY=bench \
+      -e SPRING_SECURITY_OAUTH2_RESOURCESERVER_JWT_JWKSETURI="http://$STUB:8080/oauth2/jwks" \
+      -e EUREKA_CLIENT_FETCHREGISTRY=false \
+      -e EUREKA_CLIENT_REGISTERWITHEUREKA=false \
+      -e SPRING_APPLICATION_JSON="{\"spring.cloud.discovery.client.simple.instances.reservas-auth-service[0].uri\":\"http://$STUB:8080\"}" \
+      "reservas-api-gateway:$image" >/dev/null
+
+    deadline=$(( start + TIMEOUT_SECONDS * 1000 ))
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST -H 'Content-Type: application/json' -d '{}' \
+        "http://localhost:$GATEWAY_PORT/api/auth/register" || true)" = "201" ]; do
+      if [ "$(now_ms)" -gt "$deadline" ]; then
+        echo "El Gateway ($image) no respondió en ${TIMEOUT_SECONDS}s" >&2
+        docker logs --tail 50 "$GATEWAY" >&2
+        exit 1
+      fi
+      sleep 0.05
+    done
+    ttfr=$(( $(now_ms) - start ))
+    # java es el PID 1 del contenedor (ENTRYPOINT en forma exec)
+    rss=$(docker exec "$GATEWAY" awk '/^VmRSS:/ { print $2 }' /proc/1/status)
+
+    echo "$image,$run,$ttfr,$rss" >> "$RESULT"
+    echo "$image #$run: ${ttfr} ms hasta la primera petición enrutada, RSS ${rss} kB"
+    docker rm -f "$GATEWAY" >/dev/null
+  done
+done
+
+echo
+printf '%-8s %18s %14s\n' imagen "ttfr mediana (ms)" "RSS mediana (kB)"
+for image in jit aot-cds; do
+  ttfr=$(awk -F, -v i="$image" '$1 == i { print $3 }' "$RESULT" | median)
+  rss=$(awk -F, -v i="$image" '$1 == i { print $4 }' "$RESULT" | median)
+  printf '%-8s %18s %14s\n' "$image" "$ttfr" "$rss"
+done
@@ -0,0 +1,221 @@
+package com.servicio.reserva.gateway.infraestructure.accesslog;
+
+import com.servicio.reserva.gateway.infraestructure.config.AccessLogProperties;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpMethod;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Access log fuera del event loop: las peticiones copian su registro en un {@link AccessLogRingBuffer} y un hilo
+ * propio lo formatea y lo escribe en el logger {@code gateway.access}.
+ * <p>
+ * Una línea JSON por petición muestreada: ruta, método, estado, tiempos por fase, bytes y los 16 primeros
+ * caracteres del SHA-256 del subject (nunca el subject en claro). Si el buffer está lleno el registro se descarta
+ * ({@code gateway.access-log.records{outcome=dropped}}): escribir el log nunca frena una petición.
+ */
+public class AccessLog implements SmartLifecycle {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("gateway.access");
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final int SUBJECT_HASH_LENGTH = 16;
+
+    private final AccessLogProperties properties;
+    private final boolean enabled;
+    private final AccessLogRingBuffer buffer;
+    private final Consumer<String> sink;
+    private final Map<String, double[]> sampleRates = new ConcurrentHashMap<>();
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, ACCESS_LOG::info);
+    }
+
+    AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry, Consumer<String> sink) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled();
+        this.buffer = new AccessLogRingBuffer(properties.getBufferSize());
+        this.sink = sink;
+        this.written = records(meterRegistry, "written");
+        this.dropped = records(meterRegistry, "dropped");
+        this.sampledOut = records(meterRegistry, "sampled-out");
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.access-log.records")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola el registro de una petición terminada sin reservar memoria; {@code false} si no se muestreó o se
+     * descartó. {@code status} 0 es una petición cancelada antes de responder, que siempre se registra.
+     */
+    public boolean append(String route, HttpMethod method, int status, long durationNanos, long jwtNanos,
+                          long loadBalancerNanos, long upstreamNanos, long requestBytes, long responseBytes,
+                          String subject) {
+        if (!enabled) {
+            return false;
+        }
+        double rate = sampleRate(route, status);
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            sampledOut.increment();
+            return false;
+        }
+        long position = buffer.claim();
+        if (position < 0) {
+            dropped.increment();
+            return false;
+        }
+
+        AccessLogRingBuffer.Slot slot = buffer.slot(position);
+        slot.timestamp = System.currentTimeMillis();
+        slot.route = route;
+        slot.method = method;
+        slot.status = status;
+        slot.durationNanos = durationNanos;
+        slot.jwtNanos = jwtNanos;
+        slot.loadBalancerNanos = loadBalancerNanos;
+        slot.upstreamNanos = upstreamNanos;
+        slot.requestBytes = requestBytes;
+        slot.responseBytes = responseBytes;
+        slot.subject = subject;
+        buffer.publish(position);
+        return true;
+    }
+
+    private double sampleRate(String route, int status) {
+        int statusClass = status / 100;
+        if (statusClass < 1 || statusClass > STATUS_CLASSES.length) {
+            return 1.0;
+        }
+        double[] rates = sampleRates.get(route);
+        if (rates == null) {
+            rates = sampleRates.computeIfAbsent(route, this::sampleRates);
+        }
+        return rates[statusClass - 1];
+    }
+
+    private double[] sampleRates(String route) {
+        Map<String, Double> routeRates = properties.getRoutes().getOrDefault(route, Map.of());
+        double[] rates = new double[STATUS_CLASSES.length];
+        for (int i = 0; i < rates.length; i++) {
+            String statusClass = STATUS_CLASSES[i];
+            rates[i] = routeRates.getOrDefault(statusClass, properties.getSampling().getOrDefault(statusClass, 1.0));
+        }
+        return rates;
+    }
+
+    /**
+     * Escribe todo lo pendiente; solo desde el hilo escritor (o en tests, sin él).
+     */
+    int drain() {
+        StringBuilder line = new StringBuilder(256);
+        int count = 0;
+        AccessLogRingBuffer.Slot slot;
+        while ((slot = buffer.peek()) != null) {
+            line.setLength(0);
+            format(slot, line);
+            buffer.release();
+            sink.accept(line.toString());
+            written.increment();
+            count++;
+        }
+        return count;
+    }
+
+    private static void format(AccessLogRingBuffer.Slot slot, StringBuilder line) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(slot.timestamp))
+                .append("\",\"route\":\"").append(slot.route)
+                .append("\",\"method\":\"").append(slot.method == null ? "-" : slot.method.name())
+                .append("\",\"status\":").append(slot.status);
+        appendMillis(line, "duration_ms", slot.durationNanos);
+        appendMillis(line, "jwt_ms", slot.jwtNanos);
+        appendMillis(line, "lb_ms", slot.loadBalancerNanos);
+        appendMillis(line, "upstream_ms", slot.upstreamNanos);
+        line.append(",\"req_bytes\":").append(slot.requestBytes)
+                .append(",\"resp_bytes\":").append(slot.responseBytes)
+                .append(",\"subject\":");
+        if (slot.subject == null) {
+            line.append("null");
+        } else {
+            line.append('"').append(TokenHasher.sha256(slot.subject), 0, SUBJECT_HASH_LENGTH).append('"');
+        }
+        line.append('}');
+    }
+
+    private static void appendMillis(StringBuilder line, String name, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        line.append(",\"").append(name).append("\":").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            line.append('0');
+        }
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    private void writeLoop() {
+        long idleNanos = properties.getIdleWait().toNanos();
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::writeLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    /**
+     * Se para después del apagado ordenado del servidor web: se escriben también las peticiones que terminan
+     * mientras el Gateway se apaga.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2;
+    }
+}
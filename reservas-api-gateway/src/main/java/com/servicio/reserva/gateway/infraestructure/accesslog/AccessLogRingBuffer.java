@@ -0,0 +1,100 @@
+package com.servicio.reserva.gateway.infraestructure.accesslog;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cola acotada de varios productores y un consumidor sobre registros reservados al crearla (cola de Vyukov):
+ * encolar es un CAS y copiar campos, sin locks ni objetos nuevos. Lleno, {@link #claim()} devuelve -1 y el
+ * productor sigue sin esperar.
+ */
+final class AccessLogRingBuffer {
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Solo lo usa el consumidor
+    private long head;
+
+    AccessLogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Reserva la siguiente posición, o -1 si el consumidor aún no ha liberado la que tocaría.
+     */
+    long claim() {
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.get(index(position)) - position;
+            if (difference == 0) {
+                long witness = tail.compareAndExchange(position, position + 1);
+                if (witness == position) {
+                    return position;
+                }
+                position = witness;
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    Slot slot(long position) {
+        return slots[index(position)];
+    }
+
+    void publish(long position) {
+        sequences.setRelease(index(position), position + 1);
+    }
+
+    /**
+     * Siguiente registro publicado, o {@code null} si no hay; solo desde el hilo consumidor.
+     */
+    Slot peek() {
+        int index = index(head);
+        return sequences.getAcquire(index) == head + 1 ? slots[index] : null;
+    }
+
+    /**
+     * Devuelve a los productores el registro de {@link #peek()}.
+     */
+    void release() {
+        Slot slot = slots[index(head)];
+        slot.subject = null;
+        sequences.setRelease(index(head), head + slots.length);
+        head++;
+    }
+
+    private int index(long position) {
+        return (int) position & mask;
+    }
+
+    static final class Slot {
+        long timestamp;
+        String route;
+        HttpMethod method;
+        int status;
+        long durationNanos;
+        long jwtNanos;
+        long loadBalancerNanos;
+        long upstreamNanos;
+        long requestBytes;
+        long responseBytes;
+        String subject;
+    }
+}
@@ -0,0 +1,40 @@
+package com.servicio.reserva.gateway.infraestructure.bff;
+
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Llamadas del BFF dentro del plazo de la petición que las origina: el servicio recibe lo que queda en
+ * {@code header} y, si no responde a tiempo, la llamada se cancela con 504. Sin plazo en el contexto no hace nada.
+ */
+@RequiredArgsConstructor
+public class DeadlineExchangeFilterFunction implements ExchangeFilterFunction {
+    private final String header;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = context.getOrEmpty(Deadline.class);
+            if (deadline.isEmpty()) {
+                return next.exchange(request);
+            }
+
+            Duration remaining = deadline.get().remaining();
+            if (remaining.toMillis() <= 0) {
+                return Mono.error(Deadline.exceeded());
+            }
+            ClientRequest withBudget = ClientRequest.from(request)
+                    .headers(headers -> headers.set(header, String.valueOf(remaining.toMillis())))
+                    .build();
+            return next.exchange(withBudget).timeout(remaining, Mono.error(Deadline::exceeded));
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.servicio.reserva.gateway.infraestructure.bff;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: las llamadas concurrentes con la misma clave comparten una única llamada al servicio,
+ * y durante {@code replayWindow} tras completarse se devuelve el mismo resultado sin volver a llamar.
+ * <p>
+ * Solo se repiten resultados correctos; un error se comparte con quienes esperaban, pero no se guarda.
+ * Métrica: {@code gateway.coalescer.calls{name, outcome=upstream|joined|replayed}}.
+ */
+public class RequestCoalescer<T> {
+    private final Map<String, Mono<T>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, T> recent;
+    private final Counter upstream;
+    private final Counter joined;
+    private final Counter replayed;
+
+    public RequestCoalescer(String name, Duration replayWindow, long maxEntries, MeterRegistry meterRegistry) {
+        this.recent = Caffeine.newBuilder()
+                .expireAfterWrite(replayWindow)
+                .maximumSize(maxEntries)
+                .build();
+        this.upstream = counter(meterRegistry, name, "upstream");
+        this.joined = counter(meterRegistry, name, "joined");
+        this.replayed = counter(meterRegistry, name, "replayed");
+    }
+
+    public Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            T replay = recent.getIfPresent(key);
+            if (replay != null) {
+                replayed.increment();
+                return Mono.just(replay);
+            }
+
+            boolean[] created = new boolean[1];
+            Mono<T> shared = inFlight.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return startCall(k, call);
+            });
+
+            (created[0] ? upstream : joined).increment();
+            return shared;
+        });
+    }
+
+    private Mono<T> startCall(String key, Supplier<Mono<T>> call) {
+        // cache(): los que se unen a mitad reciben el mismo resultado y la cancelación
+        // de un cliente no aborta la llamada compartida
+        return call.get()
+                .doOnNext(value -> recent.put(key, value))
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("gateway.coalescer.calls")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
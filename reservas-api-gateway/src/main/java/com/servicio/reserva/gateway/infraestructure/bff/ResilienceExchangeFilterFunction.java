@@ -0,0 +1,35 @@
+package com.servicio.reserva.gateway.infraestructure.bff;
+
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker y bulkhead {@code name} para las llamadas del BFF al Auth Server.
+ */
+@RequiredArgsConstructor
+public class ResilienceExchangeFilterFunction implements ExchangeFilterFunction {
+    private final ResilienceGuard guard;
+    private final String name;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            ResilienceGuard.Permit permit = guard.acquire(name);
+            return next.exchange(request)
+                    .doOnSuccess(response -> {
+                        if (response == null) {
+                            permit.release();
+                        } else {
+                            permit.complete(response.statusCode());
+                        }
+                    })
+                    .doOnError(permit::onError)
+                    .doOnCancel(permit::release);
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.servicio.reserva.gateway.infraestructure.bff;
+
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import com.servicio.reserva.gateway.infraestructure.filters.retry.RetryPolicy;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.PeakEwmaLoadBalancer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reintenta las llamadas del BFF que fallan al conectar, es decir, que no llegaron al servicio: son seguras
+ * también para un POST como {@code /oauth2/token}. Debe ir por delante del balanceador para que cada reintento
+ * elija instancia, evitando las que ya fallaron.
+ */
+@RequiredArgsConstructor
+public class RetryExchangeFilterFunction implements ExchangeFilterFunction {
+    private final RetryPolicy policy;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            policy.onRequest();
+            return attempt(request, next, context.getOrDefault(Deadline.class, null), 1);
+        });
+    }
+
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next, Deadline deadline, int retry) {
+        return next.exchange(request).onErrorResume(error -> {
+            Duration backoff = RetryPolicy.isConnectFailure(error) ? policy.nextBackoff(retry, deadline) : null;
+            if (backoff == null) {
+                return Mono.error(error);
+            }
+            ClientRequest retried = avoiding(request, error);
+            return Mono.delay(backoff).then(Mono.defer(() -> attempt(retried, next, deadline, retry + 1)));
+        });
+    }
+
+    private static ClientRequest avoiding(ClientRequest request, Throwable error) {
+        if (!(error instanceof WebClientRequestException failed)) {
+            return request;
+        }
+        Set<String> avoided = new HashSet<>();
+        if (request.attributes().get(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR) instanceof Collection<?> previous) {
+            previous.forEach(instance -> avoided.add(String.valueOf(instance)));
+        }
+        URI instance = failed.getUri();
+        avoided.add(instance.getHost() + ":" + instance.getPort());
+        return ClientRequest.from(request).attribute(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR, avoided).build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Access log asíncrono ({@code gateway.access}): una línea JSON por petición muestreada.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+    private boolean enabled = true;
+    /**
+     * Registros pendientes de escribir como máximo (se redondea a potencia de dos); con el buffer lleno se descartan.
+     */
+    private int bufferSize = 8192;
+    /**
+     * Espera del hilo escritor cuando el buffer está vacío.
+     */
+    private Duration idleWait = Duration.ofMillis(50);
+    /**
+     * Fracción de peticiones que se registran por clase de estado ({@code 1xx} a {@code 5xx}); por defecto, todas.
+     */
+    private Map<String, Double> sampling = new LinkedHashMap<>();
+    /**
+     * Muestreo por id de ruta con las mismas claves; las clases que no se indican heredan de {@code sampling}.
+     */
+    private Map<String, Map<String, Double>> routes = new LinkedHashMap<>();
+}
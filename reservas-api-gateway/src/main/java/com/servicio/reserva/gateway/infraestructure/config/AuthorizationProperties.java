@@ -0,0 +1,49 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reglas de autorización por ruta de petición, compiladas junto a los predicados {@code Path} de las rutas.
+ * <p>
+ * Gana la primera regla que casa (como los {@code pathMatchers} de Spring Security); sin ninguna, basta con
+ * un JWT válido.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.authorization")
+public class AuthorizationProperties {
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        /**
+         * Patrón de ruta con la sintaxis de {@code PathPattern}, p. ej. {@code /api/reports/admin/**}.
+         */
+        private String path;
+        /**
+         * Métodos a los que se aplica; vacío para todos.
+         */
+        private Set<HttpMethod> methods = new LinkedHashSet<>();
+        private Access access = Access.AUTHENTICATED;
+        /**
+         * Con {@code access=authenticated}, exige además alguno de estos valores en el claim {@code roles} del JWT.
+         */
+        private Set<String> roles = new LinkedHashSet<>();
+
+        public boolean appliesTo(HttpMethod method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+    }
+
+    public enum Access {
+        PERMIT_ALL,
+        AUTHENTICATED,
+        DENY_ALL
+    }
+}
@@ -0,0 +1,33 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresión de respuestas por ruta ({@code gateway.compression.routes.<id>}).
+ * <p>
+ * La negocia Reactor Netty con el {@code Accept-Encoding} del cliente: gzip y deflate siempre, y brotli
+ * si {@code com.aayushatharva.brotli4j} está en el classpath. Las respuestas que ya vienen comprimidas
+ * del microservicio no se vuelven a comprimir.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+    private Map<String, RouteCompression> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class RouteCompression {
+        private boolean enabled = true;
+        /**
+         * Por debajo de este tamaño no se comprime; las respuestas sin Content-Length (streaming) sí.
+         */
+        private DataSize minResponseSize = DataSize.ofKilobytes(2);
+        private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "text/csv", "text/plain"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límite adaptativo de peticiones en vuelo por ruta.
+ * <p>
+ * {@code defaults} aplica a todas las rutas; {@code routes.<id>} solo sobreescribe los valores que declara.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private Limit defaults = Limit.standard();
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    public Limit forRoute(String routeId) {
+        return defaults.merge(routes.get(routeId));
+    }
+
+    @Data
+    public static class Limit {
+        private Integer initialLimit;
+        private Integer minLimit;
+        private Integer maxLimit;
+        /**
+         * Intervalo mínimo entre recálculos del límite.
+         */
+        private Duration window;
+        /**
+         * Muestras mínimas en la ventana para recalcular el límite.
+         */
+        private Integer minWindowSamples;
+        /**
+         * Cuánto puede crecer la latencia reciente respecto a la habitual antes de reducir el límite.
+         */
+        private Double tolerance;
+        /**
+         * Peso del nuevo valor al suavizar el límite (0-1).
+         */
+        private Double smoothing;
+        /**
+         * Factor que se aplica al límite cuando hay errores o timeouts en la ventana.
+         */
+        private Double backoffRatio;
+
+        static Limit standard() {
+            Limit limit = new Limit();
+            limit.initialLimit = 20;
+            limit.minLimit = 4;
+            limit.maxLimit = 200;
+            limit.window = Duration.ofSeconds(1);
+            limit.minWindowSamples = 10;
+            limit.tolerance = 1.5;
+            limit.smoothing = 0.2;
+            limit.backoffRatio = 0.9;
+            return limit;
+        }
+
+        Limit merge(Limit overrides) {
+            if (overrides == null) {
+                return this;
+            }
+            Limit merged = new Limit();
+            merged.initialLimit = overrides.initialLimit != null ? overrides.initialLimit : initialLimit;
+            merged.minLimit = overrides.minLimit != null ? overrides.minLimit : minLimit;
+            merged.maxLimit = overrides.maxLimit != null ? overrides.maxLimit : maxLimit;
+            merged.window = overrides.window != null ? overrides.window : window;
+            merged.minWindowSamples = overrides.minWindowSamples != null ? overrides.minWindowSamples : minWindowSamples;
+            merged.tolerance = overrides.tolerance != null ? overrides.tolerance : tolerance;
+            merged.smoothing = overrides.smoothing != null ? overrides.smoothing : smoothing;
+            merged.backoffRatio = overrides.backoffRatio != null ? overrides.backoffRatio : backoffRatio;
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pools de conexiones de Reactor Netty hacia los microservicios.
+ * <p>
+ * {@code defaults} aplica a todas las rutas y al cliente del BFF; {@code routes.<id>} y {@code bff}
+ * solo sobreescriben los valores que declaran.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.pools")
+public class ConnectionPoolProperties {
+    private Pool defaults = new Pool();
+    private Map<String, Pool> routes = new LinkedHashMap<>();
+    private Pool bff = new Pool();
+
+    public Pool forRoute(String routeId) {
+        return defaults.merge(routes.get(routeId));
+    }
+
+    public Pool forBff() {
+        return defaults.merge(bff);
+    }
+
+    public enum LeasingStrategy {
+        FIFO, LIFO
+    }
+
+    @Data
+    public static class Pool {
+        private Integer maxConnections;
+        private Integer pendingAcquireMaxCount;
+        private Duration pendingAcquireTimeout;
+        private Duration maxIdleTime;
+        private Duration maxLifeTime;
+        private Duration evictionInterval;
+        private LeasingStrategy leasingStrategy;
+
+        Pool merge(Pool overrides) {
+            if (overrides == null) {
+                return this;
+            }
+            Pool merged = new Pool();
+            merged.maxConnections = overrides.maxConnections != null ? overrides.maxConnections : maxConnections;
+            merged.pendingAcquireMaxCount = overrides.pendingAcquireMaxCount != null ? overrides.pendingAcquireMaxCount : pendingAcquireMaxCount;
+            merged.pendingAcquireTimeout = overrides.pendingAcquireTimeout != null ? overrides.pendingAcquireTimeout : pendingAcquireTimeout;
+            merged.maxIdleTime = overrides.maxIdleTime != null ? overrides.maxIdleTime : maxIdleTime;
+            merged.maxLifeTime = overrides.maxLifeTime != null ? overrides.maxLifeTime : maxLifeTime;
+            merged.evictionInterval = overrides.evictionInterval != null ? overrides.evictionInterval : evictionInterval;
+            merged.leasingStrategy = overrides.leasingStrategy != null ? overrides.leasingStrategy : leasingStrategy;
+            return merged;
+        }
+    }
+}
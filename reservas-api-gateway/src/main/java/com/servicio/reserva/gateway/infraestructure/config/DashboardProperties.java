@@ -0,0 +1,36 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partes de {@code GET /api/dashboard}: cada una se pide en paralelo a su servicio con el JWT del usuario
+ * y aparece en la respuesta con su nombre ({@code bff.dashboard.parts.<nombre>}). El nombre {@code errors} está
+ * reservado para los motivos de las partes que fallan.
+ */
+@Data
+@ConfigurationProperties(prefix = "bff.dashboard")
+public class DashboardProperties {
+    private Map<String, Part> parts = new LinkedHashMap<>();
+
+    @Data
+    public static class Part {
+        /**
+         * URI completa ({@code lb://servicio/ruta}); {@code {subject}} se sustituye por el {@code sub} del JWT.
+         */
+        private String uri;
+        /**
+         * Ruta del Gateway que atiende la parte: lleva las cabeceras de identidad firmadas solo si está en
+         * {@code gateway.identity.routes}. Por defecto el servicio de la URI, que coincide con el id de su ruta.
+         */
+        private String route;
+        /**
+         * Plazo de esta parte; si vence, la respuesta sale sin ella y con su error en {@code errors}.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,33 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plazo total de cada petición, en las rutas del Gateway y en los endpoints del BFF.
+ * <p>
+ * El cliente puede acortarlo con la cabecera {@code header} (milisegundos) y los servicios reciben en la misma
+ * cabecera lo que queda del plazo. Si vence antes de empezar la respuesta, se cancela la llamada y se responde 504.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+    private String header = "X-Request-Timeout";
+    /**
+     * Plazo de las rutas sin entrada en {@code routes} y de los endpoints del BFF que no caen en ninguna ruta.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    /**
+     * Plazo por id de ruta.
+     */
+    private Map<String, Duration> routes = new LinkedHashMap<>();
+
+    public Duration timeoutFor(String routeId) {
+        return routeId == null ? defaultTimeout : routes.getOrDefault(routeId, defaultTimeout);
+    }
+}
@@ -0,0 +1,146 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.servicio.reserva.gateway.infraestructure.filters.cache.ResponseCacheGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.concurrency.ConcurrencyLimitGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.DeadlineGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.DeadlineWebFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.hedging.HedgingGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.idempotency.IdempotencyGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.identity.IdentityHeaderGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.priority.PriorityGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.ratelimit.ClientAddressResolver;
+import com.servicio.reserva.gateway.infraestructure.filters.ratelimit.LocalRateLimiter;
+import com.servicio.reserva.gateway.infraestructure.filters.ratelimit.RateLimitGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGuard;
+import com.servicio.reserva.gateway.infraestructure.filters.retry.RetryGlobalFilter;
+import com.servicio.reserva.gateway.infraestructure.http.PooledNettyRoutingFilter;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaders;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Clock;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties({
+        ResponseCacheProperties.class,
+        RateLimitProperties.class,
+        ConcurrencyLimitProperties.class,
+        HedgingProperties.class,
+        IdempotencyProperties.class,
+        IdentityHeaderProperties.class,
+        PriorityProperties.class,
+        DeadlineProperties.class,
+        RetryProperties.class
+})
+public class GatewayFiltersConfig {
+    @Bean
+    public ResponseCacheGlobalFilter responseCacheGlobalFilter(ResponseCacheProperties properties,
+                                                               MeterRegistry meterRegistry,
+                                                               WebClient.Builder webClientBuilder,
+                                                               DeadlineProperties deadlineProperties,
+                                                               IdentityHeaders identityHeaders,
+                                                               ObjectProvider<Clock> clock) {
+        return new ResponseCacheGlobalFilter(properties, meterRegistry, webClientBuilder,
+                deadlineProperties.getHeader(), identityHeaders, clock.getIfAvailable(Clock::systemUTC));
+    }
+
+    @Bean
+    public IdempotencyGlobalFilter idempotencyGlobalFilter(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new IdempotencyGlobalFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    public IdentityHeaders identityHeaders(IdentityHeaderProperties properties) {
+        IdentityHeaderSigner signer = properties.isEnabled()
+                ? new IdentityHeaderSigner(properties.getActiveKeyId(), properties.getKeys())
+                : null;
+        return new IdentityHeaders(signer, properties.getRoutes(), properties.getMaxLifetime());
+    }
+
+    @Bean
+    public IdentityHeaderGlobalFilter identityHeaderGlobalFilter(IdentityHeaders identityHeaders) {
+        return new IdentityHeaderGlobalFilter(identityHeaders);
+    }
+
+    @Bean
+    public LocalRateLimiter localRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new LocalRateLimiter(properties, meterRegistry);
+    }
+
+    @Bean
+    public ClientAddressResolver clientAddressResolver(RateLimitProperties properties) {
+        return new ClientAddressResolver(properties.getTrustedProxyHops());
+    }
+
+    @Bean
+    public RateLimitGlobalFilter rateLimitGlobalFilter(LocalRateLimiter localRateLimiter,
+                                                       ClientAddressResolver clientAddressResolver) {
+        return new RateLimitGlobalFilter(localRateLimiter, clientAddressResolver);
+    }
+
+    @Bean
+    public PriorityGlobalFilter priorityGlobalFilter(PriorityProperties properties, MeterRegistry meterRegistry) {
+        return new PriorityGlobalFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    public DeadlineWebFilter deadlineWebFilter(DeadlineProperties properties,
+                                               RequestPathMatcher requestPathMatcher,
+                                               MeterRegistry meterRegistry) {
+        return new DeadlineWebFilter(properties, requestPathMatcher, meterRegistry);
+    }
+
+    @Bean
+    public DeadlineGlobalFilter deadlineGlobalFilter(DeadlineProperties properties) {
+        return new DeadlineGlobalFilter(properties.getHeader());
+    }
+
+    @Bean
+    public ConcurrencyLimitGlobalFilter concurrencyLimitGlobalFilter(ConcurrencyLimitProperties properties,
+                                                                     MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitGlobalFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    public ResilienceGuard resilienceGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                           BulkheadRegistry bulkheadRegistry,
+                                           MeterRegistry meterRegistry) {
+        return new ResilienceGuard(circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+    }
+
+    @Bean
+    public ResilienceGlobalFilter resilienceGlobalFilter(ResilienceGuard resilienceGuard) {
+        return new ResilienceGlobalFilter(resilienceGuard);
+    }
+
+    @Bean
+    public RetryGlobalFilter retryGlobalFilter(RetryProperties properties, MeterRegistry meterRegistry) {
+        return new RetryGlobalFilter(properties, meterRegistry);
+    }
+
+    @Bean
+    public HedgingGlobalFilter hedgingGlobalFilter(HedgingProperties properties,
+                                                   MeterRegistry meterRegistry,
+                                                   ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                   HttpClientProperties httpClientProperties,
+                                                   PooledNettyRoutingFilter routingFilter,
+                                                   ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                                                   DeadlineProperties deadlineProperties) {
+        return new HedgingGlobalFilter(properties, meterRegistry, headersFilters, httpClientProperties,
+                routingFilter, loadBalancerFactory, deadlineProperties.getHeader());
+    }
+}
@@ -0,0 +1,41 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Peticiones de cobertura (hedging) por ruta, solo para GET y HEAD.
+ * Se activa con {@code gateway.hedging.routes.<id>.enabled=true}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+    private Map<String, RouteHedging> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class RouteHedging {
+        private boolean enabled = false;
+        /**
+         * Percentil de latencia de la ruta a partir del cual se lanza el segundo intento.
+         */
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(10);
+        /**
+         * Retardo máximo; también se usa mientras no hay {@code min-samples} muestras.
+         */
+        private Duration maxDelay = Duration.ofMillis(500);
+        private int minSamples = 100;
+        /**
+         * Porcentaje máximo de peticiones que pueden generar un segundo intento.
+         */
+        private double budgetPercent = 5;
+        /**
+         * Intentos extra disponibles de golpe (tras un periodo tranquilo).
+         */
+        private int budgetBurst = 10;
+    }
+}
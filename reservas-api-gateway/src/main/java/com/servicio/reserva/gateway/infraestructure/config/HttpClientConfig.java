@@ -0,0 +1,69 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.servicio.reserva.gateway.infraestructure.http.ConnectionPoolRegistry;
+import com.servicio.reserva.gateway.infraestructure.http.PoolHttpClientFactory;
+import com.servicio.reserva.gateway.infraestructure.http.PooledNettyRoutingFilter;
+import com.servicio.reserva.gateway.infraestructure.http.RouteCompressionCustomizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * Sustituye el NettyRoutingFilter del Gateway (desactivado con
+ * {@code spring.cloud.gateway.server.webflux.global-filter.netty-routing.enabled=false})
+ * por uno con un pool de conexiones por ruta.
+ */
+@Configuration
+@EnableConfigurationProperties({
+        ConnectionPoolProperties.class,
+        CompressionProperties.class
+})
+public class HttpClientConfig {
+    @Bean
+    public PoolHttpClientFactory poolHttpClientFactory(HttpClientProperties properties,
+                                                       ServerProperties serverProperties,
+                                                       HttpClientSslConfigurer sslConfigurer,
+                                                       List<HttpClientCustomizer> customizers) {
+        return new PoolHttpClientFactory(properties, serverProperties, sslConfigurer, customizers);
+    }
+
+    @Bean
+    public ConnectionPoolRegistry connectionPoolRegistry(ConnectionPoolProperties properties,
+                                                         ShutdownProperties shutdownProperties,
+                                                         PoolHttpClientFactory poolHttpClientFactory,
+                                                         MeterRegistry meterRegistry) {
+        return new ConnectionPoolRegistry(properties, shutdownProperties.getPoolCloseTimeout(),
+                poolHttpClientFactory, meterRegistry);
+    }
+
+    @Bean
+    public PooledNettyRoutingFilter pooledNettyRoutingFilter(HttpClient httpClient,
+                                                             ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                             HttpClientProperties properties,
+                                                             ConnectionPoolRegistry connectionPoolRegistry) {
+        return new PooledNettyRoutingFilter(httpClient, headersFilters, properties, connectionPoolRegistry);
+    }
+
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties properties) {
+        return new NettyWriteResponseFilter(properties.getStreamingMediaTypes());
+    }
+
+    @Bean
+    public RouteCompressionCustomizer routeCompressionCustomizer(CompressionProperties properties,
+                                                                 GatewayProperties gatewayProperties) {
+        return new RouteCompressionCustomizer(properties, gatewayProperties);
+    }
+}
@@ -0,0 +1,41 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicación de POST con {@code Idempotency-Key}, opcional por ruta ({@code gateway.idempotency.routes.<id>}).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.idempotency")
+public class IdempotencyProperties {
+    private Map<String, RouteIdempotency> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class RouteIdempotency {
+        private boolean enabled;
+        /**
+         * Tiempo durante el que un reintento recibe la respuesta guardada en lugar de volver al servicio.
+         */
+        private Duration ttl = Duration.ofHours(24);
+        private int maxEntries = 100_000;
+        private DataSize maxBytes = DataSize.ofMegabytes(32);
+        /**
+         * El cuerpo de la petición se lee entero para calcular su huella; por encima de este tamaño, 413.
+         */
+        private DataSize maxRequestSize = DataSize.ofMegabytes(1);
+        /**
+         * Respuestas mayores no se guardan: el siguiente reintento vuelve a ir al servicio.
+         */
+        private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+        /**
+         * Espera máxima de un reintento a que termine la petición en curso con la misma clave; después, 409.
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+    }
+}
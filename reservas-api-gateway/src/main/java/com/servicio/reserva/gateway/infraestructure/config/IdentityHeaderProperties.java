@@ -0,0 +1,38 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cabeceras de identidad firmadas con HMAC en lugar del {@code Authorization} hacia los servicios internos.
+ * <p>
+ * Rotación de claves: se añade la clave nueva a {@code keys} aquí y en los servicios (que aceptan todas las de su
+ * lista), se cambia {@code active-key-id} y, pasado {@code max-lifetime}, se retira la antigua de ambos lados.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.identity")
+public class IdentityHeaderProperties {
+    private boolean enabled;
+    /**
+     * Ids de ruta que reciben las cabeceras firmadas; el resto conserva el {@code Authorization} original.
+     */
+    private Set<String> routes = new LinkedHashSet<>();
+    /**
+     * Clave con la que se firma; debe estar en {@code keys}.
+     */
+    private String activeKeyId;
+    /**
+     * Claves HMAC-SHA256 por id, en Base64 (mínimo 32 bytes).
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+    /**
+     * Validez máxima de las cabeceras firmadas, aunque el JWT caduque más tarde.
+     */
+    private Duration maxLifetime = Duration.ofSeconds(60);
+}
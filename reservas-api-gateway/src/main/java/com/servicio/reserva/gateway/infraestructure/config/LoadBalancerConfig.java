@@ -0,0 +1,41 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.InstanceStatsLifecycle;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.InstanceStatsRegistry;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.RegistrySnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Sustituye el round robin de Spring Cloud LoadBalancer por {@code PeakEwmaLoadBalancer} en todos los
+ * servicios {@code lb://}, tanto en las rutas como en el {@code WebClient} del BFF.
+ */
+@Configuration
+@EnableConfigurationProperties({LoadBalancerStatsProperties.class, RegistrySnapshotProperties.class})
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(LoadBalancerStatsProperties properties) {
+        return new InstanceStatsRegistry(properties);
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry instanceStatsRegistry) {
+        return new InstanceStatsLifecycle(instanceStatsRegistry, Duration.ofMinutes(5));
+    }
+
+    @Bean
+    public RegistrySnapshotStore registrySnapshotStore(RegistrySnapshotProperties properties,
+                                                       ObjectMapper objectMapper,
+                                                       MeterRegistry meterRegistry) {
+        return new RegistrySnapshotStore(properties.getSnapshotFile(), properties.getSnapshotMaxAge(),
+                properties.getSnapshotWriteInterval(), objectMapper, meterRegistry);
+    }
+}
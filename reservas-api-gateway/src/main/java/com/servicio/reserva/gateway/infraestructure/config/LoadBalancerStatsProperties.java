@@ -0,0 +1,27 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Estadísticas por instancia que usa el balanceador P2C con EWMA de latencia.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.loadbalancer")
+public class LoadBalancerStatsProperties {
+    /**
+     * Constante de tiempo de la media móvil de latencia: cuánto tarda en olvidarse un pico.
+     */
+    private Duration decay = Duration.ofSeconds(10);
+    /**
+     * Latencia que se suma a una instancia que acaba de fallar; se reduce linealmente durante {@code failure-penalty-window}.
+     */
+    private Duration failurePenalty = Duration.ofSeconds(2);
+    private Duration failurePenaltyWindow = Duration.ofSeconds(30);
+    /**
+     * Las estadísticas de una instancia sin tráfico durante este tiempo se descartan.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+}
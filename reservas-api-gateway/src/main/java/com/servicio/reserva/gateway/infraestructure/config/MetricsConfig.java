@@ -0,0 +1,25 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.servicio.reserva.gateway.infraestructure.accesslog.AccessLog;
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimingWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class MetricsConfig {
+    @Bean
+    public AccessLog accessLog(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        return new AccessLog(properties, meterRegistry);
+    }
+
+    @Bean
+    public GatewayTimingWebFilter gatewayTimingWebFilter(MeterRegistry meterRegistry,
+                                                         @Value("${gateway.metrics.server-timing:false}") boolean serverTimingHeader,
+                                                         AccessLog accessLog) {
+        return new GatewayTimingWebFilter(meterRegistry, serverTimingHeader, accessLog);
+    }
+}
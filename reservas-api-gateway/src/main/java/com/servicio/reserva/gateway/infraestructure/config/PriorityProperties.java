@@ -0,0 +1,94 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Carriles de prioridad para las peticiones en vuelo de todo el Gateway.
+ * <p>
+ * Cada ruta ({@code routes.<id>}) pertenece a una clase; las rutas sin clase son {@code normal}. Cada clase puede
+ * ocupar como mucho {@code share} de {@code max-concurrency} y, por encima, espera en su propia cola. Al liberarse
+ * un hueco pasa primero la cola {@code critical}, luego {@code normal} y por último {@code bulk}.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.priority")
+public class PriorityProperties {
+    private boolean enabled = true;
+    private int maxConcurrency = 512;
+    private Map<String, PriorityClass> routes = new LinkedHashMap<>();
+    /**
+     * Solo sobreescribe los valores que declara; el resto son los de {@link Lane#standard}.
+     */
+    private Map<PriorityClass, Lane> lanes = new EnumMap<>(PriorityClass.class);
+
+    public PriorityClass classOf(String routeId) {
+        return routes.getOrDefault(routeId, PriorityClass.NORMAL);
+    }
+
+    public Lane forClass(PriorityClass priorityClass) {
+        return Lane.standard(priorityClass).merge(lanes.get(priorityClass));
+    }
+
+    public enum PriorityClass {
+        CRITICAL, NORMAL, BULK;
+
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Data
+    public static class Lane {
+        /**
+         * Fracción de {@code max-concurrency} que puede ocupar la clase (0-1).
+         */
+        private Double share;
+        /**
+         * Peticiones en espera como máximo; con la cola llena se responde 503 sin esperar.
+         */
+        private Integer maxQueue;
+        /**
+         * Espera máxima en la cola antes de responder 503.
+         */
+        private Duration maxWait;
+
+        static Lane standard(PriorityClass priorityClass) {
+            Lane lane = new Lane();
+            switch (priorityClass) {
+                case CRITICAL -> {
+                    lane.share = 1.0;
+                    lane.maxQueue = 1000;
+                    lane.maxWait = Duration.ofSeconds(5);
+                }
+                case NORMAL -> {
+                    lane.share = 0.8;
+                    lane.maxQueue = 500;
+                    lane.maxWait = Duration.ofSeconds(2);
+                }
+                case BULK -> {
+                    lane.share = 0.25;
+                    lane.maxQueue = 50;
+                    lane.maxWait = Duration.ofSeconds(1);
+                }
+            }
+            return lane;
+        }
+
+        Lane merge(Lane overrides) {
+            if (overrides == null) {
+                return this;
+            }
+            Lane merged = new Lane();
+            merged.share = overrides.share != null ? overrides.share : share;
+            merged.maxQueue = overrides.maxQueue != null ? overrides.maxQueue : maxQueue;
+            merged.maxWait = overrides.maxWait != null ? overrides.maxWait : maxWait;
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limitación de tasa local (sin Redis). Cada política se identifica por el id de la ruta del Gateway
+ * o por un endpoint del BFF ({@code bff-login-ip}, {@code bff-login-email}).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Máximo de claves (IP, email, subject) con bucket en memoria; las menos usadas se descartan.
+     */
+    private long maxKeys = 100_000;
+    /**
+     * Un bucket sin peticiones durante este tiempo se elimina (vuelve a estar lleno igualmente).
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    /**
+     * Saltos de X-Forwarded-For de confianza (0 = usar la IP de la conexión).
+     */
+    private int trustedProxyHops = 0;
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public enum KeyType {
+        IP, SUBJECT
+    }
+
+    @Data
+    public static class Policy {
+        /**
+         * Peticiones permitidas por {@code period}.
+         */
+        private int limit;
+        private Duration period = Duration.ofSeconds(1);
+        /**
+         * Ráfaga máxima; por defecto igual a {@code limit}.
+         */
+        private Integer burst;
+        /**
+         * Clave de las políticas de ruta. Las del BFF limitan siempre por la clave de su endpoint (la IP o el email
+         * del login) y solo admiten el valor por defecto.
+         */
+        private KeyType key = KeyType.IP;
+    }
+}
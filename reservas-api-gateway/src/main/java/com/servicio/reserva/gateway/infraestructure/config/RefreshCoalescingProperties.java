@@ -0,0 +1,24 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Refrescos de token del BFF: las llamadas concurrentes con el mismo {@code refresh_token} comparten una sola
+ * llamada al Auth Server y su resultado.
+ */
+@Data
+@ConfigurationProperties(prefix = "bff.refresh")
+public class RefreshCoalescingProperties {
+    /**
+     * Tiempo durante el que se devuelve el resultado de un refresco ya completado a quien repite el mismo token.
+     */
+    private Duration replayWindow = Duration.ofSeconds(2);
+    /**
+     * Máximo de resultados guardados para esa ventana; al superarlo se descartan los más antiguos y esos refrescos
+     * vuelven a llamar al Auth Server.
+     */
+    private long maxEntries = 10_000;
+}
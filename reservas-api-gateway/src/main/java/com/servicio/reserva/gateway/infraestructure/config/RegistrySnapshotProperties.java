@@ -0,0 +1,37 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Copia local de las instancias de Eureka para balancear antes de la primera descarga del registro
+ * y mientras Eureka no responda.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.registry")
+public class RegistrySnapshotProperties {
+    /**
+     * Fichero donde se guarda la última lista de instancias por servicio; sin fichero solo se conserva en memoria.
+     */
+    private Path snapshotFile;
+    /**
+     * Al arrancar se ignoran los servicios guardados hace más de este tiempo.
+     */
+    private Duration snapshotMaxAge = Duration.ofHours(24);
+    /**
+     * Cada cuánto se escribe el fichero si ha cambiado alguna lista (y siempre al parar).
+     */
+    private Duration snapshotWriteInterval = Duration.ofSeconds(30);
+    /**
+     * Comprobar en segundo plano la salud de cada instancia ({@code spring.cloud.loadbalancer.health-check.*})
+     * y balancear solo entre las que responden.
+     * <p>
+     * Se asume que cada servicio publica {@code spring.cloud.loadbalancer.health-check.path.default}
+     * ({@code /actuator/health}). Los que no, declaran su ruta en {@code health-check.path.<serviceId>}, o la dejan
+     * vacía para no comprobarlos. Si aun así no responde ninguna instancia, se balancea entre todas.
+     */
+    private boolean healthChecks = true;
+}
@@ -0,0 +1,35 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de respuestas GET en el Gateway, opcional por ruta ({@code gateway.response-cache.routes.<id>}).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+    private Map<String, RouteCache> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class RouteCache {
+        private boolean enabled;
+        private int maxEntries = 1000;
+        private DataSize maxBytes = DataSize.ofMegabytes(16);
+        private DataSize maxEntryBytes = DataSize.ofKilobytes(512);
+        /**
+         * TTL si el servicio no envía max-age/s-maxage; vacío = no cachear esas respuestas.
+         */
+        private Duration defaultTtl;
+        /**
+         * Ventana en la que se sirve contenido caducado mientras se revalida en segundo plano,
+         * si el servicio no envía stale-while-revalidate.
+         */
+        private Duration staleWhileRevalidate = Duration.ZERO;
+    }
+}
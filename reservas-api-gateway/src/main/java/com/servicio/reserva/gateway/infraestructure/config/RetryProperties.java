@@ -0,0 +1,57 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reintentos por id de ruta, o {@code bff-auth} para las llamadas del BFF al Auth Server.
+ * Se activa con {@code gateway.retry.routes.<id>.enabled=true}.
+ * <p>
+ * Los fallos de conexión (la petición no llegó al servicio) se reintentan con cualquier método; los errores de E/S
+ * y los estados de {@code statuses}, solo con los métodos de {@code methods}. En el BFF solo se reintentan los
+ * fallos de conexión.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.retry")
+public class RetryProperties {
+    private Map<String, RouteRetry> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class RouteRetry {
+        private boolean enabled = false;
+        private int maxRetries = 2;
+        /**
+         * Métodos idempotentes: se pueden repetir aunque el servicio ya haya recibido la petición.
+         */
+        private Set<HttpMethod> methods = new LinkedHashSet<>(List.of(
+                HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE));
+        private Set<Integer> statuses = new LinkedHashSet<>(List.of(502, 503));
+        /**
+         * Espera antes del primer reintento; se dobla en cada uno hasta {@code max-backoff} y se aplica al azar
+         * entre cero y ese valor.
+         */
+        private Duration firstBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        /**
+         * Porcentaje máximo de reintentos sobre las peticiones de la ruta.
+         */
+        private double budgetPercent = 10;
+        /**
+         * Reintentos disponibles de golpe (tras un periodo tranquilo).
+         */
+        private int budgetBurst = 10;
+        /**
+         * Cuerpo máximo que se guarda para reenviarlo; con uno mayor o de tamaño desconocido no se reintenta.
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(64);
+    }
+}
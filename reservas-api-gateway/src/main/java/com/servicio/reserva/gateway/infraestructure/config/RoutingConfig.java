@@ -0,0 +1,39 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import com.servicio.reserva.gateway.infraestructure.routing.TrieRoutePredicateHandlerMapping;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Rutas del Gateway y reglas de autorización resueltas con un solo árbol de prefijos por petición.
+ */
+@Configuration
+@EnableConfigurationProperties(AuthorizationProperties.class)
+public class RoutingConfig {
+    @Bean
+    public RequestPathMatcher requestPathMatcher(AuthorizationProperties properties,
+                                                 RouteDefinitionLocator routeDefinitionLocator) {
+        return new RequestPathMatcher(properties.getRules(), routeDefinitionLocator);
+    }
+
+    /**
+     * Sustituye al {@code RoutePredicateHandlerMapping} de la autoconfiguración del Gateway.
+     */
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment,
+                                                                     RequestPathMatcher requestPathMatcher) {
+        return new TrieRoutePredicateHandlerMapping(webHandler, routeLocator, globalCorsProperties, environment,
+                requestPathMatcher);
+    }
+}
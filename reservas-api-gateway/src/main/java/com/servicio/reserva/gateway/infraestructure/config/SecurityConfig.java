@@ -1,29 +1,62 @@
 package com.servicio.reserva.gateway.infraestructure.config;
 
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import com.servicio.reserva.gateway.infraestructure.security.CachingReactiveJwtDecoder;
+import com.servicio.reserva.gateway.infraestructure.security.JwkSetHealthIndicator;
+import com.servicio.reserva.gateway.infraestructure.security.PathAuthorizationManager;
+import com.servicio.reserva.gateway.infraestructure.security.PrefetchingJwkSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, RequestPathMatcher requestPathMatcher) {
+        // Reglas en gateway.authorization.rules, resueltas en el mismo recorrido que la ruta
         http
                 .authorizeExchange(exchange ->
-                    exchange
-                            .pathMatchers("/api/auth/register").permitAll()
-                            .pathMatchers("/api/auth/login").permitAll()
-                            .pathMatchers("/api/auth/refresh").permitAll()
-                            .pathMatchers("/api/auth/logout").permitAll()
-                            .anyExchange().authenticated()
+                    exchange.anyExchange().access(new PathAuthorizationManager(requestPathMatcher))
                 )
                 .oauth2ResourceServer(server -> server.jwt(Customizer.withDefaults()))
                 .csrf(ServerHttpSecurity.CsrfSpec::disable);
 
         return http.build();
     }
+
+    @Bean
+    public PrefetchingJwkSource jwkSource(@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                          @Value("${gateway.security.jwks.refresh-interval:5m}") Duration refreshInterval,
+                                          @Value("${gateway.security.jwks.unknown-kid-cooldown:30s}") Duration unknownKidCooldown,
+                                          @Value("${gateway.security.jwks.fetch-timeout:5s}") Duration fetchTimeout) {
+        return new PrefetchingJwkSource(WebClient.builder().build(), jwkSetUri, refreshInterval, unknownKidCooldown, fetchTimeout);
+    }
+
+    @Bean(name = "jwks")
+    public JwkSetHealthIndicator jwkSetHealthIndicator(PrefetchingJwkSource jwkSource) {
+        return new JwkSetHealthIndicator(jwkSource);
+    }
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(PrefetchingJwkSource jwkSource,
+                                         @Value("${gateway.security.jwt-cache.max-entries:10000}") long maxEntries,
+                                         MeterRegistry meterRegistry) {
+        ReactiveJwtDecoder nimbusDecoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSource::getKeys).build();
+        ReactiveJwtDecoder cachingDecoder = new CachingReactiveJwtDecoder(nimbusDecoder, maxEntries, meterRegistry);
+        return token -> GatewayTimings.record(GatewayTimings.Phase.JWT,
+                GatewayTimings.recordSubject(cachingDecoder.decode(token), Jwt::getSubject));
+    }
 }
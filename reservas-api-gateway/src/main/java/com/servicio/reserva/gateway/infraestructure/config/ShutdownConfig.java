@@ -0,0 +1,15 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import com.servicio.reserva.gateway.infraestructure.lifecycle.GracefulShutdown;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShutdownProperties.class)
+public class ShutdownConfig {
+    @Bean
+    public GracefulShutdown gracefulShutdown(ShutdownProperties properties) {
+        return new GracefulShutdown(properties.getDrainDelay());
+    }
+}
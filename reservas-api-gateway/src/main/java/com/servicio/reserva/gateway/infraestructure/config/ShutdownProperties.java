@@ -0,0 +1,23 @@
+package com.servicio.reserva.gateway.infraestructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Apagado ordenado del Gateway (despliegues con reinicio progresivo).
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.shutdown")
+public class ShutdownProperties {
+    /**
+     * Tiempo que se sigue atendiendo con normalidad tras anunciar el apagado (fuera de Eureka y sin readiness),
+     * para que balanceadores y clientes dejen de enviar peticiones nuevas antes de cerrar el puerto.
+     */
+    private Duration drainDelay = Duration.ofSeconds(5);
+    /**
+     * Espera máxima a que vuelvan las conexiones prestadas al cerrar los pools hacia los servicios.
+     */
+    private Duration poolCloseTimeout = Duration.ofSeconds(3);
+}
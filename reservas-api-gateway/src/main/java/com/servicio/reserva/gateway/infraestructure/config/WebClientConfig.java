@@ -1,15 +1,20 @@
 package com.servicio.reserva.gateway.infraestructure.config;
 
+import com.servicio.reserva.gateway.infraestructure.http.ConnectionPoolRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@EnableConfigurationProperties({DashboardProperties.class, RefreshCoalescingProperties.class})
 public class WebClientConfig {
     @Bean
     @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder loadBalancedWebClientBuilder(ConnectionPoolRegistry connectionPoolRegistry) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(connectionPoolRegistry.bffHttpClient()));
     }
 }
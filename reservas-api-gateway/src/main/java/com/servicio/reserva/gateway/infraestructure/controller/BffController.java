@@ -3,6 +3,20 @@ package com.servicio.reserva.gateway.infraestructure.controller;
 import com.servicio.reserva.gateway.application.dto.requests.LoginRequest;
 import com.servicio.reserva.gateway.application.dto.requests.LogoutRequest;
 import com.servicio.reserva.gateway.application.dto.requests.RefreshTokenRequest;
+import com.servicio.reserva.gateway.infraestructure.bff.DeadlineExchangeFilterFunction;
+import com.servicio.reserva.gateway.infraestructure.bff.RequestCoalescer;
+import com.servicio.reserva.gateway.infraestructure.bff.ResilienceExchangeFilterFunction;
+import com.servicio.reserva.gateway.infraestructure.bff.RetryExchangeFilterFunction;
+import com.servicio.reserva.gateway.infraestructure.config.DeadlineProperties;
+import com.servicio.reserva.gateway.infraestructure.config.RefreshCoalescingProperties;
+import com.servicio.reserva.gateway.infraestructure.config.RetryProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.ratelimit.ClientAddressResolver;
+import com.servicio.reserva.gateway.infraestructure.filters.ratelimit.LocalRateLimiter;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGuard;
+import com.servicio.reserva.gateway.infraestructure.filters.retry.RetryPolicy;
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -14,55 +28,94 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 public class BffController {
+    private static final String AUTH_CLIENT = "bff-auth";
+
     private final WebClient webClient;
+    private final RequestCoalescer<Map<String, Object>> refreshCoalescer;
+    private final LocalRateLimiter rateLimiter;
+    private final ClientAddressResolver clientAddressResolver;
 
     public BffController(WebClient.Builder webClientBuilder,
                          @Value("${bff.client-id}") String clientId,
                          @Value("${bff.client-secret}") String clientSecret,
-                         @Value("${bff.auth-service-uri}") String authServiceUri) {
-        this.webClient = webClientBuilder
+                         @Value("${bff.auth-service-uri}") String authServiceUri,
+                         RefreshCoalescingProperties refreshProperties,
+                         MeterRegistry meterRegistry,
+                         LocalRateLimiter rateLimiter,
+                         ClientAddressResolver clientAddressResolver,
+                         ResilienceGuard resilienceGuard,
+                         DeadlineProperties deadlineProperties,
+                         RetryProperties retryProperties) {
+        RetryProperties.RouteRetry retry = retryProperties.getRoutes().get(AUTH_CLIENT);
+        // clone(): el builder es un singleton compartido; sin copiarlo, las credenciales del cliente
+        // quedarían en cualquier otro WebClient construido a partir de él
+        this.webClient = webClientBuilder.clone()
                 .baseUrl(authServiceUri)
+                .filters(filters -> {
+                    // Por delante del balanceador (primer filtro del builder): cada reintento elige instancia
+                    if (retry != null && retry.isEnabled()) {
+                        filters.addFirst(new RetryExchangeFilterFunction(new RetryPolicy(AUTH_CLIENT, retry, meterRegistry)));
+                    }
+                })
+                .filter(new DeadlineExchangeFilterFunction(deadlineProperties.getHeader()))
                 .filter(ExchangeFilterFunctions.basicAuthentication(clientId, clientSecret))
+                .filter(new ResilienceExchangeFilterFunction(resilienceGuard, AUTH_CLIENT))
+                .filter((request, next) -> GatewayTimings.record(GatewayTimings.Phase.UPSTREAM, next.exchange(request)))
                 .build();
+        this.refreshCoalescer = new RequestCoalescer<>("refresh-token", refreshProperties.getReplayWindow(),
+                refreshProperties.getMaxEntries(), meterRegistry);
+        this.rateLimiter = rateLimiter;
+        this.clientAddressResolver = clientAddressResolver;
     }
 
     @PostMapping("/auth/login")
-    public Mono<Map<String, Object>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public Mono<Map<String, Object>> login(@Valid @RequestBody LoginRequest loginRequest, ServerWebExchange exchange) {
         BodyInserters.FormInserter<String> formData = BodyInserters
                 .fromFormData("grant_type", "password")
                 .with("username", loginRequest.getEmail())
                 .with("password", loginRequest.getPassword())
                 .with("scope", "openid read write");
 
-        return this.webClient.post()
-                .uri("/oauth2/token")
-                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                .body(formData)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<>() {
-                });
+        // Cada login cuesta un hash de contraseña en el Auth Server: se limita por IP y por email antes de llamarlo
+        String email = TokenHasher.sha256(loginRequest.getEmail().trim().toLowerCase(Locale.ROOT));
+        return rateLimiter.acquire("bff-login-ip", clientAddressResolver.resolve(exchange))
+                .then(rateLimiter.acquire("bff-login-email", email))
+                .then(Mono.defer(() -> this.webClient.post()
+                        .uri("/oauth2/token")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .body(formData)
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<>() {
+                        })));
     }
 
     @PostMapping("/auth/refresh")
     public Mono<Map<String, Object>> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
-        BodyInserters.FormInserter<String> formData = BodyInserters
-                .fromFormData("grant_type", "refresh_token")
-                .with("refresh_token", refreshTokenRequest.getRefresh_token());
+        String refreshToken = refreshTokenRequest.getRefresh_token();
 
-        return this.webClient.post()
-                .uri("/oauth2/token")
-                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                .body(formData)
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<>() {
-                });
+        // Varias pestañas refrescando a la vez comparten una sola llamada a /oauth2/token
+        return refreshCoalescer.execute(TokenHasher.sha256(refreshToken), () -> {
+            BodyInserters.FormInserter<String> formData = BodyInserters
+                    .fromFormData("grant_type", "refresh_token")
+                    .with("refresh_token", refreshToken);
+
+            return this.webClient.post()
+                    .uri("/oauth2/token")
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(formData)
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<>() {
+                    });
+        });
     }
 
     @PostMapping("/auth/logout")
@@ -0,0 +1,129 @@
+package com.servicio.reserva.gateway.infraestructure.controller;
+
+import com.servicio.reserva.gateway.infraestructure.bff.DeadlineExchangeFilterFunction;
+import com.servicio.reserva.gateway.infraestructure.bff.ResilienceExchangeFilterFunction;
+import com.servicio.reserva.gateway.infraestructure.config.DashboardProperties;
+import com.servicio.reserva.gateway.infraestructure.config.DeadlineProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGuard;
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pantalla de inicio en una sola llamada: perfil, catálogo y próximas reservas (las partes de
+ * {@code bff.dashboard.parts}) se piden en paralelo con el JWT del usuario o, si la ruta de la parte está en
+ * {@code gateway.identity.routes}, con las cabeceras de identidad firmadas en su lugar, igual que en esa ruta.
+ * <p>
+ * Cada parte tiene su plazo. La respuesta lleva una clave por parte (su cuerpo, o {@code null} si falló)
+ * y en {@code errors} el motivo de cada parte que falta, así que un servicio lento no bloquea al resto.
+ */
+@RestController
+@RequestMapping("/api")
+public class DashboardController {
+    private static final String ERRORS = "errors";
+
+    private final Map<String, Part> parts = new LinkedHashMap<>();
+    private final IdentityHeaders identityHeaders;
+
+    public DashboardController(WebClient.Builder webClientBuilder,
+                               DashboardProperties properties,
+                               ResilienceGuard resilienceGuard,
+                               DeadlineProperties deadlineProperties,
+                               IdentityHeaders identityHeaders) {
+        this.identityHeaders = identityHeaders;
+        properties.getParts().forEach((name, part) -> {
+            if (ERRORS.equals(name)) {
+                throw new IllegalStateException("Dashboard part '" + ERRORS + "' is reserved for the error markers");
+            }
+            // Mismo circuit breaker que la ruta del servicio: si está abierto la parte falla sin esperar al plazo
+            String serviceId = UriComponentsBuilder.fromUriString(part.getUri()).build().getHost();
+            WebClient webClient = webClientBuilder.clone()
+                    .filter(new DeadlineExchangeFilterFunction(deadlineProperties.getHeader()))
+                    .filter(new ResilienceExchangeFilterFunction(resilienceGuard, serviceId))
+                    .build();
+            String route = part.getRoute() != null ? part.getRoute() : serviceId;
+            parts.put(name, new Part(webClient, part.getUri(), part.getTimeout(), identityHeaders.appliesTo(route)));
+        });
+    }
+
+    @GetMapping("/dashboard")
+    public Mono<Map<String, Object>> dashboard(@AuthenticationPrincipal Jwt jwt) {
+        Mono<Map<String, Object>> fanOut = Flux.fromIterable(parts.entrySet())
+                .flatMap(entry -> fetch(entry.getValue(), jwt).map(result -> Map.entry(entry.getKey(), result)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(this::merge);
+
+        // Las partes van en paralelo: cuenta como espera al servicio el tiempo de la más lenta, no la suma
+        return GatewayTimings.record(GatewayTimings.Phase.UPSTREAM, fanOut);
+    }
+
+    private Mono<PartResult> fetch(Part part, Jwt jwt) {
+        return part.webClient().get()
+                .uri(part.uri(), Collections.singletonMap("subject", jwt.getSubject()))
+                .headers(headers -> {
+                    headers.setBearerAuth(jwt.getTokenValue());
+                    if (part.signedIdentity()) {
+                        identityHeaders.apply(headers, jwt);
+                    }
+                })
+                .retrieve()
+                .bodyToMono(Object.class)
+                .map(body -> new PartResult(body, null))
+                .defaultIfEmpty(new PartResult(null, null))
+                .timeout(part.timeout())
+                .onErrorResume(error -> Mono.just(new PartResult(null, errorMarker(error))));
+    }
+
+    private Map<String, Object> merge(Map<String, PartResult> results) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        Map<String, Object> errors = new LinkedHashMap<>();
+        parts.keySet().forEach(name -> {
+            PartResult result = results.get(name);
+            response.put(name, result.body());
+            if (result.error() != null) {
+                errors.put(name, result.error());
+            }
+        });
+        response.put(ERRORS, errors);
+        return response;
+    }
+
+    private static Map<String, Object> errorMarker(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return Map.of("error", "timeout");
+        }
+        if (error instanceof WebClientResponseException responseException) {
+            return Map.of("error", "upstream_error", "status", responseException.getStatusCode().value());
+        }
+        if (error instanceof GatewayRejectionException rejection && rejection.getStatus() == HttpStatus.GATEWAY_TIMEOUT) {
+            return Map.of("error", "timeout");
+        }
+        if (error instanceof GatewayRejectionException) {
+            return Map.of("error", "upstream_unavailable");
+        }
+        return Map.of("error", "upstream_unreachable");
+    }
+
+    private record Part(WebClient webClient, String uri, Duration timeout, boolean signedIdentity) {
+    }
+
+    private record PartResult(Object body, Map<String, Object> error) {
+    }
+}
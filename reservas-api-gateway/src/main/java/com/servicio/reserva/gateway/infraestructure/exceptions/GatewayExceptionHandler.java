@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
@@ -19,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+@Slf4j
 @RestControllerAdvice
 @RequiredArgsConstructor
 public class GatewayExceptionHandler {
@@ -36,7 +40,7 @@ public class GatewayExceptionHandler {
             }
         });
 
-        System.out.println("fieldErrors: " + fieldErrors);
+        log.debug("Validation failed on {}: {}", request.getPath(), fieldErrors);
 
         return Mono.just(
                 new GatewayErrorResponse(HttpStatus.BAD_REQUEST.value(), request.getPath().toString(), HttpStatus.BAD_REQUEST.getReasonPhrase(), fieldErrors)
@@ -74,4 +78,35 @@ public class GatewayExceptionHandler {
 
         return ResponseEntity.status(statusCode).body(errorResponse);
     }
+
+    @ExceptionHandler(WebClientRequestException.class)
+    public ResponseEntity<GatewayErrorResponse> handleWebClientRequestException(WebClientRequestException ex, ServerHttpRequest request) {
+        // El servicio no llegó a responder (conexión rechazada, reset, timeout de conexión)
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        GatewayErrorResponse errorResponse = new GatewayErrorResponse(
+                status.value(),
+                request.getPath().toString(),
+                status.getReasonPhrase(),
+                Map.of("error", "upstream_unreachable")
+        );
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
+    @ExceptionHandler(GatewayRejectionException.class)
+    public ResponseEntity<GatewayErrorResponse> handleGatewayRejectionException(GatewayRejectionException ex, ServerHttpRequest request) {
+        HttpStatus status = ex.getStatus();
+        GatewayErrorResponse errorResponse = new GatewayErrorResponse(
+                status.value(),
+                request.getPath().toString(),
+                status.getReasonPhrase(),
+                Map.of("error", ex.getMessage())
+        );
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (ex.getRetryAfter() != null) {
+            long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        }
+        return response.body(errorResponse);
+    }
 }
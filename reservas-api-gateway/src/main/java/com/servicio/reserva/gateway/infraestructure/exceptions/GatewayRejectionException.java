@@ -0,0 +1,26 @@
+package com.servicio.reserva.gateway.infraestructure.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Petición rechazada por el propio Gateway (límite de tasa, sobrecarga, circuito abierto...) antes o en lugar
+ * de llegar al microservicio. Se traduce a un {@link GatewayErrorResponse} con {@code Retry-After} si aplica.
+ */
+@Getter
+public class GatewayRejectionException extends RuntimeException {
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public GatewayRejectionException(HttpStatus status, String message) {
+        this(status, message, null);
+    }
+
+    public GatewayRejectionException(HttpStatus status, String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,45 @@
+package com.servicio.reserva.gateway.infraestructure.exceptions;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lleva las {@link GatewayRejectionException} lanzadas desde filtros (fuera de los controladores, donde no llega
+ * el {@code @RestControllerAdvice}) al mismo {@link GatewayExceptionHandler}, para responder con el mismo formato.
+ */
+@Component
+@Order(-2)
+@RequiredArgsConstructor
+public class GatewayRejectionWebExceptionHandler implements WebExceptionHandler {
+    private final GatewayExceptionHandler gatewayExceptionHandler;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        if (!(ex instanceof GatewayRejectionException rejection) || exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        ResponseEntity<GatewayErrorResponse> entity = gatewayExceptionHandler.handleGatewayRejectionException(rejection, exchange.getRequest());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entity.getStatusCode());
+        response.getHeaders().addAll(entity.getHeaders());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(entity.getBody());
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
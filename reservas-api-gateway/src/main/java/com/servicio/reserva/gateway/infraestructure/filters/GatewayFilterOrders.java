@@ -0,0 +1,36 @@
+package com.servicio.reserva.gateway.infraestructure.filters;
+
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+
+/**
+ * Orden de los GlobalFilter propios del Gateway.
+ * <p>
+ * Los filtros que decoran la respuesta deben ejecutarse antes que {@link NettyWriteResponseFilter},
+ * que escribe el cuerpo sobre el exchange que recibe.
+ */
+public final class GatewayFilterOrders {
+    public static final int RATE_LIMIT = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 100;
+    public static final int RESPONSE_CACHE = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 50;
+    // Como la cache: un reintento respondido desde el Gateway no pasa por el circuit breaker ni ocupa concurrencia
+    public static final int IDEMPOTENCY = RESPONSE_CACHE + 1;
+    // Con el circuito abierto se rechaza antes de ocupar hueco de concurrencia
+    public static final int CIRCUIT_BREAKER = RESPONSE_CACHE + 5;
+    // Tras el circuit breaker (no se encola lo que se va a rechazar) y antes del límite por ruta
+    public static final int PRIORITY = RESPONSE_CACHE + 7;
+    // Después de la cache: una respuesta servida desde el Gateway no ocupa hueco de concurrencia
+    public static final int CONCURRENCY_LIMIT = RESPONSE_CACHE + 10;
+    // Tras NettyWriteResponseFilter, que solo escribe el último intento, y antes de resolver la URL de la ruta:
+    // cada reintento vuelve a pasar por el balanceador
+    public static final int RETRY = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER - 1;
+    // Lo más tarde posible antes de enviar: el servicio recibe el plazo que queda tras colas y límites
+    public static final int DEADLINE = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 2;
+    // Justo antes del balanceador: los filtros anteriores (cache, idempotencia) aún ven el Authorization original
+    public static final int IDENTITY_HEADERS = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    // Justo después del balanceador, con la instancia del primer intento ya elegida
+    public static final int HEDGING = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private GatewayFilterOrders() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.servicio.reserva.gateway.infraestructure.filters.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+
+/**
+ * Directivas de {@code Cache-Control} relevantes para la cache del Gateway.
+ */
+record CacheDirectives(boolean noStore, boolean noCache, boolean isPrivate, boolean isPublic,
+                       long maxAge, long sMaxAge, long staleWhileRevalidate) {
+
+    static final long ABSENT = -1;
+
+    static CacheDirectives parse(HttpHeaders headers) {
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        long maxAge = ABSENT;
+        long sMaxAge = ABSENT;
+        long staleWhileRevalidate = ABSENT;
+
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String d = directive.trim().toLowerCase(Locale.ROOT);
+                if (d.equals("no-store")) {
+                    noStore = true;
+                } else if (d.startsWith("no-cache")) {
+                    noCache = true;
+                } else if (d.startsWith("private")) {
+                    isPrivate = true;
+                } else if (d.equals("public")) {
+                    isPublic = true;
+                } else if (d.startsWith("max-age=")) {
+                    maxAge = seconds(d, "max-age=");
+                } else if (d.startsWith("s-maxage=")) {
+                    sMaxAge = seconds(d, "s-maxage=");
+                } else if (d.startsWith("stale-while-revalidate=")) {
+                    staleWhileRevalidate = seconds(d, "stale-while-revalidate=");
+                }
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, isPublic, maxAge, sMaxAge, staleWhileRevalidate);
+    }
+
+    /**
+     * Segundos de frescura para una cache compartida: s-maxage tiene prioridad sobre max-age.
+     */
+    long freshnessSeconds() {
+        return sMaxAge != ABSENT ? sMaxAge : maxAge;
+    }
+
+    /**
+     * Una respuesta autenticada solo puede compartirse entre usuarios si el servicio lo declara.
+     */
+    boolean shareable() {
+        return !isPrivate && (isPublic || sMaxAge != ABSENT);
+    }
+
+    private static long seconds(String directive, String prefix) {
+        try {
+            return Long.parseLong(directive.substring(prefix.length()).replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return ABSENT;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.servicio.reserva.gateway.infraestructure.filters.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Respuesta guardada en la cache del Gateway. Los tiempos están en milisegundos epoch.
+ */
+record CachedResponse(int status, HttpHeaders headers, byte[] body, String etag,
+                      long storedAt, long ttlMillis, long staleMillis, AtomicBoolean revalidating) {
+
+    CachedResponse(int status, HttpHeaders headers, byte[] body, String etag, long storedAt, long ttlMillis, long staleMillis) {
+        this(status, headers, body, etag, storedAt, ttlMillis, staleMillis, new AtomicBoolean());
+    }
+
+    boolean isFresh(long now) {
+        return now < storedAt + ttlMillis;
+    }
+
+    boolean isServableStale(long now) {
+        return now < storedAt + ttlMillis + staleMillis;
+    }
+
+    long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1000);
+    }
+
+    /**
+     * Misma respuesta revalidada con un 304: vuelve a ser fresca desde {@code now}.
+     */
+    CachedResponse revalidated(long now, long newTtlMillis) {
+        return new CachedResponse(status, headers, body, etag, now, newTtlMillis, staleMillis);
+    }
+
+    /**
+     * Peso aproximado en bytes para acotar la memoria total de la cache.
+     */
+    int weight() {
+        return body.length + headers.size() * 64 + 128;
+    }
+
+    /**
+     * Comprueba {@code If-None-Match} contra el ETag guardado (comparación débil, RFC 9110 13.1.2).
+     */
+    boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String normalized = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(normalized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,341 @@
+package com.servicio.reserva.gateway.infraestructure.filters.cache;
+
+import com.servicio.reserva.gateway.infraestructure.config.ResponseCacheProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaders;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Cache de respuestas GET por ruta con revalidación por ETag y stale-while-revalidate.
+ * <p>
+ * Respeta {@code Cache-Control} y {@code Vary}. Las respuestas solo se comparten entre usuarios si el servicio
+ * las marca {@code public} o con {@code s-maxage}; el resto se guarda por usuario (subject del JWT).
+ * Un {@code If-None-Match} que coincide con la entrada se responde con 304 desde el Gateway.
+ * <p>
+ * La revalidación en segundo plano reenvía las cabeceras de {@code Vary} de la petición, para pedir la misma
+ * variante que se va a sustituir, el plazo en {@code deadlineHeader} y, en las rutas con identidad firmada, las
+ * cabeceras de {@link IdentityHeaders}. Si {@code Vary} depende de cabeceras que pone el propio Gateway en la ruta,
+ * la variante no se puede reproducir y la entrada caduca sin revalidarse. Cada revalidación terminada cuenta en
+ * {@code gateway.response.cache.revalidations{outcome=completed|failed}}.
+ */
+@Slf4j
+public class ResponseCacheGlobalFilter implements GlobalFilter, Ordered {
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final String SHARED_SCOPE = "shared";
+    private static final List<String> HOP_BY_HOP = List.of(HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING,
+            "Keep-Alive", HttpHeaders.CONTENT_LENGTH);
+    private static final Duration REVALIDATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final WebClient loadBalancedClient;
+    private final WebClient directClient;
+    private final String deadlineHeader;
+    private final IdentityHeaders identityHeaders;
+    private final Set<String> gatewayHeaders;
+    private final Clock clock;
+    private final Map<String, RouteResponseCache> caches = new ConcurrentHashMap<>();
+
+    public ResponseCacheGlobalFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry,
+                                     WebClient.Builder loadBalancedBuilder, String deadlineHeader,
+                                     IdentityHeaders identityHeaders) {
+        this(properties, meterRegistry, loadBalancedBuilder, deadlineHeader, identityHeaders, Clock.systemUTC());
+    }
+
+    public ResponseCacheGlobalFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry,
+                                     WebClient.Builder loadBalancedBuilder, String deadlineHeader,
+                                     IdentityHeaders identityHeaders, Clock clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.loadBalancedClient = loadBalancedBuilder.clone().build();
+        this.directClient = WebClient.builder().build();
+        this.deadlineHeader = deadlineHeader;
+        this.identityHeaders = identityHeaders;
+        this.gatewayHeaders = Stream.concat(Stream.of(deadlineHeader, HttpHeaders.HOST),
+                        IdentityHeaderSigner.HEADERS.stream())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.clock = clock;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.RESPONSE_CACHE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RouteResponseCache cache = route == null ? null : cacheFor(route.getId());
+        ServerHttpRequest request = exchange.getRequest();
+        if (cache == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        CacheDirectives requestDirectives = CacheDirectives.parse(request.getHeaders());
+        if (requestDirectives.noStore()) {
+            return chain.filter(exchange);
+        }
+
+        String rawQuery = request.getURI().getRawQuery();
+        String resource = rawQuery == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + "?" + rawQuery;
+        return exchange.getPrincipal()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(principal -> {
+                    String userScope = principal.map(p -> "user:" + TokenHasher.sha256(p.getName())).orElse("anonymous");
+                    Jwt jwt = principal.filter(JwtAuthenticationToken.class::isInstance)
+                            .map(p -> ((JwtAuthenticationToken) p).getToken())
+                            .orElse(null);
+                    long now = clock.millis();
+                    if (!requestDirectives.noCache()) {
+                        String key = cache.key(SHARED_SCOPE, resource, request);
+                        CachedResponse cached = cache.get(key);
+                        if (cached == null) {
+                            key = cache.key(userScope, resource, request);
+                            cached = cache.get(key);
+                        }
+
+                        if (cached != null && cached.isFresh(now)) {
+                            cache.recordHit();
+                            return serve(exchange, cache, cached, now, "HIT");
+                        }
+                        if (cached != null && cached.isServableStale(now)) {
+                            cache.recordStaleHit();
+                            revalidate(route, cache, key, cached, request, jwt);
+                            return serve(exchange, cache, cached, now, "STALE");
+                        }
+                    }
+
+                    cache.recordMiss();
+                    ServerHttpResponse capturing = new CapturingResponse(exchange, cache, userScope, resource);
+                    return chain.filter(exchange.mutate().response(capturing).build());
+                });
+    }
+
+    private RouteResponseCache cacheFor(String routeId) {
+        ResponseCacheProperties.RouteCache config = properties.getRoutes().get(routeId);
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        return caches.computeIfAbsent(routeId, id -> new RouteResponseCache(id, config, meterRegistry));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, RouteResponseCache cache, CachedResponse cached, long now, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(now)));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (cached.matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            cache.recordNotModified();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void revalidate(Route route, RouteResponseCache cache, String key, CachedResponse cached,
+                            ServerHttpRequest request, Jwt jwt) {
+        List<String> vary = varyHeaders(cached.headers());
+        if (vary.stream().anyMatch(gatewayHeaders::contains) || !cached.revalidating().compareAndSet(false, true)) {
+            return;
+        }
+
+        URI routeUri = route.getUri();
+        boolean loadBalanced = "lb".equalsIgnoreCase(routeUri.getScheme());
+        URI target = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme(loadBalanced ? "http" : routeUri.getScheme())
+                .host(routeUri.getHost())
+                .port(routeUri.getPort())
+                .build(true)
+                .toUri();
+
+        (loadBalanced ? loadBalancedClient : directClient).get()
+                .uri(target)
+                .headers(headers -> {
+                    copyHeader(request, headers, HttpHeaders.AUTHORIZATION);
+                    copyHeader(request, headers, HttpHeaders.ACCEPT);
+                    vary.forEach(name -> copyHeader(request, headers, name));
+                    headers.set(deadlineHeader, String.valueOf(REVALIDATION_TIMEOUT.toMillis()));
+                    if (cached.etag() != null) {
+                        headers.setIfNoneMatch(cached.etag());
+                    }
+                    if (jwt != null && identityHeaders.appliesTo(route.getId())) {
+                        identityHeaders.apply(headers, jwt);
+                    }
+                })
+                .exchangeToMono(upstream -> {
+                    long now = clock.millis();
+                    CacheDirectives directives = CacheDirectives.parse(upstream.headers().asHttpHeaders());
+                    long ttlMillis = directives.freshnessSeconds() > 0 ? directives.freshnessSeconds() * 1000 : cached.ttlMillis();
+                    if (upstream.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        cache.replace(key, cached.revalidated(now, ttlMillis));
+                        return upstream.releaseBody();
+                    }
+                    if (upstream.statusCode().value() == HttpStatus.OK.value() && !directives.noStore()
+                            && varyHeaders(upstream.headers().asHttpHeaders()).equals(vary)) {
+                        return upstream.bodyToMono(byte[].class)
+                                .doOnNext(body -> cache.replace(key, new CachedResponse(HttpStatus.OK.value(),
+                                        storableHeaders(upstream.headers().asHttpHeaders(), body), body,
+                                        etagOf(upstream.headers().asHttpHeaders(), body), now, ttlMillis, cached.staleMillis())))
+                                .then();
+                    }
+                    return upstream.releaseBody();
+                })
+                .timeout(REVALIDATION_TIMEOUT)
+                .doFinally(signal -> cached.revalidating().set(false))
+                .subscribe(null, e -> {
+                    cache.recordFailedRevalidation();
+                    log.debug("Background revalidation of {} failed: {}", target, e.getMessage());
+                }, cache::recordRevalidation);
+    }
+
+    private static void copyHeader(ServerHttpRequest request, HttpHeaders target, String name) {
+        List<String> values = request.getHeaders().get(name);
+        if (values != null) {
+            target.put(name, values);
+        }
+    }
+
+    private static HttpHeaders storableHeaders(HttpHeaders source, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        source.forEach((name, values) -> {
+            if (HOP_BY_HOP.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, values);
+            }
+        });
+        headers.setETag(etagOf(source, body));
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private static String etagOf(HttpHeaders headers, byte[] body) {
+        String etag = headers.getETag();
+        if (etag != null) {
+            return etag;
+        }
+        return "\"" + TokenHasher.sha256(body) + "\"";
+    }
+
+    private static List<String> varyHeaders(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.VARY).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .filter(value -> !value.isEmpty())
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Copia el cuerpo mientras se envía al cliente (sin retenerlo) y lo guarda al completarse,
+     * siempre que la respuesta sea cacheable y no supere {@code max-entry-bytes}.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+        private final RouteResponseCache cache;
+        private final String userScope;
+        private final String resource;
+
+        CapturingResponse(ServerWebExchange exchange, RouteResponseCache cache, String userScope, String resource) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.cache = cache;
+            this.userScope = userScope;
+            this.resource = resource;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            CacheDirectives directives = CacheDirectives.parse(headers);
+            List<String> vary = varyHeaders(headers);
+            long ttlSeconds = directives.freshnessSeconds() != CacheDirectives.ABSENT ? directives.freshnessSeconds()
+                    : cache.getConfig().getDefaultTtl() != null ? cache.getConfig().getDefaultTtl().toSeconds() : 0;
+            long maxEntryBytes = cache.getConfig().getMaxEntryBytes().toBytes();
+
+            boolean cacheable = getStatusCode() != null && getStatusCode().value() == HttpStatus.OK.value()
+                    && !directives.noStore() && !directives.noCache()
+                    && ttlSeconds > 0
+                    && !vary.contains("*")
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && headers.getContentLength() <= maxEntryBytes;
+            String scope = directives.shareable() ? SHARED_SCOPE : userScope;
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            if (!cacheable || (!directives.shareable() && "anonymous".equals(userScope))) {
+                return super.writeWith(body);
+            }
+
+            long storedAt = clock.millis();
+            long staleSeconds = directives.staleWhileRevalidate() != CacheDirectives.ABSENT
+                    ? directives.staleWhileRevalidate() : cache.getConfig().getStaleWhileRevalidate().toSeconds();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = new boolean[1];
+
+            Flux<DataBuffer> tapped = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (overflow[0] || copy.size() + length > maxEntryBytes) {
+                            overflow[0] = true;
+                            return;
+                        }
+                        ByteBuffer bytes = ByteBuffer.allocate(length);
+                        buffer.toByteBuffer(buffer.readPosition(), bytes, 0, length);
+                        copy.write(bytes.array(), 0, length);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0]) {
+                            byte[] content = copy.toByteArray();
+                            HttpHeaders stored = storableHeaders(headers, content);
+                            cache.put(scope, resource, exchange.getRequest(), vary, new CachedResponse(HttpStatus.OK.value(),
+                                    stored, content, stored.getETag(), storedAt, ttlSeconds * 1000, staleSeconds * 1000));
+                        }
+                    });
+            return super.writeWith(tapped);
+        }
+    }
+}
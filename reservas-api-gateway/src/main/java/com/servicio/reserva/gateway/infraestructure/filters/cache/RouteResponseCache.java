@@ -0,0 +1,134 @@
+package com.servicio.reserva.gateway.infraestructure.filters.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servicio.reserva.gateway.infraestructure.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+/**
+ * Cache de respuestas de una ruta, acotada a la vez por número de entradas y por bytes totales.
+ * <p>
+ * Caffeine no admite los dos límites a la vez, así que cada entrada pesa como mínimo
+ * {@code maxBytes / maxEntries}: con eso el límite de bytes implica también el de entradas.
+ */
+class RouteResponseCache {
+    @Getter
+    private final ResponseCacheProperties.RouteCache config;
+    private final Cache<String, CachedResponse> entries;
+    private final Cache<String, List<String>> varyIndex;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter notModified;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter failedRevalidations;
+    private final DistributionSummary storedBytes;
+
+    RouteResponseCache(String routeId, ResponseCacheProperties.RouteCache config, MeterRegistry meterRegistry) {
+        this.config = config;
+        long maxBytes = config.getMaxBytes().toBytes();
+        int minimumWeight = (int) Math.max(1, maxBytes / Math.max(1, config.getMaxEntries()));
+
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> Math.max(minimumWeight, response.weight()))
+                .build();
+        this.varyIndex = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .build();
+
+        this.hits = result(meterRegistry, routeId, "hit");
+        this.staleHits = result(meterRegistry, routeId, "stale");
+        this.notModified = result(meterRegistry, routeId, "not-modified");
+        this.misses = result(meterRegistry, routeId, "miss");
+        this.revalidations = revalidation(meterRegistry, routeId, "completed");
+        this.failedRevalidations = revalidation(meterRegistry, routeId, "failed");
+        this.storedBytes = DistributionSummary.builder("gateway.response.cache.stored.bytes")
+                .baseUnit("bytes")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.entries", entries, Cache::estimatedSize)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.bytes", entries,
+                        cache -> cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .baseUnit("bytes")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Clave completa: ámbito (compartido o usuario) + recurso + valores de las cabeceras de {@code Vary}.
+     */
+    String key(String scope, String resource, ServerHttpRequest request) {
+        List<String> varyHeaders = varyIndex.getIfPresent(resource);
+        if (varyHeaders == null || varyHeaders.isEmpty()) {
+            return scope + "|" + resource;
+        }
+        StringBuilder key = new StringBuilder(scope).append('|').append(resource);
+        for (String header : varyHeaders) {
+            key.append('|').append(header).append('=').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+
+    CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    void put(String scope, String resource, ServerHttpRequest request, List<String> varyHeaders, CachedResponse response) {
+        varyIndex.put(resource, varyHeaders);
+        entries.put(key(scope, resource, request), response);
+        storedBytes.record(response.body().length);
+    }
+
+    void replace(String key, CachedResponse response) {
+        entries.put(key, response);
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    void recordNotModified() {
+        notModified.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    void recordFailedRevalidation() {
+        failedRevalidations.increment();
+    }
+
+    private static Counter revalidation(MeterRegistry meterRegistry, String routeId, String outcome) {
+        return Counter.builder("gateway.response.cache.revalidations")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String routeId, String result) {
+        return Counter.builder("gateway.response.cache.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
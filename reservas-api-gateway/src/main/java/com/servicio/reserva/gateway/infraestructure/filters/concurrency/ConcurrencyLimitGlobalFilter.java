@@ -0,0 +1,117 @@
+package com.servicio.reserva.gateway.infraestructure.filters.concurrency;
+
+import com.servicio.reserva.gateway.infraestructure.config.ConcurrencyLimitProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Limita las peticiones en vuelo de cada ruta con un {@link GradientConcurrencyLimiter}; por encima del límite
+ * se responde 503 inmediatamente en lugar de acumular peticiones sobre un microservicio lento. La latencia de cada
+ * petición con cuerpo se mide desde que el cuerpo se ha enviado entero.
+ * <p>
+ * Métricas por ruta: {@code gateway.concurrency.limit}, {@code gateway.concurrency.inflight}
+ * y {@code gateway.concurrency.rejected}.
+ */
+public class ConcurrencyLimitGlobalFilter implements GlobalFilter, Ordered {
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitGlobalFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.CONCURRENCY_LIMIT;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteLimiter routeLimiter = limiters.computeIfAbsent(route.getId(), this::newRouteLimiter);
+        GradientConcurrencyLimiter.Permit permit = routeLimiter.limiter.tryAcquire(System.nanoTime());
+        if (permit == null) {
+            routeLimiter.rejected.increment();
+            return Mono.error(new GatewayRejectionException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Concurrency limit exceeded for " + route.getId()));
+        }
+
+        return chain.filter(withBodySentSample(exchange, permit))
+                .doOnSuccess(done -> {
+                    if (isOverloaded(exchange.getResponse().getStatusCode())) {
+                        permit.dropped(System.nanoTime());
+                    } else {
+                        permit.success(System.nanoTime());
+                    }
+                })
+                .doOnError(error -> permit.dropped(System.nanoTime()))
+                .doOnCancel(permit::ignore);
+    }
+
+    /**
+     * Con cuerpo, la muestra de latencia empieza cuando se ha leído entero y entregado al cliente HTTP hacia el
+     * servicio; una subida lenta del cliente no debe parecer un servicio lento.
+     */
+    private static ServerWebExchange withBodySentSample(ServerWebExchange exchange,
+                                                        GradientConcurrencyLimiter.Permit permit) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (headers.getContentLength() <= 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+            return exchange;
+        }
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return super.getBody().doOnComplete(() -> permit.bodySent(System.nanoTime()));
+            }
+        };
+        return exchange.mutate().request(request).build();
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && (status.value() == 503 || status.value() == 504);
+    }
+
+    private RouteLimiter newRouteLimiter(String routeId) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(properties.forRoute(routeId), System.nanoTime());
+        Gauge.builder("gateway.concurrency.limit", limiter, GradientConcurrencyLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, GradientConcurrencyLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteLimiter(limiter, rejected);
+    }
+
+    private record RouteLimiter(GradientConcurrencyLimiter limiter, Counter rejected) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.servicio.reserva.gateway.infraestructure.filters.concurrency;
+
+import com.servicio.reserva.gateway.infraestructure.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia por gradiente: compara la latencia mínima de la última ventana con la latencia
+ * habitual (media móvil lenta) y ajusta el número de peticiones en vuelo permitidas.
+ * <p>
+ * Si la latencia sube, el gradiente baja de 1 y el límite se reduce; si se mantiene, el límite crece
+ * en {@code sqrt(limit)} por ventana. Un error o timeout en la ventana reduce el límite por {@code backoffRatio}.
+ * Adquirir y liberar son operaciones sin locks; solo el recálculo de la ventana está sincronizado.
+ */
+final class GradientConcurrencyLimiter {
+    private static final double LONG_RTT_ALPHA = 0.05;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ConcurrencyLimitProperties.Limit config;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowStartNanos;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowMaxInFlight;
+    private int windowSamples;
+    private boolean windowDropped;
+
+    GradientConcurrencyLimiter(ConcurrencyLimitProperties.Limit config, long nowNanos) {
+        this.config = config;
+        this.windowNanos = config.getWindow().toNanos();
+        this.estimatedLimit = config.getInitialLimit();
+        this.limit = config.getInitialLimit();
+        this.windowStartNanos = nowNanos;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return el permiso, o {@code null} si ya hay {@code limit} peticiones en vuelo.
+     */
+    Permit tryAcquire(long nowNanos) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(nowNanos, current + 1);
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped, long nowNanos) {
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        windowSamples++;
+
+        if (nowNanos - windowStartNanos < windowNanos || windowSamples < config.getMinWindowSamples()) {
+            return;
+        }
+        updateLimit();
+        windowStartNanos = nowNanos;
+        windowMinRttNanos = Long.MAX_VALUE;
+        windowMaxInFlight = 0;
+        windowSamples = 0;
+        windowDropped = false;
+    }
+
+    private void updateLimit() {
+        double newLimit;
+        if (windowDropped) {
+            newLimit = estimatedLimit * config.getBackoffRatio();
+        } else {
+            double shortRtt = windowMinRttNanos;
+            longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_RTT_ALPHA) + shortRtt * LONG_RTT_ALPHA;
+            // Tras un pico largo la media lenta queda muy alta: se acerca antes para no tardar en reaccionar
+            if (longRttNanos > 2 * shortRtt) {
+                longRttNanos *= 0.95;
+            }
+            // Sin usar ni la mitad del límite no hay información para subirlo
+            if (windowMaxInFlight < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.clamp(config.getTolerance() * longRttNanos / shortRtt, MIN_GRADIENT, 1.0);
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - config.getSmoothing()) + target * config.getSmoothing();
+        }
+        estimatedLimit = Math.clamp(newLimit, config.getMinLimit(), config.getMaxLimit());
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Petición admitida; se libera una sola vez con el resultado observado.
+     */
+    final class Permit {
+        private volatile long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * El cuerpo de la petición ya se ha enviado al servicio: la latencia se mide desde aquí, sin el tiempo
+         * que tarda el cliente en subirlo.
+         */
+        void bodySent(long nowNanos) {
+            if (!released.get()) {
+                startNanos = nowNanos;
+            }
+        }
+
+        void success(long nowNanos) {
+            release(false, nowNanos);
+        }
+
+        void dropped(long nowNanos) {
+            release(true, nowNanos);
+        }
+
+        /**
+         * El cliente canceló: se libera el hueco sin usar la latencia como muestra.
+         */
+        void ignore() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private void release(boolean dropped, long nowNanos) {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                onSample(nowNanos - startNanos, inFlightAtStart, dropped, nowNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.servicio.reserva.gateway.infraestructure.filters.deadline;
+
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Momento en que vence el plazo de una petición ({@code System.nanoTime()}). Lo fija {@link DeadlineWebFilter} en el
+ * exchange ({@link #ATTR}) y en el contexto de Reactor (clave {@code Deadline.class}).
+ */
+public record Deadline(long expiresAtNanos) {
+    public static final String ATTR = Deadline.class.getName();
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+    }
+
+    public static GatewayRejectionException exceeded() {
+        return new GatewayRejectionException(HttpStatus.GATEWAY_TIMEOUT, "Deadline exceeded");
+    }
+}
@@ -0,0 +1,41 @@
+package com.servicio.reserva.gateway.infraestructure.filters.deadline;
+
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Envía al servicio lo que queda del plazo de la petición, en milisegundos, en la cabecera configurada
+ * (sustituye la del cliente). Con el plazo ya vencido responde 504 sin llamar al servicio.
+ */
+public class DeadlineGlobalFilter implements GlobalFilter, Ordered {
+    private final String header;
+
+    public DeadlineGlobalFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.DEADLINE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Deadline deadline = exchange.getAttribute(Deadline.ATTR);
+        if (deadline == null) {
+            return chain.filter(exchange);
+        }
+
+        long remainingMillis = deadline.remaining().toMillis();
+        if (remainingMillis <= 0) {
+            return Mono.error(Deadline.exceeded());
+        }
+        return chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> headers.set(header, String.valueOf(remainingMillis))))
+                .build());
+    }
+}
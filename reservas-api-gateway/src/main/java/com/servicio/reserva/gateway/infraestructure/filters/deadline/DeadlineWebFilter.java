@@ -0,0 +1,88 @@
+package com.servicio.reserva.gateway.infraestructure.filters.deadline;
+
+import com.servicio.reserva.gateway.infraestructure.config.DeadlineProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimingWebFilter;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+
+/**
+ * Fija el plazo de la petición: el de su ruta ({@code gateway.deadline.routes}, con la ruta que ya resolvió
+ * {@link RequestPathMatcher}) o el que pida el cliente en la cabecera, si es menor.
+ * <p>
+ * Si vence sin haber empezado la respuesta se cancela todo lo que queda en curso (llamada al servicio, colas,
+ * permisos) y se responde 504. Una respuesta ya empezada, como una exportación en streaming, sigue hasta el final.
+ * Cada vencimiento cuenta en {@code gateway.deadline.exceeded{route}}.
+ */
+public class DeadlineWebFilter implements WebFilter, Ordered {
+    // Detrás de la medida de tiempos y por delante de Spring Security: validar el JWT también consume plazo
+    public static final int ORDER = GatewayTimingWebFilter.ORDER + 5;
+    private static final String NO_ROUTE = "none";
+
+    private final DeadlineProperties properties;
+    private final RequestPathMatcher requestPathMatcher;
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineWebFilter(DeadlineProperties properties, RequestPathMatcher requestPathMatcher,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.requestPathMatcher = requestPathMatcher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Route route = requestPathMatcher.match(exchange).route();
+        String routeId = route == null ? null : route.getId();
+        Duration budget = budget(properties.timeoutFor(routeId),
+                exchange.getRequest().getHeaders().getFirst(properties.getHeader()));
+        Deadline deadline = Deadline.after(budget);
+        exchange.getAttributes().put(Deadline.ATTR, deadline);
+
+        Mono<Long> expiry = Mono.delay(budget)
+                .flatMap(tick -> exchange.getResponse().isCommitted() ? Mono.never() : Mono.just(tick));
+        return chain.filter(exchange)
+                .contextWrite(Context.of(Deadline.class, deadline))
+                .timeout(expiry, Mono.error(Deadline::exceeded))
+                .doOnError(GatewayRejectionException.class, error -> {
+                    if (error.getStatus() == HttpStatus.GATEWAY_TIMEOUT) {
+                        meterRegistry.counter("gateway.deadline.exceeded",
+                                "route", routeId == null ? NO_ROUTE : routeId).increment();
+                    }
+                });
+    }
+
+    /**
+     * El plazo de la ruta, salvo que el cliente pida uno menor; un valor no válido se ignora.
+     */
+    static Duration budget(Duration routeTimeout, String requested) {
+        if (requested == null) {
+            return routeTimeout;
+        }
+        try {
+            long millis = Long.parseLong(requested.trim());
+            return millis > 0 && millis < routeTimeout.toMillis() ? Duration.ofMillis(millis) : routeTimeout;
+        } catch (NumberFormatException e) {
+            return routeTimeout;
+        }
+    }
+}
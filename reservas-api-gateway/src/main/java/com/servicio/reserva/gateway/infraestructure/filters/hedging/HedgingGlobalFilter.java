@@ -0,0 +1,380 @@
+package com.servicio.reserva.gateway.infraestructure.filters.hedging;
+
+import com.servicio.reserva.gateway.infraestructure.config.HedgingProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.RetryBudget;
+import com.servicio.reserva.gateway.infraestructure.http.PooledNettyRoutingFilter;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.InstanceStatsLifecycle;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.PeakEwmaLoadBalancer;
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.DelegatingServiceInstance;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Hedging para GET y HEAD en las rutas con {@code gateway.hedging.routes.<id>.enabled=true}.
+ * <p>
+ * Se ejecuta justo después del balanceador: envía el primer intento a la instancia elegida y, si no ha
+ * respondido cuando pasa el percentil de latencia configurado, lanza un segundo intento a otra instancia.
+ * Gana el primer intento que recibe las cabeceras de la respuesta y el otro se cancela. Como en
+ * {@code NettyRoutingFilter}, la respuesta ganadora queda en el exchange y su cuerpo lo escribe en streaming
+ * {@code NettyWriteResponseFilter}, sin límite de tamaño; la ruta queda marcada como ya enrutada y
+ * {@code NettyRoutingFilter} no vuelve a llamar al servicio.
+ * <p>
+ * El segundo intento pasa por los {@link LoadBalancerLifecycle} del servicio igual que el primero, así que cuenta
+ * en las estadísticas de su instancia; si gana, el primero se marca con {@link InstanceStatsLifecycle#DISCARDED_ATTR}
+ * y su instancia no recibe una muestra con la latencia del otro. Lleva el plazo restante recalculado al lanzarse.
+ * <p>
+ * Métricas por ruta: {@code gateway.hedge.sent}, {@code gateway.hedge.won}, {@code gateway.hedge.skipped}
+ * (sin presupuesto) y {@code gateway.hedge.delay}.
+ */
+public class HedgingGlobalFilter implements GlobalFilter, Ordered {
+    private final HedgingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final HttpClientProperties httpClientProperties;
+    private final PooledNettyRoutingFilter routingFilter;
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+    private final String deadlineHeader;
+    private final Map<String, RouteHedger> hedgers = new ConcurrentHashMap<>();
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public HedgingGlobalFilter(HedgingProperties properties, MeterRegistry meterRegistry,
+                               ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                               HttpClientProperties httpClientProperties, PooledNettyRoutingFilter routingFilter,
+                               ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                               String deadlineHeader) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.httpClientProperties = httpClientProperties;
+        this.routingFilter = routingFilter;
+        this.loadBalancerFactory = loadBalancerFactory;
+        this.deadlineHeader = deadlineHeader;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.HEDGING;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (route == null || requestUrl == null || isAlreadyRouted(exchange)
+                || !(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))) {
+            return chain.filter(exchange);
+        }
+        HedgingProperties.RouteHedging config = properties.getRoutes().get(route.getId());
+        if (config == null || !config.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        setAlreadyRouted(exchange);
+        RouteHedger hedger = hedgers.computeIfAbsent(route.getId(), id -> new RouteHedger(route, config));
+        return hedger.execute(exchange, requestUrl).then(chain.filter(exchange));
+    }
+
+    private List<HttpHeadersFilter> headersFilters() {
+        if (headersFilters == null) {
+            headersFilters = headersFiltersProvider.getIfAvailable(List::of);
+        }
+        return headersFilters;
+    }
+
+    private static Throwable firstCause(NoSuchElementException allFailed) {
+        for (Throwable suppressed : allFailed.getSuppressed()) {
+            for (Throwable cause : Exceptions.unwrapMultiple(suppressed)) {
+                return cause;
+            }
+        }
+        return allFailed;
+    }
+
+    private record Attempt(int index, HttpClientResponse response, Connection connection) {
+    }
+
+    /**
+     * Destino del segundo intento y, en rutas {@code lb://}, la petición al balanceador cuyo ciclo de vida
+     * se completa al decidirse el intento.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private record HedgeTarget(URI url, Request<RequestDataContext> request, Response<ServiceInstance> response,
+                               Set<LoadBalancerLifecycle> lifecycles) {
+
+        static HedgeTarget direct(URI url) {
+            return new HedgeTarget(url, null, null, Set.of());
+        }
+
+        Mono<Attempt> track(Mono<Attempt> attempt) {
+            if (lifecycles.isEmpty()) {
+                return attempt;
+            }
+            return attempt
+                    .doOnSuccess(winner -> complete(winner == null
+                            ? CompletionContext.Status.DISCARD : CompletionContext.Status.SUCCESS, null, winner))
+                    .doOnError(error -> complete(CompletionContext.Status.FAILED, error, null))
+                    .doOnCancel(() -> complete(CompletionContext.Status.DISCARD, null, null));
+        }
+
+        private void complete(CompletionContext.Status status, Throwable error, Attempt winner) {
+            ResponseData responseData = null;
+            if (winner != null) {
+                HttpHeaders headers = new HttpHeaders();
+                winner.response().responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+                responseData = new ResponseData(HttpStatusCode.valueOf(winner.response().status().code()), headers,
+                        new LinkedMultiValueMap<>(), request.getContext().getClientRequest());
+            }
+            CompletionContext context = new CompletionContext<>(status, error, request, response, responseData);
+            lifecycles.forEach(lifecycle -> lifecycle.onComplete(context));
+        }
+    }
+
+    private final class RouteHedger {
+        private final Route route;
+        private final HedgingProperties.RouteHedging config;
+        private final HttpClient httpClient;
+        private final Duration responseTimeout;
+        private final LatencyReservoir latencies;
+        private final RetryBudget budget;
+        private final Counter sent;
+        private final Counter won;
+        private final Counter skipped;
+
+        RouteHedger(Route route, HedgingProperties.RouteHedging config) {
+            this.route = route;
+            this.config = config;
+            this.httpClient = routingFilter.routeHttpClient(route);
+            this.responseTimeout = responseTimeout(route);
+            this.latencies = new LatencyReservoir(config.getPercentile());
+            this.budget = new RetryBudget(config.getBudgetPercent(), config.getBudgetBurst());
+            this.sent = counter("gateway.hedge.sent");
+            this.won = counter("gateway.hedge.won");
+            this.skipped = counter("gateway.hedge.skipped");
+            Gauge.builder("gateway.hedge.delay", this, hedger -> hedger.delay().toMillis())
+                    .baseUnit("milliseconds")
+                    .tag("route", route.getId())
+                    .register(meterRegistry);
+        }
+
+        Mono<Void> execute(ServerWebExchange exchange, URI requestUrl) {
+            budget.deposit();
+            long start = System.nanoTime();
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(HttpHeadersFilter.filterRequest(headersFilters(), exchange));
+            headers.remove(HttpHeaders.HOST);
+
+            // Solo un intento puede quedarse con su respuesta, aunque lleguen las dos a la vez
+            AtomicBoolean decided = new AtomicBoolean();
+            Mono<Attempt> primary = attempt(0, exchange.getRequest().getMethod(), requestUrl, headers, decided);
+            Mono<Attempt> hedge = Mono.delay(delay()).flatMap(tick -> {
+                HttpHeaders hedgeHeaders = hedgeHeaders(exchange, headers);
+                if (hedgeHeaders == null) {
+                    return Mono.empty();
+                }
+                if (!budget.tryWithdraw()) {
+                    skipped.increment();
+                    return Mono.empty();
+                }
+                return hedgeTarget(exchange, requestUrl).flatMap(target -> {
+                    sent.increment();
+                    return target.track(attempt(1, exchange.getRequest().getMethod(), target.url(), hedgeHeaders, decided));
+                });
+            });
+
+            return GatewayTimings.record(GatewayTimings.Phase.UPSTREAM, Mono.firstWithValue(primary, hedge))
+                    .onErrorMap(NoSuchElementException.class, HedgingGlobalFilter::firstCause)
+                    .doOnNext(winner -> {
+                        latencies.record(System.nanoTime() - start);
+                        if (winner.index() > 0) {
+                            won.increment();
+                            exchange.getAttributes().put(InstanceStatsLifecycle.DISCARDED_ATTR, Boolean.TRUE);
+                        }
+                        use(exchange, winner);
+                    })
+                    .then();
+        }
+
+        private Duration delay() {
+            long percentile = latencies.percentileNanos();
+            if (percentile < 0 || latencies.count() < config.getMinSamples()) {
+                return config.getMaxDelay();
+            }
+            long nanos = Math.clamp(percentile, config.getMinDelay().toNanos(), config.getMaxDelay().toNanos());
+            return Duration.ofNanos(nanos);
+        }
+
+        /**
+         * Termina al recibir las cabeceras; si el otro intento ya ganó, suelta la conexión y no emite nada.
+         */
+        private Mono<Attempt> attempt(int index, HttpMethod method, URI url, HttpHeaders headers, AtomicBoolean decided) {
+            Mono<Attempt> attempt = httpClient.headers(h -> headers.forEach(h::set))
+                    .request(io.netty.handler.codec.http.HttpMethod.valueOf(method.name()))
+                    .uri(url)
+                    .responseConnection((response, connection) -> {
+                        if (!decided.compareAndSet(false, true)) {
+                            connection.dispose();
+                            return Mono.<Attempt>empty();
+                        }
+                        return Mono.just(new Attempt(index, response, connection));
+                    })
+                    .next();
+            if (responseTimeout == null) {
+                return attempt;
+            }
+            return attempt.timeout(responseTimeout)
+                    .onErrorMap(TimeoutException.class,
+                            e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout: " + responseTimeout, e));
+        }
+
+        /**
+         * Las cabeceras del primer intento con el plazo que queda ahora; {@code null} si ya ha vencido y no
+         * merece la pena lanzar otro intento.
+         */
+        private HttpHeaders hedgeHeaders(ServerWebExchange exchange, HttpHeaders headers) {
+            Deadline deadline = exchange.getAttribute(Deadline.ATTR);
+            if (deadline == null) {
+                return headers;
+            }
+            long remainingMillis = deadline.remaining().toMillis();
+            if (remainingMillis <= 0) {
+                return null;
+            }
+            HttpHeaders hedgeHeaders = new HttpHeaders();
+            hedgeHeaders.addAll(headers);
+            hedgeHeaders.set(deadlineHeader, String.valueOf(remainingMillis));
+            return hedgeHeaders;
+        }
+
+        /**
+         * Otra instancia del servicio, con su {@code onStartRequest} como hace {@code ReactiveLoadBalancerClientFilter};
+         * en rutas sin balanceador ({@code http://}) se repite el mismo destino.
+         */
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private Mono<HedgeTarget> hedgeTarget(ServerWebExchange exchange, URI requestUrl) {
+            if (!"lb".equals(route.getUri().getScheme())) {
+                return Mono.just(HedgeTarget.direct(requestUrl));
+            }
+            String serviceId = route.getUri().getHost();
+            Set<LoadBalancerLifecycle> lifecycles = LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+                    loadBalancerFactory.getInstances(serviceId, LoadBalancerLifecycle.class),
+                    RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+            Map<String, Object> attributes = new HashMap<>(exchange.getAttributes());
+            attributes.put(PeakEwmaLoadBalancer.EXCLUDED_INSTANCES_ATTR, Set.of(requestUrl.getHost() + ":" + requestUrl.getPort()));
+            DefaultRequest<RequestDataContext> request = new DefaultRequest<>(
+                    new RequestDataContext(new RequestData(exchange.getRequest(), attributes)));
+            lifecycles.forEach(lifecycle -> lifecycle.onStart(request));
+
+            return Mono.from(loadBalancerFactory.getInstance(serviceId).choose(request))
+                    .flatMap(response -> {
+                        if (!response.hasServer()) {
+                            lifecycles.forEach(lifecycle -> lifecycle.onComplete(
+                                    new CompletionContext<>(CompletionContext.Status.DISCARD, request, response)));
+                            return Mono.empty();
+                        }
+                        lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(request, response));
+                        URI url = LoadBalancerUriTools.reconstructURI(
+                                new DelegatingServiceInstance(response.getServer(), requestUrl.getScheme()),
+                                exchange.getRequest().getURI());
+                        return Mono.just(new HedgeTarget(url, request, response, lifecycles));
+                    });
+        }
+
+        /**
+         * Deja la respuesta ganadora en el exchange igual que {@code NettyRoutingFilter}: estado y cabeceras ya
+         * filtradas, y la conexión para que {@code NettyWriteResponseFilter} envíe el cuerpo.
+         */
+        private void use(ServerWebExchange exchange, Attempt winner) {
+            exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, winner.response());
+            exchange.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, winner.connection());
+
+            HttpHeaders upstreamHeaders = new HttpHeaders();
+            winner.response().responseHeaders().forEach(entry -> upstreamHeaders.add(entry.getKey(), entry.getValue()));
+            String contentType = upstreamHeaders.getFirst(HttpHeaders.CONTENT_TYPE);
+            if (StringUtils.hasLength(contentType)) {
+                exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+            }
+
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatusCode.valueOf(winner.response().status().code()));
+            HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters(), upstreamHeaders, exchange,
+                    HttpHeadersFilter.Type.RESPONSE);
+            if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+                response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+            }
+            exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+            response.getHeaders().addAll(filtered);
+        }
+
+        private Duration responseTimeout(Route route) {
+            Object timeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+            if (timeout instanceof Number millis) {
+                return millis.longValue() < 0 ? null : Duration.ofMillis(millis.longValue());
+            }
+            return httpClientProperties.getResponseTimeout();
+        }
+
+        private Counter counter(String name) {
+            return Counter.builder(name).tag("route", route.getId()).register(meterRegistry);
+        }
+    }
+}
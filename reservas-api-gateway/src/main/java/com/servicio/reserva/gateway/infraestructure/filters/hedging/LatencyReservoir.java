@@ -0,0 +1,49 @@
+package com.servicio.reserva.gateway.infraestructure.filters.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Últimas {@code SIZE} latencias de una ruta. El percentil se recalcula cada {@code RECOMPUTE_EVERY}
+ * muestras en lugar de en cada petición.
+ */
+final class LatencyReservoir {
+    private static final int SIZE = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final double percentile;
+    private final long[] samples = new long[SIZE];
+    private final AtomicLong count = new AtomicLong();
+    private volatile long percentileNanos = -1;
+
+    LatencyReservoir(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+        long n = count.getAndIncrement();
+        samples[(int) (n % SIZE)] = latencyNanos;
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(n + 1, SIZE));
+        }
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    /**
+     * @return el percentil en nanosegundos, o -1 si todavía no se ha calculado.
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(int size) {
+        // Las escrituras concurrentes pueden colarse en la copia; para estimar un percentil da igual
+        long[] copy = Arrays.copyOf(samples, size);
+        Arrays.sort(copy);
+        int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+        percentileNanos = copy[Math.max(0, index)];
+    }
+}
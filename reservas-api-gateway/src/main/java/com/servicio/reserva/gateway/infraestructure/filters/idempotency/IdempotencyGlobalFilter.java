@@ -0,0 +1,236 @@
+package com.servicio.reserva.gateway.infraestructure.filters.idempotency;
+
+import com.servicio.reserva.gateway.infraestructure.config.IdempotencyProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Deduplica los POST con cabecera {@code Idempotency-Key} en las rutas de {@code gateway.idempotency.routes.<id>}.
+ * <p>
+ * La clave es por usuario (subject del JWT) y queda ligada a la huella de la primera petición (ruta y cuerpo):
+ * <ul>
+ *     <li>Primera petición: llega al servicio y su respuesta se guarda durante {@code ttl} (salvo 5xx y 429).</li>
+ *     <li>Reintento con la primera aún en curso: espera hasta {@code max-wait} y recibe la misma respuesta;
+ *     si no llega a tiempo, 409.</li>
+ *     <li>Reintento posterior: el Gateway repite la respuesta guardada con {@code Idempotent-Replayed: true}.</li>
+ *     <li>La misma clave con otra petición: 422.</li>
+ * </ul>
+ * Si la primera petición no termina con una respuesta completa (error, cancelación, cuerpo mayor que
+ * {@code max-response-size}) no se guarda nada y el siguiente intento vuelve a llegar al servicio.
+ */
+public class IdempotencyGlobalFilter implements GlobalFilter, Ordered {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> HOP_BY_HOP = List.of(HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING,
+            "Keep-Alive", HttpHeaders.CONTENT_LENGTH);
+    private static final Duration IN_PROGRESS_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final IdempotencyProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, IdempotencyStore> stores = new ConcurrentHashMap<>();
+
+    public IdempotencyGlobalFilter(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.IDEMPOTENCY;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        IdempotencyStore store = route == null ? null : storeFor(route.getId());
+        ServerHttpRequest request = exchange.getRequest();
+        String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (store == null || request.getMethod() != HttpMethod.POST || idempotencyKey == null) {
+            return chain.filter(exchange);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new GatewayRejectionException(HttpStatus.BAD_REQUEST, "Invalid " + IDEMPOTENCY_KEY));
+        }
+
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(subject -> subject
+                        .map(name -> readBody(request, store)
+                                .flatMap(body -> claim(exchange, chain, store,
+                                        TokenHasher.sha256(name) + ":" + idempotencyKey, fingerprint(request, body), body)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private IdempotencyStore storeFor(String routeId) {
+        IdempotencyProperties.RouteIdempotency config = properties.getRoutes().get(routeId);
+        if (config == null || !config.isEnabled()) {
+            return null;
+        }
+        return stores.computeIfAbsent(routeId, id -> new IdempotencyStore(id, config, meterRegistry));
+    }
+
+    private Mono<Void> claim(ServerWebExchange exchange, GatewayFilterChain chain, IdempotencyStore store,
+                             String key, String fingerprint, byte[] body) {
+        return Mono.defer(() -> switch (store.claim(key, fingerprint)) {
+            case IdempotencyStore.Lead lead -> execute(exchange, chain, store, key, lead, body);
+            case IdempotencyStore.Replay replay -> replay(exchange, replay.response());
+            case IdempotencyStore.Join join -> join.response()
+                    .timeout(store.getConfig().getMaxWait(), Mono.error(() -> {
+                        store.recordInProgress();
+                        return new GatewayRejectionException(HttpStatus.CONFLICT,
+                                "Request with the same " + IDEMPOTENCY_KEY + " still in progress", IN_PROGRESS_RETRY_AFTER);
+                    }))
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    // Primera petición abandonada: la clave está libre y uno de los que esperaban pasa a ejecutarla
+                    .flatMap(response -> response
+                            .map(r -> replay(exchange, r))
+                            .orElseGet(() -> claim(exchange, chain, store, key, fingerprint, body)));
+            case IdempotencyStore.Mismatch mismatch -> Mono.error(new GatewayRejectionException(
+                    HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY + " already used with a different request"));
+        });
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, GatewayFilterChain chain, IdempotencyStore store,
+                               String key, IdempotencyStore.Lead lead, byte[] body) {
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(),
+                store.getConfig().getMaxResponseSize().toBytes());
+
+        return chain.filter(exchange.mutate().request(request).response(response).build())
+                .doOnSuccess(ignored -> {
+                    IdempotentResponse captured = response.captured;
+                    if (captured != null) {
+                        store.complete(key, lead, captured);
+                    } else {
+                        store.abandon(key, lead);
+                    }
+                })
+                .doOnError(error -> store.abandon(key, lead))
+                .doOnCancel(() -> store.abandon(key, lead));
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, IdempotentResponse stored) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        headers.putAll(stored.headers());
+        headers.set(REPLAYED_HEADER, "true");
+        headers.setContentLength(stored.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<byte[]> readBody(ServerHttpRequest request, IdempotencyStore store) {
+        int maxRequestSize = (int) store.getConfig().getMaxRequestSize().toBytes();
+        return DataBufferUtils.join(request.getBody(), maxRequestSize)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .onErrorMap(DataBufferLimitException.class, e -> new GatewayRejectionException(
+                        HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large for " + IDEMPOTENCY_KEY));
+    }
+
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        String rawQuery = request.getURI().getRawQuery();
+        String target = request.getURI().getRawPath() + (rawQuery == null ? "" : "?" + rawQuery) + "\n";
+        byte[] prefix = target.getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[prefix.length + body.length];
+        System.arraycopy(prefix, 0, content, 0, prefix.length);
+        System.arraycopy(body, 0, content, prefix.length, body.length);
+        return TokenHasher.sha256(content);
+    }
+
+    private static HttpHeaders storableHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        source.forEach((name, values) -> {
+            if (HOP_BY_HOP.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, values);
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Copia la respuesta mientras se envía al cliente; {@code captured} solo queda fijado si el cuerpo llegó
+     * completo y dentro de {@code max-response-size}. Las respuestas en streaming no se capturan.
+     */
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+        private final long maxBytes;
+        private volatile IdempotentResponse captured;
+
+        CapturingResponse(ServerHttpResponse delegate, long maxBytes) {
+            super(delegate);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = new boolean[1];
+
+            Flux<DataBuffer> tapped = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (overflow[0] || copy.size() + length > maxBytes) {
+                            overflow[0] = true;
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                        copy.write(bytes, 0, length);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0] && getStatusCode() != null) {
+                            captured = new IdempotentResponse(getStatusCode().value(), storableHeaders(getHeaders()),
+                                    copy.toByteArray());
+                        }
+                    });
+            return super.writeWith(tapped);
+        }
+    }
+}
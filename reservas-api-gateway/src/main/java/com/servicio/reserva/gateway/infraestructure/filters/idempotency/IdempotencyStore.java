@@ -0,0 +1,130 @@
+package com.servicio.reserva.gateway.infraestructure.filters.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servicio.reserva.gateway.infraestructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Claves de idempotencia de una ruta: en curso (los reintentos esperan su resultado) o completadas
+ * (se repiten durante {@code ttl}).
+ * <p>
+ * Acotado por bytes como la cache de respuestas. Las entradas en curso pesan 0 y Caffeine no las desaloja
+ * por tamaño: mientras la primera petición sigue viva, un reintento nunca lanza una segunda ejecución.
+ * Métrica: {@code gateway.idempotency.requests{route, outcome=executed|joined|replayed|mismatch|in-progress}}.
+ */
+class IdempotencyStore {
+    @Getter
+    private final IdempotencyProperties.RouteIdempotency config;
+    private final Cache<String, Entry> entries;
+
+    private final Counter executed;
+    private final Counter joined;
+    private final Counter replayed;
+    private final Counter mismatch;
+    private final Counter inProgress;
+
+    IdempotencyStore(String routeId, IdempotencyProperties.RouteIdempotency config, MeterRegistry meterRegistry) {
+        this.config = config;
+        long maxBytes = config.getMaxBytes().toBytes();
+        int minimumWeight = (int) Math.max(1, maxBytes / Math.max(1, config.getMaxEntries()));
+
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(config.getTtl())
+                .maximumWeight(maxBytes)
+                .<String, Entry>weigher((key, entry) ->
+                        entry.response() == null ? 0 : Math.max(minimumWeight, entry.response().weight()))
+                .build();
+
+        this.executed = outcome(meterRegistry, routeId, "executed");
+        this.joined = outcome(meterRegistry, routeId, "joined");
+        this.replayed = outcome(meterRegistry, routeId, "replayed");
+        this.mismatch = outcome(meterRegistry, routeId, "mismatch");
+        this.inProgress = outcome(meterRegistry, routeId, "in-progress");
+        Gauge.builder("gateway.idempotency.entries", entries, Cache::estimatedSize)
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decide qué hacer con una petición: ejecutarla, esperar a la que está en curso, repetir la respuesta
+     * guardada o rechazarla porque la clave ya se usó con otra petición ({@code fingerprint} distinto).
+     */
+    Claim claim(String key, String fingerprint) {
+        Entry mine = new Entry(fingerprint, Sinks.one(), null);
+        Entry current = entries.asMap().putIfAbsent(key, mine);
+        if (current == null) {
+            executed.increment();
+            return new Lead(mine);
+        }
+        if (!current.fingerprint().equals(fingerprint)) {
+            mismatch.increment();
+            return Mismatch.INSTANCE;
+        }
+        if (current.response() != null) {
+            replayed.increment();
+            return new Replay(current.response());
+        }
+        joined.increment();
+        return new Join(current.pending().asMono());
+    }
+
+    /**
+     * La primera petición terminó: su respuesta se entrega a quienes esperaban y, si es definitiva, se guarda.
+     */
+    void complete(String key, Lead lead, IdempotentResponse response) {
+        Entry entry = lead.entry();
+        if (response.isStorable()) {
+            entries.asMap().replace(key, entry, new Entry(entry.fingerprint(), null, response));
+        } else {
+            entries.asMap().remove(key, entry);
+        }
+        entry.pending().tryEmitValue(response);
+    }
+
+    /**
+     * La primera petición no dio una respuesta repetible: se libera la clave y quienes esperaban lo intentan de nuevo.
+     */
+    void abandon(String key, Lead lead) {
+        entries.asMap().remove(key, lead.entry());
+        lead.entry().pending().tryEmitEmpty();
+    }
+
+    void recordInProgress() {
+        inProgress.increment();
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String routeId, String outcome) {
+        return Counter.builder("gateway.idempotency.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String fingerprint, Sinks.One<IdempotentResponse> pending, IdempotentResponse response) {
+    }
+
+    sealed interface Claim permits Lead, Join, Replay, Mismatch {
+    }
+
+    record Lead(Entry entry) implements Claim {
+    }
+
+    /**
+     * Vacío si la primera petición se abandona.
+     */
+    record Join(Mono<IdempotentResponse> response) implements Claim {
+    }
+
+    record Replay(IdempotentResponse response) implements Claim {
+    }
+
+    enum Mismatch implements Claim {
+        INSTANCE
+    }
+}
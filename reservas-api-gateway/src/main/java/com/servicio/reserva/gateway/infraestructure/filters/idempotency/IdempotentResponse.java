@@ -0,0 +1,23 @@
+package com.servicio.reserva.gateway.infraestructure.filters.idempotency;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Respuesta de la primera petición con una {@code Idempotency-Key}, tal como se repite a los reintentos.
+ */
+record IdempotentResponse(int status, HttpHeaders headers, byte[] body) {
+
+    /**
+     * Solo se guardan resultados definitivos: tras un 5xx o un 429 el cliente debe poder reintentar de verdad.
+     */
+    boolean isStorable() {
+        return status < 500 && status != 429;
+    }
+
+    /**
+     * Peso aproximado en bytes para acotar la memoria total del almacén.
+     */
+    int weight() {
+        return body.length + headers.size() * 64 + 128;
+    }
+}
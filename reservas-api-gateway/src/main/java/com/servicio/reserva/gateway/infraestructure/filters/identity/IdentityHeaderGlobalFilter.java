@@ -0,0 +1,67 @@
+package com.servicio.reserva.gateway.infraestructure.filters.identity;
+
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaders;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * En las rutas de {@code gateway.identity.routes} sustituye el {@code Authorization} por las cabeceras firmadas de
+ * {@link IdentityHeaders}, ya verificado el JWT.
+ * <p>
+ * En todas las rutas se descartan las cabeceras {@code X-Gateway-*} que envíe el cliente: solo las pone el Gateway.
+ */
+public class IdentityHeaderGlobalFilter implements GlobalFilter, Ordered {
+    private final IdentityHeaders identityHeaders;
+
+    public IdentityHeaderGlobalFilter(IdentityHeaders identityHeaders) {
+        this.identityHeaders = identityHeaders;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.IDENTITY_HEADERS;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || !identityHeaders.appliesTo(route.getId())) {
+            return hasIdentityHeaders(exchange.getRequest().getHeaders())
+                    ? chain.filter(withHeaders(exchange, Optional.empty()))
+                    : chain.filter(exchange);
+        }
+
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> ((JwtAuthenticationToken) principal).getToken())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(jwt -> chain.filter(withHeaders(exchange, jwt)));
+    }
+
+    private ServerWebExchange withHeaders(ServerWebExchange exchange, Optional<Jwt> jwt) {
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    IdentityHeaderSigner.HEADERS.forEach(headers::remove);
+                    jwt.ifPresent(token -> identityHeaders.apply(headers, token));
+                }))
+                .build();
+    }
+
+    private static boolean hasIdentityHeaders(HttpHeaders headers) {
+        return IdentityHeaderSigner.HEADERS.stream().anyMatch(headers::containsKey);
+    }
+}
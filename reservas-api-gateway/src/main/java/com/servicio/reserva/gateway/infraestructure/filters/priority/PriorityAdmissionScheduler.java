@@ -0,0 +1,189 @@
+package com.servicio.reserva.gateway.infraestructure.filters.priority;
+
+import com.servicio.reserva.gateway.infraestructure.config.PriorityProperties;
+import com.servicio.reserva.gateway.infraestructure.config.PriorityProperties.PriorityClass;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admisión por clases de prioridad sobre un máximo global de peticiones en vuelo.
+ * <p>
+ * Una petición entra si hay hueco global, su clase no supera su cuota y no hay nadie de su clase esperando antes.
+ * Si no, espera en la cola de su clase (acotada y con plazo). Al liberarse un hueco se atienden las colas por orden
+ * de prioridad, así que con el Gateway saturado {@code bulk} espera o se descarta antes que {@code critical}.
+ * <p>
+ * Métricas por clase: {@code gateway.priority.queue.wait}, {@code gateway.priority.inflight},
+ * {@code gateway.priority.queued} y {@code gateway.priority.shed{reason=queue-full|timeout}}.
+ */
+class PriorityAdmissionScheduler {
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final int maxConcurrency;
+    private final Lane[] lanes;
+    // Protegidos por this
+    private int inFlight;
+
+    PriorityAdmissionScheduler(PriorityProperties properties, MeterRegistry meterRegistry) {
+        this.maxConcurrency = properties.getMaxConcurrency();
+        PriorityClass[] classes = PriorityClass.values();
+        this.lanes = new Lane[classes.length];
+        for (PriorityClass priorityClass : classes) {
+            lanes[priorityClass.ordinal()] = new Lane(priorityClass, properties.forClass(priorityClass),
+                    maxConcurrency, meterRegistry);
+        }
+    }
+
+    /**
+     * Permiso para ejecutar la petición; falla con 503 si la cola está llena o se agota la espera.
+     * Si la suscripción se cancela mientras espera, sale de la cola.
+     */
+    Mono<Permit> acquire(PriorityClass priorityClass) {
+        Lane lane = lanes[priorityClass.ordinal()];
+        long start = System.nanoTime();
+        return Mono.<Permit>create(sink -> {
+                    Waiter waiter;
+                    synchronized (this) {
+                        if (lane.queue.isEmpty() && canRun(lane)) {
+                            run(lane);
+                            waiter = null;
+                        } else if (lane.queue.size() >= lane.maxQueue) {
+                            lane.queueFull.increment();
+                            sink.error(rejected(lane, "queue full"));
+                            return;
+                        } else {
+                            waiter = new Waiter(lane, sink, start);
+                            lane.queue.addLast(waiter);
+                        }
+                    }
+                    if (waiter == null) {
+                        sink.success(permit(lane, start));
+                        return;
+                    }
+                    sink.onCancel(() -> abandon(waiter));
+                })
+                .timeout(lane.maxWait, Mono.error(() -> {
+                    lane.timedOut.increment();
+                    return rejected(lane, "queue timeout");
+                }))
+                // Concedido justo cuando la espera se cancelaba: nadie lo va a usar
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private boolean canRun(Lane lane) {
+        return inFlight < maxConcurrency && lane.inFlight < lane.maxInFlight;
+    }
+
+    private void run(Lane lane) {
+        inFlight++;
+        lane.inFlight++;
+    }
+
+    private Permit permit(Lane lane, long start) {
+        lane.queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Permit(lane);
+    }
+
+    private synchronized void abandon(Waiter waiter) {
+        waiter.lane.queue.remove(waiter);
+    }
+
+    private void release(Lane lane) {
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            lane.inFlight--;
+            for (Lane candidate : lanes) {
+                while (!candidate.queue.isEmpty() && canRun(candidate)) {
+                    run(candidate);
+                    admitted.add(candidate.queue.pollFirst());
+                }
+            }
+        }
+        admitted.forEach(waiter -> waiter.sink.success(permit(waiter.lane, waiter.start)));
+    }
+
+    private static GatewayRejectionException rejected(Lane lane, String reason) {
+        return new GatewayRejectionException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Gateway overloaded (" + lane.priorityClass.tag() + " " + reason + ")", RETRY_AFTER);
+    }
+
+    synchronized int inFlight(PriorityClass priorityClass) {
+        return lanes[priorityClass.ordinal()].inFlight;
+    }
+
+    synchronized int queued(PriorityClass priorityClass) {
+        return lanes[priorityClass.ordinal()].queue.size();
+    }
+
+    final class Permit {
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityAdmissionScheduler.this.release(lane);
+            }
+        }
+    }
+
+    private record Waiter(Lane lane, MonoSink<Permit> sink, long start) {
+    }
+
+    private final class Lane {
+        final PriorityClass priorityClass;
+        final int maxInFlight;
+        final int maxQueue;
+        final Duration maxWait;
+        final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        final Timer queueWait;
+        final Counter queueFull;
+        final Counter timedOut;
+        int inFlight;
+
+        Lane(PriorityClass priorityClass, PriorityProperties.Lane config, int maxConcurrency, MeterRegistry meterRegistry) {
+            this.priorityClass = priorityClass;
+            this.maxInFlight = Math.max(1, (int) Math.round(maxConcurrency * config.getShare()));
+            this.maxQueue = config.getMaxQueue();
+            this.maxWait = config.getMaxWait();
+            String tag = priorityClass.tag();
+            this.queueWait = Timer.builder("gateway.priority.queue.wait")
+                    .description("Time spent waiting for admission")
+                    .tag("class", tag)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(maxWait)
+                    .register(meterRegistry);
+            this.queueFull = shed(meterRegistry, tag, "queue-full");
+            this.timedOut = shed(meterRegistry, tag, "timeout");
+            Gauge.builder("gateway.priority.inflight", PriorityAdmissionScheduler.this, s -> s.inFlight(priorityClass))
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.priority.queued", PriorityAdmissionScheduler.this, s -> s.queued(priorityClass))
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+
+        private static Counter shed(MeterRegistry meterRegistry, String tag, String reason) {
+            return Counter.builder("gateway.priority.shed")
+                    .tag("class", tag)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.servicio.reserva.gateway.infraestructure.filters.priority;
+
+import com.servicio.reserva.gateway.infraestructure.config.PriorityProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Admite cada petición enrutada según la clase de prioridad de su ruta ({@code gateway.priority.routes.<id>}),
+ * con {@link PriorityAdmissionScheduler}. El permiso se libera al terminar, fallar o cancelarse la petición.
+ */
+public class PriorityGlobalFilter implements GlobalFilter, Ordered {
+    private final PriorityProperties properties;
+    private final PriorityAdmissionScheduler scheduler;
+
+    public PriorityGlobalFilter(PriorityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.scheduler = new PriorityAdmissionScheduler(properties, meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.PRIORITY;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        return scheduler.acquire(properties.classOf(route.getId()))
+                .flatMap(permit -> chain.filter(exchange).doFinally(signal -> permit.release()));
+    }
+}
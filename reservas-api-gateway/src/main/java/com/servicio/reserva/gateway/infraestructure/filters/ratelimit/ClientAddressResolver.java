@@ -0,0 +1,30 @@
+package com.servicio.reserva.gateway.infraestructure.filters.ratelimit;
+
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * IP del cliente para la limitación de tasa. Solo se usa {@code X-Forwarded-For} si hay proxies de confianza
+ * delante (ingress/balanceador); si no, un cliente podría falsearla para saltarse el límite.
+ */
+public class ClientAddressResolver {
+    private final RemoteAddressResolver resolver;
+
+    public ClientAddressResolver(int trustedProxyHops) {
+        this.resolver = trustedProxyHops > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxyHops)
+                : new RemoteAddressResolver() {
+                };
+    }
+
+    public String resolve(ServerWebExchange exchange) {
+        InetSocketAddress address = resolver.resolve(exchange);
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.servicio.reserva.gateway.infraestructure.filters.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servicio.reserva.gateway.infraestructure.config.RateLimitProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitador de tasa en memoria: un {@link TokenBucket} por política y clave (IP, email o subject).
+ * <p>
+ * Los buckets inactivos se eliminan tras {@code idle-timeout} y el total de claves está acotado por
+ * {@code max-keys}, así que la memoria no crece con el número de clientes distintos.
+ */
+public class LocalRateLimiter {
+    public static final String BFF_POLICY_PREFIX = "bff-";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * @throws IllegalStateException si una política del BFF declara una {@code key} distinta de la de su endpoint
+     */
+    public LocalRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        properties.getPolicies().forEach((name, policy) -> {
+            if (name.startsWith(BFF_POLICY_PREFIX) && policy.getKey() != RateLimitProperties.KeyType.IP) {
+                throw new IllegalStateException("Rate limit policy '" + name + "' cannot set key="
+                        + policy.getKey() + ": BFF policies are keyed by their endpoint");
+            }
+        });
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        Gauge.builder("gateway.ratelimit.keys", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    public RateLimitProperties.Policy policy(String name) {
+        return properties.getPolicies().get(name);
+    }
+
+    /**
+     * Consume un token de la política {@code policyName} para {@code key}; si no hay, falla con 429 y Retry-After.
+     * Sin política configurada no se limita nada.
+     */
+    public Mono<Void> acquire(String policyName, String key) {
+        RateLimitProperties.Policy policy = policy(policyName);
+        if (policy == null || policy.getLimit() <= 0) {
+            return Mono.empty();
+        }
+
+        TokenBucket bucket = buckets.get(policyName + "|" + key, k -> newBucket(policy));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            return Mono.empty();
+        }
+
+        rejections.computeIfAbsent(policyName, name -> Counter.builder("gateway.ratelimit.rejected")
+                .tag("policy", name)
+                .register(meterRegistry)).increment();
+        return Mono.error(new GatewayRejectionException(HttpStatus.TOO_MANY_REQUESTS,
+                "Rate limit exceeded", Duration.ofNanos(waitNanos)));
+    }
+
+    private static TokenBucket newBucket(RateLimitProperties.Policy policy) {
+        int burst = policy.getBurst() != null ? policy.getBurst() : policy.getLimit();
+        long emissionInterval = Math.max(1, policy.getPeriod().toNanos() / policy.getLimit());
+        return new TokenBucket(emissionInterval, Math.max(1, burst));
+    }
+}
@@ -0,0 +1,46 @@
+package com.servicio.reserva.gateway.infraestructure.filters.ratelimit;
+
+import com.servicio.reserva.gateway.infraestructure.config.RateLimitProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Aplica a las rutas del Gateway la política de {@code gateway.rate-limit.policies.<id-ruta>}, por IP o por subject.
+ */
+@RequiredArgsConstructor
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+    private final LocalRateLimiter rateLimiter;
+    private final ClientAddressResolver clientAddressResolver;
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.RATE_LIMIT;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        RateLimitProperties.Policy policy = route == null ? null : rateLimiter.policy(route.getId());
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+
+        Mono<String> key = policy.getKey() == RateLimitProperties.KeyType.SUBJECT
+                ? exchange.getPrincipal()
+                    .map(principal -> "sub:" + TokenHasher.sha256(principal.getName()))
+                    .defaultIfEmpty("ip:" + clientAddressResolver.resolve(exchange))
+                : Mono.just("ip:" + clientAddressResolver.resolve(exchange));
+
+        return key.flatMap(k -> rateLimiter.acquire(route.getId(), k))
+                .then(Mono.defer(() -> chain.filter(exchange)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.servicio.reserva.gateway.infraestructure.filters.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks implementado como GCRA: todo el estado es un único {@code long}
+ * (el instante teórico de la próxima llegada) que se actualiza con CAS.
+ */
+final class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(long emissionIntervalNanos, int burst) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * @return 0 si se concede el token; si no, los nanosegundos hasta que haya uno disponible.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long tat = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+            long next = tat + emissionIntervalNanos;
+            long waitNanos = next - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
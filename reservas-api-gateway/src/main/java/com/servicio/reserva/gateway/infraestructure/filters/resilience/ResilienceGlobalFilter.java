@@ -0,0 +1,41 @@
+package com.servicio.reserva.gateway.infraestructure.filters.resilience;
+
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Aplica a cada ruta del Gateway el circuit breaker y el bulkhead con su id.
+ */
+@RequiredArgsConstructor
+public class ResilienceGlobalFilter implements GlobalFilter, Ordered {
+    private final ResilienceGuard guard;
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.CIRCUIT_BREAKER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        return Mono.defer(() -> {
+            ResilienceGuard.Permit permit = guard.acquire(route.getId());
+            return chain.filter(exchange)
+                    .doOnSuccess(done -> permit.complete(exchange.getResponse().getStatusCode()))
+                    .doOnError(permit::onError)
+                    .doOnCancel(permit::release);
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.servicio.reserva.gateway.infraestructure.filters.resilience;
+
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker y bulkhead de semáforo por nombre (id de ruta o {@code bff-auth}), configurados en
+ * {@code resilience4j.circuitbreaker.instances.<nombre>} y {@code resilience4j.bulkhead.instances.<nombre>}.
+ * <p>
+ * Con el circuito abierto o el bulkhead lleno se rechaza al instante con 503, sin esperar a los timeouts
+ * de conexión. Los bulkheads deben tener {@code max-wait-duration=0}: esperar un permiso bloquearía el event loop.
+ * Los cambios de estado se cuentan en {@code gateway.circuitbreaker.transitions{name, from, to}}.
+ */
+public class ResilienceGuard {
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public ResilienceGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                           MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(cb -> countTransitions(cb, meterRegistry));
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> countTransitions(event.getAddedEntry(), meterRegistry));
+    }
+
+    /**
+     * @throws GatewayRejectionException 503 si el circuito está abierto o el bulkhead no tiene huecos.
+     */
+    public Permit acquire(String name) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            long waitMillis = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+            throw new GatewayRejectionException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Circuit breaker open for " + name, Duration.ofMillis(waitMillis));
+        }
+
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name);
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw new GatewayRejectionException(HttpStatus.SERVICE_UNAVAILABLE, "Bulkhead full for " + name);
+        }
+        return new Permit(circuitBreaker, bulkhead, System.nanoTime());
+    }
+
+    private static void countTransitions(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> Counter.builder("gateway.circuitbreaker.transitions")
+                .tag("name", event.getCircuitBreakerName())
+                .tag("from", event.getStateTransition().getFromState().name())
+                .tag("to", event.getStateTransition().getToState().name())
+                .register(meterRegistry)
+                .increment());
+    }
+
+    /**
+     * Llamada admitida; se cierra una sola vez con su resultado.
+     */
+    public static final class Permit {
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(CircuitBreaker circuitBreaker, Bulkhead bulkhead, long startNanos) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Respuesta recibida: los 5xx cuentan como fallo del microservicio.
+         */
+        public void complete(HttpStatusCode status) {
+            if (status != null && status.is5xxServerError()) {
+                onError(new ResponseStatusException(status));
+            } else if (done.compareAndSet(false, true)) {
+                circuitBreaker.onSuccess(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                bulkhead.onComplete();
+            }
+        }
+
+        public void onError(Throwable error) {
+            if (error instanceof GatewayRejectionException) {
+                // Rechazo local (límite de concurrencia, etc.): el microservicio no llegó a recibir la llamada
+                release();
+            } else if (done.compareAndSet(false, true)) {
+                circuitBreaker.onError(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS, error);
+                bulkhead.onComplete();
+            }
+        }
+
+        /**
+         * Cancelada por el cliente: libera los permisos sin contar la llamada.
+         */
+        public void release() {
+            if (done.compareAndSet(false, true)) {
+                circuitBreaker.releasePermission();
+                bulkhead.onComplete();
+            }
+        }
+    }
+}
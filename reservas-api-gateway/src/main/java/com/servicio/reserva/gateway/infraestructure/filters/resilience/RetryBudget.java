@@ -0,0 +1,38 @@
+package com.servicio.reserva.gateway.infraestructure.filters.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de intentos extra (hedging y reintentos): cada petición deposita {@code percent / 100} de token
+ * y cada intento extra consume uno, con un saldo máximo de {@code burst}. A largo plazo los intentos extra
+ * no superan {@code percent}% de las peticiones.
+ */
+public final class RetryBudget {
+    private static final long TOKEN = 1_000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double percent, int burst) {
+        this.deposit = Math.round(TOKEN * percent / 100);
+        this.maxBalance = TOKEN * burst;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        balance.getAndUpdate(current -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
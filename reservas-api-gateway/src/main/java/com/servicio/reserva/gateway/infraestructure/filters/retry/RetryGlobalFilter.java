@@ -0,0 +1,140 @@
+package com.servicio.reserva.gateway.infraestructure.filters.retry;
+
+import com.servicio.reserva.gateway.infraestructure.config.RetryProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.GatewayFilterOrders;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.PeakEwmaLoadBalancer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Reintentos en las rutas con {@code gateway.retry.routes.<id>.enabled=true} (ver {@link RetryProperties}).
+ * <p>
+ * Se ejecuta antes de resolver la URL de la ruta: cada reintento vuelve a pasar por el balanceador, que evita las
+ * instancias ya probadas mientras queden otras, y recibe en la cabecera de plazo lo que queda. Las peticiones con
+ * cuerpo se guardan en memoria para poder reenviarlas. El circuit breaker, la prioridad y el límite de concurrencia
+ * quedan por fuera y ven una sola petición, con el resultado del último intento.
+ */
+public class RetryGlobalFilter implements GlobalFilter, Ordered {
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RetryPolicy> policies = new ConcurrentHashMap<>();
+
+    public RetryGlobalFilter(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return GatewayFilterOrders.RETRY;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        RetryProperties.RouteRetry config = properties.getRoutes().get(route.getId());
+        if (config == null || !config.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        RetryPolicy policy = policies.computeIfAbsent(route.getId(), id -> new RetryPolicy(id, config, meterRegistry));
+        policy.onRequest();
+
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        long contentLength = headers.getContentLength();
+        boolean chunked = headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+        if (contentLength <= 0 && !chunked) {
+            return attempt(exchange, chain, route, policy, 1);
+        }
+        if (chunked || contentLength > config.getMaxBodySize().toBytes()) {
+            return chain.filter(exchange);
+        }
+        return ServerWebExchangeUtils.cacheRequestBody(exchange,
+                request -> attempt(exchange.mutate().request(request).build(), chain, route, policy, 1));
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, Route route,
+                               RetryPolicy policy, int retry) {
+        return chain.filter(exchange)
+                .thenReturn(Optional.<Throwable>empty())
+                .onErrorResume(error -> Mono.just(Optional.of(error)))
+                .flatMap(failure -> {
+                    boolean retryable = failure.map(error -> isRetryable(exchange, policy.config(), error))
+                            .orElseGet(() -> isRetryableStatus(exchange, policy.config()));
+                    Duration backoff = retryable ? policy.nextBackoff(retry, exchange.getAttribute(Deadline.ATTR)) : null;
+                    if (backoff == null) {
+                        return failure.map(Mono::<Void>error).orElseGet(Mono::empty);
+                    }
+
+                    prepareRetry(exchange, route);
+                    return Mono.delay(backoff).then(Mono.defer(() -> attempt(exchange, chain, route, policy, retry + 1)));
+                });
+    }
+
+    private static boolean isRetryable(ServerWebExchange exchange, RetryProperties.RouteRetry config, Throwable error) {
+        if (exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        return RetryPolicy.isConnectFailure(error)
+                || (config.getMethods().contains(exchange.getRequest().getMethod())
+                && RetryPolicy.hasCause(error, IOException.class));
+    }
+
+    /**
+     * El cuerpo aún no se ha leído (también con hedging): lo escribe {@code NettyWriteResponseFilter} al terminar.
+     */
+    private static boolean isRetryableStatus(ServerWebExchange exchange, RetryProperties.RouteRetry config) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null
+                && !exchange.getResponse().isCommitted()
+                && config.getStatuses().contains(status.value())
+                && config.getMethods().contains(exchange.getRequest().getMethod());
+    }
+
+    private static void prepareRetry(ServerWebExchange exchange, Route route) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+            exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        }
+
+        URI tried = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if ("lb".equals(route.getUri().getScheme()) && tried != null && !"lb".equals(tried.getScheme())) {
+            Set<String> avoided = exchange.getAttribute(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR);
+            if (avoided == null) {
+                avoided = new HashSet<>();
+                exchange.getAttributes().put(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR, avoided);
+            }
+            avoided.add(tried.getHost() + ":" + tried.getPort());
+        }
+
+        exchange.getResponse().setStatusCode(null);
+        ServerWebExchangeUtils.reset(exchange);
+    }
+}
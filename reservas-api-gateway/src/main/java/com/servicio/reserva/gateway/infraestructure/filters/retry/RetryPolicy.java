@@ -0,0 +1,88 @@
+package com.servicio.reserva.gateway.infraestructure.filters.retry;
+
+import com.servicio.reserva.gateway.infraestructure.config.RetryProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.RetryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reintentos de una ruta o de un cliente del BFF: como mucho {@code max-retries} por petición, con espera
+ * exponencial con jitter y dentro de su {@link RetryBudget}.
+ * <p>
+ * Métricas con la etiqueta {@code route}: {@code gateway.retry.attempts} (reintentos enviados) y
+ * {@code gateway.retry.budget.exhausted} (reintentos descartados por falta de presupuesto).
+ */
+public class RetryPolicy {
+    private final RetryProperties.RouteRetry config;
+    private final RetryBudget budget;
+    private final Counter attempts;
+    private final Counter exhausted;
+
+    public RetryPolicy(String name, RetryProperties.RouteRetry config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.budget = new RetryBudget(config.getBudgetPercent(), config.getBudgetBurst());
+        this.attempts = Counter.builder("gateway.retry.attempts").tag("route", name).register(meterRegistry);
+        this.exhausted = Counter.builder("gateway.retry.budget.exhausted").tag("route", name).register(meterRegistry);
+    }
+
+    public RetryProperties.RouteRetry config() {
+        return config;
+    }
+
+    /**
+     * Una vez por petición, no por intento: es lo que alimenta el presupuesto.
+     */
+    public void onRequest() {
+        budget.deposit();
+    }
+
+    /**
+     * Espera antes del reintento número {@code retry} (desde 1), o {@code null} si no se reintenta: agotados los
+     * reintentos, sin plazo para esperar o sin presupuesto.
+     */
+    public Duration nextBackoff(int retry, Deadline deadline) {
+        if (retry > config.getMaxRetries()) {
+            return null;
+        }
+        Duration backoff = backoff(retry, config.getFirstBackoff(), config.getMaxBackoff());
+        if (deadline != null && deadline.remaining().compareTo(backoff) <= 0) {
+            return null;
+        }
+        if (!budget.tryWithdraw()) {
+            exhausted.increment();
+            return null;
+        }
+        attempts.increment();
+        return backoff;
+    }
+
+    /**
+     * Jitter completo: al azar entre cero y {@code min(max, first * 2^(retry - 1))}, para que los clientes que
+     * fallaron a la vez no vuelvan a la vez.
+     */
+    static Duration backoff(int retry, Duration first, Duration max) {
+        long cap = Math.min(max.toNanos(), first.toNanos() << Math.min(retry - 1, 16));
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    /**
+     * La conexión no llegó a abrirse, así que el servicio no recibió la petición.
+     */
+    public static boolean isConnectFailure(Throwable error) {
+        return hasCause(error, ConnectException.class);
+    }
+
+    static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
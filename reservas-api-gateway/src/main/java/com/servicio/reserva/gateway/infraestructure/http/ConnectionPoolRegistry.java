@@ -0,0 +1,133 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import com.servicio.reserva.gateway.infraestructure.config.ConnectionPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un {@link ConnectionProvider} con nombre por ruta del Gateway y otro para el cliente del BFF. El cliente HTTP de
+ * cada pool lo construye {@link PoolHttpClientFactory} con la configuración de
+ * {@code spring.cloud.gateway.server.webflux.httpclient.*}.
+ * <p>
+ * Cada pool publica en Micrometer sus conexiones activas, ociosas y pendientes
+ * ({@code reactor.netty.connection.provider.*}) con la etiqueta {@code name} = id de la ruta.
+ * <p>
+ * Al apagar, los pools se cierran justo después del apagado ordenado del servidor web, ya sin peticiones en curso,
+ * esperando como mucho {@code closeTimeout} a que vuelvan las conexiones prestadas.
+ */
+public class ConnectionPoolRegistry implements SmartLifecycle, DisposableBean {
+    public static final String BFF_POOL = "bff";
+
+    private final ConnectionPoolProperties properties;
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Duration closeTimeout;
+    private final PoolHttpClientFactory httpClientFactory;
+    private final PoolMeterRegistrar meterRegistrar;
+    private volatile boolean running;
+
+    public ConnectionPoolRegistry(ConnectionPoolProperties properties, Duration closeTimeout,
+                                  PoolHttpClientFactory httpClientFactory, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.closeTimeout = closeTimeout;
+        this.httpClientFactory = httpClientFactory;
+        this.meterRegistrar = new PoolMeterRegistrar(meterRegistry);
+    }
+
+    public HttpClient routeHttpClient(String routeId) {
+        return clients.computeIfAbsent(routeId, id -> createHttpClient(id, properties.forRoute(id)));
+    }
+
+    public HttpClient bffHttpClient() {
+        return clients.computeIfAbsent(BFF_POOL, id -> createHttpClient(id, properties.forBff()));
+    }
+
+    public Map<String, ConnectionProvider> getProviders() {
+        return Map.copyOf(providers);
+    }
+
+    /**
+     * Cierra los pools esperando a que se devuelvan las conexiones prestadas, como mucho {@code timeout}.
+     */
+    public Mono<Void> disposeGracefully(Duration timeout) {
+        return Flux.fromIterable(providers.values())
+                .flatMap(ConnectionProvider::disposeLater)
+                .then()
+                .timeout(timeout, Mono.empty());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        disposeGracefully(closeTimeout).block();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        running = false;
+        disposeGracefully(closeTimeout).subscribe(null, error -> callback.run(), callback);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+
+    private HttpClient createHttpClient(String name, ConnectionPoolProperties.Pool pool) {
+        ConnectionProvider provider = providers.computeIfAbsent(name, n -> buildProvider(n, pool));
+        return httpClientFactory.create(provider);
+    }
+
+    private ConnectionProvider buildProvider(String name, ConnectionPoolProperties.Pool pool) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(name).metrics(true, () -> meterRegistrar);
+        if (pool.getMaxConnections() != null) {
+            builder.maxConnections(pool.getMaxConnections());
+        }
+        if (pool.getPendingAcquireMaxCount() != null) {
+            builder.pendingAcquireMaxCount(pool.getPendingAcquireMaxCount());
+        }
+        if (pool.getPendingAcquireTimeout() != null) {
+            builder.pendingAcquireTimeout(pool.getPendingAcquireTimeout());
+        }
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getEvictionInterval() != null) {
+            builder.evictInBackground(pool.getEvictionInterval());
+        }
+        if (pool.getLeasingStrategy() == ConnectionPoolProperties.LeasingStrategy.LIFO) {
+            builder.lifo();
+        } else {
+            builder.fifo();
+        }
+        return builder.build();
+    }
+}
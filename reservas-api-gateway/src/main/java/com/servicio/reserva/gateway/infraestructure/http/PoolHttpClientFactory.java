@@ -0,0 +1,56 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cliente HTTP de un pool de {@link ConnectionPoolRegistry} configurado igual que el cliente único del Gateway
+ * ({@link HttpClientFactory}): SSL, proxy, tamaño de cabeceras, timeout de conexión, wiretap, compresión y los
+ * {@link HttpClientCustomizer} registrados. Solo cambia el {@link ConnectionProvider}.
+ */
+public class PoolHttpClientFactory {
+    private final HttpClientProperties properties;
+    private final ServerProperties serverProperties;
+    private final HttpClientSslConfigurer sslConfigurer;
+    private final List<HttpClientCustomizer> customizers;
+
+    public PoolHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                 HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers) {
+        this.properties = properties;
+        this.serverProperties = serverProperties;
+        this.sslConfigurer = sslConfigurer;
+        this.customizers = customizers;
+    }
+
+    public HttpClient create(ConnectionProvider provider) {
+        return new ProviderHttpClientFactory(provider).build();
+    }
+
+    private final class ProviderHttpClientFactory extends HttpClientFactory {
+        private final ConnectionProvider provider;
+
+        ProviderHttpClientFactory(ConnectionProvider provider) {
+            // HttpClientFactory ordena la lista de customizers: cada fábrica trabaja sobre su copia
+            super(PoolHttpClientFactory.this.properties, PoolHttpClientFactory.this.serverProperties,
+                    PoolHttpClientFactory.this.sslConfigurer, new ArrayList<>(PoolHttpClientFactory.this.customizers));
+            this.provider = provider;
+        }
+
+        HttpClient build() {
+            return createInstance();
+        }
+
+        @Override
+        protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+            return provider;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas de los pools con los mismos nombres y etiquetas que las de Reactor Netty
+ * ({@code reactor.netty.connection.provider.*}), pero en el {@link MeterRegistry} de la aplicación en lugar del
+ * registro global, que comparten todos los contextos de la JVM y avisa de gauges duplicados.
+ */
+class PoolMeterRegistrar implements ConnectionProvider.MeterRegistrar {
+    private static final String PREFIX = "reactor.netty.connection.provider.";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    PoolMeterRegistrar(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        Tags tags = Tags.of("id", id, "name", poolName, "remote.address", remoteAddress.toString());
+        meters.computeIfAbsent(key(poolName, id, remoteAddress), key -> List.of(
+                gauge("total.connections", tags, metrics, ConnectionPoolMetrics::allocatedSize),
+                gauge("active.connections", tags, metrics, ConnectionPoolMetrics::acquiredSize),
+                gauge("idle.connections", tags, metrics, ConnectionPoolMetrics::idleSize),
+                gauge("pending.connections", tags, metrics, ConnectionPoolMetrics::pendingAcquireSize),
+                gauge("max.connections", tags, metrics, ConnectionPoolMetrics::maxAllocatedSize),
+                gauge("max.pending.connections", tags, metrics, ConnectionPoolMetrics::maxPendingAcquireSize)));
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        List<Meter> removed = meters.remove(key(poolName, id, remoteAddress));
+        if (removed != null) {
+            removed.forEach(meterRegistry::remove);
+        }
+    }
+
+    private Meter gauge(String name, Tags tags, ConnectionPoolMetrics metrics,
+                        ToDoubleFunction<ConnectionPoolMetrics> value) {
+        return Gauge.builder(PREFIX + name, metrics, value)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static String key(String poolName, String id, SocketAddress remoteAddress) {
+        return poolName + "|" + id + "|" + remoteAddress;
+    }
+}
@@ -0,0 +1,64 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * {@link NettyRoutingFilter} que envía cada ruta por su propio pool de conexiones
+ * en lugar del cliente HTTP único del Gateway. Los clientes de {@link ConnectionPoolRegistry} ya tienen la
+ * configuración global; aquí solo se aplica el {@code connect-timeout} de los metadatos de la ruta.
+ */
+public class PooledNettyRoutingFilter extends NettyRoutingFilter {
+    private final ConnectionPoolRegistry pools;
+    private final Map<String, HttpClient> routeClients = new ConcurrentHashMap<>();
+
+    public PooledNettyRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                    HttpClientProperties properties, ConnectionPoolRegistry pools) {
+        super(httpClient, headersFilters, properties);
+        this.pools = pools;
+    }
+
+    /**
+     * Cliente HTTP de la ruta, para filtros que hacen sus propias llamadas (p. ej. hedging).
+     */
+    public HttpClient routeHttpClient(Route route) {
+        return getHttpClient(route, null);
+    }
+
+    /**
+     * La llamada termina al recibir las cabeceras del servicio; el cuerpo lo escribe después NettyWriteResponseFilter.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return GatewayTimings.record(GatewayTimings.Phase.UPSTREAM, super.filter(exchange, chain));
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+
+        // La configuración del cliente se calcula una vez por ruta, no en cada petición
+        return routeClients.computeIfAbsent(route.getId() + "|" + connectTimeout, key -> {
+            HttpClient httpClient = pools.routeHttpClient(route.getId());
+            if (connectTimeout != null) {
+                httpClient = httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+            }
+            return httpClient;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import com.servicio.reserva.gateway.infraestructure.config.CompressionProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compresión de Reactor Netty solo en las rutas de {@code gateway.compression.routes}.
+ * <p>
+ * La decisión se toma en Netty, antes de llegar al Gateway, así que la ruta se identifica por los
+ * predicados {@code Path} de su definición en {@code spring.cloud.gateway.server.webflux.routes}.
+ * El cuerpo se sigue enviando por trozos: Netty comprime cada trozo según llega. Las respuestas que se pueden
+ * comprimir llevan {@code Vary: Accept-Encoding}.
+ */
+public class RouteCompressionCustomizer implements NettyServerCustomizer {
+    private final List<RouteRule> rules = new ArrayList<>();
+
+    public RouteCompressionCustomizer(CompressionProperties properties, GatewayProperties gatewayProperties) {
+        for (RouteDefinition route : gatewayProperties.getRoutes()) {
+            CompressionProperties.RouteCompression config = properties.getRoutes().get(route.getId());
+            if (config == null || !config.isEnabled()) {
+                continue;
+            }
+            List<PathPattern> patterns = new ArrayList<>();
+            for (PredicateDefinition predicate : route.getPredicates()) {
+                if ("Path".equals(predicate.getName())) {
+                    predicate.getArgs().values().forEach(pattern -> patterns.add(PathPatternParser.defaultInstance.parse(pattern)));
+                }
+            }
+            List<MimeType> mimeTypes = config.getMimeTypes().stream().map(MimeTypeUtils::parseMimeType).toList();
+            rules.add(new RouteRule(patterns, config.getMinResponseSize().toBytes(), mimeTypes));
+        }
+    }
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        if (rules.isEmpty()) {
+            return httpServer;
+        }
+        return httpServer.compress(this::shouldCompress);
+    }
+
+    boolean shouldCompress(HttpServerRequest request, HttpServerResponse response) {
+        String path = request.fullPath();
+        PathContainer pathContainer = PathContainer.parsePath(path.startsWith("/") ? path : "/" + path);
+        for (RouteRule rule : rules) {
+            if (rule.matches(pathContainer)) {
+                boolean compressible = rule.accepts(response.responseHeaders().get(HttpHeaders.CONTENT_TYPE),
+                        response.responseHeaders().get(HttpHeaders.CONTENT_LENGTH));
+                if (compressible) {
+                    addVaryAcceptEncoding(response);
+                }
+                return compressible;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Netty solo comprime si el cliente envía {@code Accept-Encoding}: la respuesta depende de esa cabecera
+     * aunque esta petición concreta no se comprima, y las caches intermedias no deben mezclar las dos versiones.
+     * El predicado se evalúa antes de escribir las cabeceras, así que todavía se pueden modificar.
+     */
+    private static void addVaryAcceptEncoding(HttpServerResponse response) {
+        boolean present = response.responseHeaders().getAll(HttpHeaders.VARY).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .anyMatch(value -> value.equals("*") || value.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING));
+        if (!present) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    record RouteRule(List<PathPattern> patterns, long minResponseSize, List<MimeType> mimeTypes) {
+        boolean matches(PathContainer path) {
+            return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+
+        /**
+         * Cabeceras del servicio tal como llegan: si no se pueden interpretar, la respuesta se envía sin comprimir.
+         */
+        boolean accepts(String contentType, String contentLength) {
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+                if (mimeTypes.stream().noneMatch(allowed -> allowed.includes(mimeType))) {
+                    return false;
+                }
+                return contentLength == null || Long.parseLong(contentLength.trim()) >= minResponseSize;
+            } catch (InvalidMimeTypeException | NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
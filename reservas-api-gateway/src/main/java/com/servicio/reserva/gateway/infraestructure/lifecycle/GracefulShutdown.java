@@ -0,0 +1,89 @@
+package com.servicio.reserva.gateway.infraestructure.lifecycle;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Primera fase del apagado, antes de que el servidor deje de aceptar conexiones.
+ * <p>
+ * Al empezar a cerrarse el contexto, Spring Boot marca la readiness como {@code REFUSING_TRAFFIC} y el cliente de
+ * Eureka da de baja la instancia. Esta fase sigue atendiendo durante {@code drainDelay}, lo que tardan en notarlo
+ * el balanceador de Kubernetes y los clientes de Eureka, y mientras tanto responde con {@code Connection: close}
+ * para que los clientes abran las conexiones nuevas contra otra instancia.
+ * <p>
+ * Después, el apagado ordenado del servidor ({@code server.shutdown=graceful}) cierra el puerto y espera a las
+ * peticiones en curso, y {@code ConnectionPoolRegistry} cierra los pools hacia los servicios.
+ */
+@Slf4j
+public class GracefulShutdown implements SmartLifecycle, WebFilter, Ordered {
+    private final Duration drainDelay;
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public GracefulShutdown(Duration drainDelay) {
+        this.drainDelay = drainDelay;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (draining) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.CONNECTION, "close");
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Variante síncrona: bloquea el hilo que cierra el contexto durante {@code drainDelay}.
+     */
+    @Override
+    public void stop() {
+        drain().block();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        drain().doFinally(signal -> callback.run()).subscribe();
+    }
+
+    private Mono<Void> drain() {
+        return Mono.fromRunnable(() -> {
+                    draining = true;
+                    log.info("Draining for {} before refusing new connections", drainDelay);
+                })
+                .then(Mono.delay(drainDelay))
+                .doFinally(signal -> running = false)
+                .then();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Se para justo antes del apagado ordenado del servidor web.
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE + 1;
+    }
+}
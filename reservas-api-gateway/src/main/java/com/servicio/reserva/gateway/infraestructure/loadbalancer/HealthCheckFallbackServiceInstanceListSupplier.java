@@ -0,0 +1,53 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Health checks que no dejan un servicio sin instancias: si ninguna responde en la ruta de salud, se balancea
+ * entre todas las del registro (o de la copia local) como si los health checks estuvieran desactivados.
+ * <p>
+ * Un servicio que no publica {@code spring.cloud.loadbalancer.health-check.path.default} fallaría todos los
+ * checks; así sigue recibiendo tráfico, y los fallos reales los siguen penalizando el balanceador y el
+ * circuit breaker de la ruta.
+ */
+@Slf4j
+public class HealthCheckFallbackServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+    private final ServiceInstanceListSupplier unfiltered;
+    private final AtomicBoolean fallingBack = new AtomicBoolean();
+
+    /**
+     * @param healthChecked lista con solo las instancias que responden
+     * @param unfiltered    lista sobre la que se hacen los health checks
+     */
+    public HealthCheckFallbackServiceInstanceListSupplier(ServiceInstanceListSupplier healthChecked,
+                                                          ServiceInstanceListSupplier unfiltered) {
+        super(healthChecked);
+        this.unfiltered = unfiltered;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get().concatMap(healthy -> {
+            if (!healthy.isEmpty()) {
+                if (fallingBack.compareAndSet(true, false)) {
+                    log.info("Health checks of {} recovered: {} healthy instances", getServiceId(), healthy.size());
+                }
+                return Mono.just(healthy);
+            }
+            return unfiltered.get().next().defaultIfEmpty(List.of()).doOnNext(instances -> {
+                if (!instances.isEmpty() && fallingBack.compareAndSet(false, true)) {
+                    log.warn("No instance of {} passed its health check; balancing across all {} instances",
+                            getServiceId(), instances.size());
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencia (EWMA con pico) y peticiones en vuelo de una instancia.
+ * <p>
+ * Una muestra más lenta que la media la sustituye directamente, así que una pausa de GC se nota en la
+ * siguiente respuesta; las muestras más rápidas solo la bajan poco a poco según {@code decay}.
+ */
+final class InstanceStats {
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final long failurePenaltyWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double ewmaNanos;
+    private long lastSampleNanos;
+    private long lastFailureNanos;
+    private boolean failed;
+
+    InstanceStats(long decayNanos, long failurePenaltyNanos, long failurePenaltyWindowNanos) {
+        this.decayNanos = decayNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.failurePenaltyWindowNanos = failurePenaltyWindowNanos;
+    }
+
+    void start() {
+        inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void record(long latencyNanos, boolean failure, long nowNanos) {
+        if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(double) (nowNanos - lastSampleNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+        if (failure) {
+            failed = true;
+            lastFailureNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Coste estimado de enviar una petición más: latencia esperada por peticiones en vuelo. Menor es mejor.
+     */
+    synchronized double score(long nowNanos) {
+        double penalty = 0;
+        if (failed) {
+            long sinceFailure = nowNanos - lastFailureNanos;
+            if (sinceFailure < failurePenaltyWindowNanos) {
+                penalty = failurePenaltyNanos * (1 - (double) sinceFailure / failurePenaltyWindowNanos);
+            }
+        }
+        return (ewmaNanos + penalty + 1) * (inFlight.get() + 1);
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
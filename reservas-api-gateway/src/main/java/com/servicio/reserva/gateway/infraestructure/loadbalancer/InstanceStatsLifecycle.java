@@ -0,0 +1,100 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.time.Duration;
+
+/**
+ * Alimenta {@link InstanceStatsRegistry} con cada petición balanceada, tanto de las rutas del Gateway
+ * como del {@code WebClient} {@code @LoadBalanced}.
+ * <p>
+ * Ni el Gateway ni el {@code WebClient} avisan cuando el cliente cancela; las peticiones sin completar se
+ * liberan cuando el {@link Request} deja de estar referenciado o tras {@code abandonAfter}.
+ */
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+    /**
+     * Atributo del exchange: la respuesta no la dio la instancia elegida, cuya petición se canceló (p. ej. ganó el
+     * segundo intento del hedging). La petición se libera sin dejar muestra de latencia.
+     */
+    public static final String DISCARDED_ATTR = InstanceStatsLifecycle.class.getName() + ".discarded";
+
+    private final InstanceStatsRegistry statsRegistry;
+    private final Cache<Request<?>, Ticket> tickets;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry statsRegistry, Duration abandonAfter) {
+        this.statsRegistry = statsRegistry;
+        this.tickets = Caffeine.newBuilder()
+                .weakKeys()
+                .expireAfterWrite(abandonAfter)
+                .<Request<?>, Ticket>removalListener((request, ticket, cause) -> {
+                    if (cause != RemovalCause.EXPLICIT && ticket != null) {
+                        ticket.stats().release();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats stats = statsRegistry.stats(lbResponse.getServer());
+        stats.start();
+        tickets.put(request, new Ticket(stats, System.nanoTime()));
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Ticket ticket = tickets.asMap().remove(completionContext.getLoadBalancerRequest());
+        if (ticket == null) {
+            return;
+        }
+        ticket.stats().release();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || isDiscarded(completionContext)) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        ticket.stats().record(now - ticket.startNanos(), isFailure(completionContext), now);
+    }
+
+    private static boolean isDiscarded(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        Request<RequestDataContext> request = context.getLoadBalancerRequest();
+        return request != null && request.getContext() != null
+                && request.getContext().getClientRequest() != null
+                && request.getContext().getClientRequest().getAttributes() != null
+                && Boolean.TRUE.equals(request.getContext().getClientRequest().getAttributes().get(DISCARDED_ATTR));
+    }
+
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        if (context.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = context.getClientResponse();
+        return response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+    }
+
+    private record Ticket(InstanceStats stats, long startNanos) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servicio.reserva.gateway.infraestructure.config.LoadBalancerStatsProperties;
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Estadísticas de todas las instancias conocidas, compartidas entre las rutas del Gateway y el cliente del BFF.
+ */
+public class InstanceStatsRegistry {
+    private final LoadBalancerStatsProperties properties;
+    private final Cache<String, InstanceStats> stats;
+
+    public InstanceStatsRegistry(LoadBalancerStatsProperties properties) {
+        this.properties = properties;
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    InstanceStats stats(ServiceInstance instance) {
+        return stats.get(key(instance), k -> new InstanceStats(
+                properties.getDecay().toNanos(),
+                properties.getFailurePenalty().toNanos(),
+                properties.getFailurePenaltyWindow().toNanos()));
+    }
+
+    private static String key(ServiceInstance instance) {
+        if (instance.getInstanceId() != null) {
+            return instance.getServiceId() + "|" + instance.getInstanceId();
+        }
+        return instance.getServiceId() + "|" + instance.getHost() + ":" + instance.getPort();
+    }
+}
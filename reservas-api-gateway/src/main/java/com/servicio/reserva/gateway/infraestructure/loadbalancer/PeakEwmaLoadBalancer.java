@@ -0,0 +1,103 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.servicio.reserva.gateway.infraestructure.metrics.GatewayTimings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: se eligen dos instancias al azar y se envía la petición a la de menor coste
+ * según {@link InstanceStats#score}. Una instancia lenta o que acaba de fallar recibe menos tráfico
+ * sin dejar de recibir alguno, así que se detecta cuando se recupera.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    /**
+     * Atributo de la petición con las instancias ({@code host:port}) que no deben elegirse,
+     * p. ej. la del primer intento cuando se lanza un segundo.
+     */
+    public static final String EXCLUDED_INSTANCES_ATTR = PeakEwmaLoadBalancer.class.getName() + ".excludedInstances";
+    /**
+     * Como {@link #EXCLUDED_INSTANCES_ATTR}, pero solo mientras quede otra instancia: un reintento prefiere una
+     * instancia distinta, aunque con una sola vuelve a la misma.
+     */
+    public static final String AVOIDED_INSTANCES_ATTR = PeakEwmaLoadBalancer.class.getName() + ".avoidedInstances";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final InstanceStatsRegistry statsRegistry;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                InstanceStatsRegistry statsRegistry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        Collection<?> excluded = instancesAttribute(request, EXCLUDED_INSTANCES_ATTR);
+        Collection<?> avoided = instancesAttribute(request, AVOIDED_INSTANCES_ATTR);
+        return GatewayTimings.record(GatewayTimings.Phase.LOAD_BALANCER, supplier.get(request).next().map(instances -> {
+            List<ServiceInstance> candidates = without(instances, excluded);
+            List<ServiceInstance> preferred = without(candidates, avoided);
+            Response<ServiceInstance> response = choose(preferred.isEmpty() ? candidates : preferred);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        }));
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.getFirst());
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        long now = System.nanoTime();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(statsRegistry.stats(a).score(now) <= statsRegistry.stats(b).score(now) ? a : b);
+    }
+
+    private static List<ServiceInstance> without(List<ServiceInstance> instances, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return instances;
+        }
+        return instances.stream()
+                .filter(instance -> !keys.contains(instance.getHost() + ":" + instance.getPort()))
+                .toList();
+    }
+
+    private static Collection<?> instancesAttribute(Request<?> request, String name) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes() != null
+                && context.getClientRequest().getAttributes().get(name) instanceof Collection<?> instances) {
+            return instances;
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,52 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.servicio.reserva.gateway.infraestructure.config.RegistrySnapshotProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Configuración de cada cliente de LoadBalancer (un contexto hijo por servicio).
+ * Sin {@code @Configuration}: no debe registrarse en el contexto principal.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                   LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                                   InstanceStatsRegistry instanceStatsRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                instanceStatsRegistry);
+    }
+
+    /**
+     * Registro de Eureka con la copia local como respaldo y, encima, los health checks, que también descartan
+     * las instancias de la copia que ya no existen. Los health checks vuelven a pedir la lista cada
+     * {@code refetch-instances-interval}, por lo que sustituyen a la cache por defecto. Si ninguna instancia
+     * responde en su ruta de salud se usa la lista sin filtrar.
+     */
+    @Bean
+    public ServiceInstanceListSupplier discoveryClientServiceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                                  RegistrySnapshotStore snapshotStore,
+                                                                                  RegistrySnapshotProperties properties) {
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .with((ctx, delegate) -> new SnapshotServiceInstanceListSupplier(delegate, snapshotStore));
+        if (properties.isHealthChecks()) {
+            builder.withHealthChecks(WebClient.builder().build())
+                    .with((ctx, healthChecked) -> new HealthCheckFallbackServiceInstanceListSupplier(healthChecked,
+                            ((DelegatingServiceInstanceListSupplier) healthChecked).getDelegate()));
+        } else {
+            builder.withCaching();
+        }
+        return builder.build(context);
+    }
+}
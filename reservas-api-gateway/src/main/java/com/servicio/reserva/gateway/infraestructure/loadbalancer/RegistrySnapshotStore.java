@@ -0,0 +1,166 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Última lista de instancias conocida por servicio, persistida en un fichero JSON.
+ * <p>
+ * Se carga al crearse, antes de que exista ningún cliente de LoadBalancer, y se escribe en segundo plano cada
+ * {@code writeInterval} si algo cambió, y al parar. La escritura es atómica (fichero temporal y {@code move}):
+ * un Gateway que muere a mitad de escritura conserva el fichero anterior.
+ */
+@Slf4j
+public class RegistrySnapshotStore implements SmartLifecycle {
+    private final Path file;
+    private final Duration writeInterval;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final Map<String, ServiceSnapshot> services = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallbacks = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Disposable writeTask;
+
+    public RegistrySnapshotStore(Path file, Duration maxAge, Duration writeInterval, ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        this(file, maxAge, writeInterval, objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    RegistrySnapshotStore(Path file, Duration maxAge, Duration writeInterval, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry, Clock clock) {
+        this.file = file;
+        this.writeInterval = writeInterval;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        load(maxAge);
+    }
+
+    /**
+     * Instancias guardadas de {@code serviceId}, vacío si no hay ninguna; cuenta como uso de la copia local.
+     */
+    public List<ServiceInstance> fallback(String serviceId) {
+        ServiceSnapshot snapshot = services.get(serviceId);
+        if (snapshot == null || snapshot.instances().isEmpty()) {
+            return List.of();
+        }
+        fallbacks.computeIfAbsent(serviceId, id -> Counter.builder("gateway.registry.snapshot.fallback")
+                        .description("Instance lists served from the local registry snapshot")
+                        .tag("service", id)
+                        .register(meterRegistry))
+                .increment();
+        return snapshot.instances().stream()
+                .map(instance -> (ServiceInstance) new DefaultServiceInstance(instance.instanceId(), serviceId,
+                        instance.host(), instance.port(), instance.secure(), instance.metadata()))
+                .toList();
+    }
+
+    /**
+     * Guarda la lista recibida del registro; solo se reescribe el fichero si cambió.
+     */
+    public void update(String serviceId, List<ServiceInstance> instances) {
+        List<SnapshotInstance> current = instances.stream()
+                .map(SnapshotInstance::of)
+                .sorted((a, b) -> a.instanceId().compareTo(b.instanceId()))
+                .toList();
+        ServiceSnapshot previous = services.get(serviceId);
+        if (previous != null && previous.instances().equals(current)) {
+            return;
+        }
+        services.put(serviceId, new ServiceSnapshot(clock.instant(), current));
+        dirty.set(true);
+    }
+
+    void write() {
+        if (file == null || !dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), new TreeMap<>(services));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Registry snapshot could not be written to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void load(Duration maxAge) {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            Map<String, ServiceSnapshot> stored = objectMapper.readValue(file.toFile(),
+                    objectMapper.getTypeFactory().constructMapType(Map.class, String.class, ServiceSnapshot.class));
+            Instant oldest = clock.instant().minus(maxAge);
+            stored.forEach((serviceId, snapshot) -> {
+                if (snapshot.updatedAt().isAfter(oldest)) {
+                    services.put(serviceId, snapshot);
+                }
+            });
+            log.info("Registry snapshot loaded from {}: {} services", file, services.size());
+        } catch (IOException e) {
+            log.warn("Registry snapshot {} ignored: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (file != null) {
+            writeTask = Flux.interval(writeInterval, writeInterval, Schedulers.boundedElastic())
+                    .subscribe(tick -> write());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (writeTask != null) {
+            writeTask.dispose();
+            writeTask = null;
+        }
+        write();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writeTask != null;
+    }
+
+    record ServiceSnapshot(Instant updatedAt, List<SnapshotInstance> instances) {
+    }
+
+    record SnapshotInstance(String instanceId, String host, int port, boolean secure, Map<String, String> metadata) {
+        static SnapshotInstance of(ServiceInstance instance) {
+            String instanceId = instance.getInstanceId() != null
+                    ? instance.getInstanceId()
+                    : instance.getHost() + ":" + instance.getPort();
+            return new SnapshotInstance(instanceId, instance.getHost(), instance.getPort(), instance.isSecure(),
+                    instance.getMetadata() == null ? Map.of() : new TreeMap<>(instance.getMetadata()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Guarda en {@link RegistrySnapshotStore} cada lista no vacía del registro y, cuando el registro no tiene
+ * instancias (primera descarga pendiente o Eureka caído), devuelve la última conocida.
+ * <p>
+ * Las instancias de la copia pueden haber desaparecido: con los health checks activos se descartan antes de
+ * recibir tráfico.
+ */
+public class SnapshotServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+    private final RegistrySnapshotStore snapshotStore;
+
+    public SnapshotServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, RegistrySnapshotStore snapshotStore) {
+        super(delegate);
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get()
+                .onErrorResume(e -> Flux.just(List.of()))
+                .map(instances -> {
+                    if (instances.isEmpty()) {
+                        return snapshotStore.fallback(getServiceId());
+                    }
+                    snapshotStore.update(getServiceId(), instances);
+                    return instances;
+                });
+    }
+}
@@ -0,0 +1,283 @@
+package com.servicio.reserva.gateway.infraestructure.metrics;
+
+import com.servicio.reserva.gateway.infraestructure.accesslog.AccessLog;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Mide cada petición desde antes de Spring Security hasta el último byte de la respuesta, tanto en las rutas
+ * del Gateway como en los endpoints del BFF.
+ * <p>
+ * Métricas por ruta (id de la ruta, patrón del endpoint del BFF o {@code none}), con histograma de 50µs a 10s
+ * para calcular percentiles en Prometheus ({@code histogram_quantile}):
+ * <ul>
+ *     <li>{@code gateway.request.duration}: tiempo total.</li>
+ *     <li>{@code gateway.request.phase{phase=jwt|lb|upstream|overhead}}: validación del JWT, elección de instancia,
+ *     espera al servicio hasta sus cabeceras y lo que añade el Gateway hasta enviar las cabeceras de la respuesta
+ *     (todo menos {@code upstream}).</li>
+ *     <li>{@code gateway.request.bytes} y {@code gateway.response.bytes}: cuerpos sin comprimir.</li>
+ * </ul>
+ * Con {@code serverTimingHeader} los mismos tiempos se devuelven en la cabecera {@code Server-Timing}, y cada
+ * petición terminada se entrega al {@link AccessLog}.
+ * <p>
+ * Una petición que termina con error todavía no tiene estado al medirla: lo pone después el
+ * {@code WebExceptionHandler}. Para el access log se toma el que va a responder ({@link GatewayRejectionException},
+ * {@link ResponseStatusException} o 500), salvo que la respuesta ya estuviera enviada. El estado 0 queda para las
+ * peticiones canceladas antes de responder.
+ */
+public class GatewayTimingWebFilter implements WebFilter, Ordered {
+    public static final String SERVER_TIMING = "Server-Timing";
+    // Por delante de la cadena de Spring Security (-100): la validación del JWT queda dentro de la medida
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+    private static final String NO_ROUTE = "none";
+    // Buckets fijos en lugar de los ~100 de publishPercentileHistogram: 5 timers por ruta siguen siendo pocas series
+    private static final Duration[] BUCKETS = {
+            Duration.ofNanos(50_000), Duration.ofNanos(100_000), Duration.ofNanos(250_000), Duration.ofNanos(500_000),
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5),
+            Duration.ofSeconds(10)
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final boolean serverTimingHeader;
+    private final AccessLog accessLog;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    public GatewayTimingWebFilter(MeterRegistry meterRegistry, boolean serverTimingHeader, AccessLog accessLog) {
+        this.meterRegistry = meterRegistry;
+        this.serverTimingHeader = serverTimingHeader;
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Measurement measurement = new Measurement(System.nanoTime());
+        ServerHttpResponse response = new CountingResponse(exchange.getResponse(), measurement.responseBytes);
+        response.beforeCommit(() -> {
+            measurement.committedAt = System.nanoTime();
+            if (serverTimingHeader) {
+                response.getHeaders().set(SERVER_TIMING, serverTiming(measurement));
+            }
+            return Mono.empty();
+        });
+        ServerWebExchange measured = exchange.mutate()
+                .request(new CountingRequest(exchange.getRequest(), measurement.requestBytes))
+                .response(response)
+                .build();
+
+        return chain.filter(measured)
+                .doOnError(error -> {
+                    if (!response.isCommitted()) {
+                        measurement.errorStatus = errorStatus(error);
+                    }
+                })
+                .doFinally(signal -> record(measured, measurement))
+                .contextWrite(Context.of(GatewayTimings.CONTEXT_KEY, measurement.timings));
+    }
+
+    private void record(ServerWebExchange exchange, Measurement measurement) {
+        long end = System.nanoTime();
+        GatewayTimings timings = measurement.timings;
+        String routeId = routeId(exchange);
+        RouteMeters routeMeters = meters.computeIfAbsent(routeId, this::routeMeters);
+        long duration = timings.elapsedSince(end);
+
+        routeMeters.total.record(duration, TimeUnit.NANOSECONDS);
+        for (GatewayTimings.Phase phase : GatewayTimings.Phase.values()) {
+            long nanos = timings.nanos(phase);
+            if (nanos > 0) {
+                routeMeters.phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (measurement.committedAt > 0) {
+            routeMeters.overhead.record(measurement.overhead(), TimeUnit.NANOSECONDS);
+        }
+        routeMeters.requestBytes.increment(measurement.requestBytes.get());
+        routeMeters.responseBytes.increment(measurement.responseBytes.get());
+
+        accessLog.append(routeId, exchange.getRequest().getMethod(), status(exchange, measurement), duration,
+                timings.nanos(GatewayTimings.Phase.JWT), timings.nanos(GatewayTimings.Phase.LOAD_BALANCER),
+                timings.nanos(GatewayTimings.Phase.UPSTREAM), measurement.requestBytes.get(),
+                measurement.responseBytes.get(), timings.subject());
+    }
+
+    private static int status(ServerWebExchange exchange, Measurement measurement) {
+        if (measurement.errorStatus > 0) {
+            return measurement.errorStatus;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null) {
+            return status.value();
+        }
+        // Los controladores del BFF que devuelven solo el cuerpo no fijan el estado: el servidor envía 200
+        return measurement.committedAt > 0 ? HttpStatus.OK.value() : 0;
+    }
+
+    private static int errorStatus(Throwable error) {
+        if (error instanceof GatewayRejectionException rejection) {
+            return rejection.getStatus().value();
+        }
+        if (error instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode().value();
+        }
+        return 500;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route != null) {
+            return route.getId();
+        }
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.getPatternString() : NO_ROUTE;
+    }
+
+    private static String serverTiming(Measurement measurement) {
+        GatewayTimings timings = measurement.timings;
+        StringBuilder header = new StringBuilder();
+        for (GatewayTimings.Phase phase : GatewayTimings.Phase.values()) {
+            long nanos = timings.nanos(phase);
+            if (nanos > 0) {
+                appendMetric(header, phase.tag(), nanos);
+            }
+        }
+        appendMetric(header, "overhead", measurement.overhead());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+
+    private RouteMeters routeMeters(String routeId) {
+        Map<GatewayTimings.Phase, Timer> phases = new EnumMap<>(GatewayTimings.Phase.class);
+        for (GatewayTimings.Phase phase : GatewayTimings.Phase.values()) {
+            phases.put(phase, phaseTimer(routeId, phase.tag()));
+        }
+        return new RouteMeters(
+                Timer.builder("gateway.request.duration")
+                        .tag("route", routeId)
+                        .serviceLevelObjectives(BUCKETS)
+                        .register(meterRegistry),
+                phases,
+                phaseTimer(routeId, "overhead"),
+                bytes("gateway.request.bytes", routeId),
+                bytes("gateway.response.bytes", routeId));
+    }
+
+    private Timer phaseTimer(String routeId, String phase) {
+        return Timer.builder("gateway.request.phase")
+                .tag("route", routeId)
+                .tag("phase", phase)
+                .serviceLevelObjectives(BUCKETS)
+                .register(meterRegistry);
+    }
+
+    private Counter bytes(String name, String routeId) {
+        return Counter.builder(name)
+                .baseUnit("bytes")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    private record RouteMeters(Timer total, Map<GatewayTimings.Phase, Timer> phases, Timer overhead,
+                               Counter requestBytes, Counter responseBytes) {
+    }
+
+    private static final class Measurement {
+        final GatewayTimings timings;
+        final AtomicLong requestBytes = new AtomicLong();
+        final AtomicLong responseBytes = new AtomicLong();
+        volatile long committedAt;
+        volatile int errorStatus;
+
+        Measurement(long start) {
+            this.timings = new GatewayTimings(start);
+        }
+
+        long overhead() {
+            return Math.max(0, timings.elapsedSince(committedAt) - timings.nanos(GatewayTimings.Phase.UPSTREAM));
+        }
+    }
+
+    private static final class CountingRequest extends ServerHttpRequestDecorator {
+        private final AtomicLong bytes;
+
+        CountingRequest(ServerHttpRequest delegate, AtomicLong bytes) {
+            super(delegate);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()));
+        }
+    }
+
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+        private final AtomicLong bytes;
+
+        CountingResponse(ServerHttpResponse delegate, AtomicLong bytes) {
+            super(delegate);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            // Un Mono sigue siendo Mono: con él la respuesta calcula Content-Length en lugar de ir por trozos
+            if (body instanceof Mono<? extends DataBuffer> single) {
+                return super.writeWith(single.doOnNext(this::count));
+            }
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            bytes.addAndGet(buffer.readableByteCount());
+        }
+    }
+}
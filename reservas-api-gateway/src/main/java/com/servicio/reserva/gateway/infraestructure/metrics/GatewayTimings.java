@@ -0,0 +1,87 @@
+package com.servicio.reserva.gateway.infraestructure.metrics;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Tiempos de una petición repartidos por fase, para separar lo que tarda el Gateway de lo que tarda el servicio.
+ * <p>
+ * {@link GatewayTimingWebFilter} crea una instancia por petición y la deja en el contexto de Reactor, así que
+ * cualquier paso que se ejecute dentro de la cadena (decoder de JWT, balanceador, llamada al servicio) puede
+ * medirse con {@link #record} sin recibir el exchange.
+ */
+public final class GatewayTimings {
+    static final String CONTEXT_KEY = GatewayTimings.class.getName();
+
+    public enum Phase {
+        JWT("jwt"),
+        LOAD_BALANCER("lb"),
+        UPSTREAM("upstream");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final long start;
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+    private volatile String subject;
+
+    GatewayTimings(long start) {
+        this.start = start;
+    }
+
+    /**
+     * Suma a {@code phase} el tiempo entre la suscripción a {@code source} y su fin (valor, error o cancelación).
+     * Fuera de una petición medida devuelve {@code source} sin cambios.
+     */
+    public static <T> Mono<T> record(Phase phase, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            GatewayTimings timings = from(context);
+            if (timings == null) {
+                return source;
+            }
+            long phaseStart = System.nanoTime();
+            return source.doFinally(signal -> timings.add(phase, System.nanoTime() - phaseStart));
+        });
+    }
+
+    /**
+     * Anota el subject del valor que emite {@code source} (el JWT ya validado) para el access log.
+     */
+    public static <T> Mono<T> recordSubject(Mono<T> source, Function<? super T, String> subject) {
+        return Mono.deferContextual(context -> {
+            GatewayTimings timings = from(context);
+            return timings == null ? source : source.doOnNext(value -> timings.subject = subject.apply(value));
+        });
+    }
+
+    static GatewayTimings from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    void add(Phase phase, long elapsed) {
+        nanos.addAndGet(phase.ordinal(), elapsed);
+    }
+
+    long nanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    String subject() {
+        return subject;
+    }
+
+    long elapsedSince(long now) {
+        return now - start;
+    }
+}
@@ -0,0 +1,194 @@
+package com.servicio.reserva.gateway.infraestructure.routing;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Árbol de prefijos por segmento de ruta: la petición se recorre una vez, segmento a segmento, en lugar de probar
+ * cada {@link PathPattern} por separado. Da los mismos resultados que {@code PathPattern}.
+ * <p>
+ * Se indexan los patrones cuyos segmentos son literales, {@code *}, {@code {var}} o, al final, {@code **} y
+ * {@code {*var}}. El resto (comodines dentro de un segmento, expresiones regulares...) se comprueba con su
+ * {@code PathPattern} en cada búsqueda, igual que las peticiones con rutas irregulares como {@code //}.
+ */
+public class PathTrie<V> {
+    private final Node<V> root = new Node<>();
+    private final List<Entry<V>> entries = new ArrayList<>();
+    private final List<Entry<V>> unindexed = new ArrayList<>();
+
+    /**
+     * @param optionalTrailingSlash acepta también la ruta con una barra final de más, como los predicados
+     *                              {@code Path} del Gateway con {@code matchTrailingSlash}
+     */
+    public void add(String pattern, boolean optionalTrailingSlash, V value) {
+        Entry<V> entry = new Entry<>(PathPatternParser.defaultInstance.parse(pattern), optionalTrailingSlash, value);
+        entries.add(entry);
+        if (!isIndexable(pattern)) {
+            unindexed.add(entry);
+            return;
+        }
+
+        Node<V> node = root;
+        String[] segments = segments(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (isRest(segment) && i == segments.length - 1) {
+                node.rest.add(entry);
+                return;
+            }
+            node = isWildcard(segment)
+                    ? (node.wildcard != null ? node.wildcard : (node.wildcard = new Node<>()))
+                    : node.children.computeIfAbsent(segment, key -> new Node<>());
+        }
+        node.exact.add(entry);
+    }
+
+    /**
+     * Entrega cada valor cuyo patrón casa con {@code path}, sin orden definido.
+     */
+    public void forEachMatch(PathContainer path, Consumer<? super V> action) {
+        List<PathContainer.Element> elements = path.elements();
+        String[] segments = regularSegments(elements);
+        if (segments == null) {
+            entries.forEach(entry -> {
+                if (entry.matches(path)) {
+                    action.accept(entry.value);
+                }
+            });
+            return;
+        }
+
+        boolean trailingSlash = elements.size() > 1 && elements.getLast() instanceof PathContainer.Separator;
+        collect(root, segments, 0, trailingSlash, action);
+        unindexed.forEach(entry -> {
+            if (entry.matches(path)) {
+                action.accept(entry.value);
+            }
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Si el patrón se resuelve solo con el árbol, sin evaluar su {@code PathPattern}.
+     */
+    public static boolean isIndexable(String pattern) {
+        if (!pattern.startsWith("/")) {
+            return false;
+        }
+        if (pattern.equals("/")) {
+            return true;
+        }
+        String[] segments = segments(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean simple = isLiteral(segment) || isWildcard(segment) || (isRest(segment) && i == segments.length - 1);
+            if (!simple) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void collect(Node<V> node, String[] segments, int index, boolean trailingSlash,
+                         Consumer<? super V> action) {
+        for (Entry<V> entry : node.rest) {
+            action.accept(entry.value);
+        }
+        if (index == segments.length) {
+            for (Entry<V> entry : node.exact) {
+                if (!trailingSlash || entry.optionalTrailingSlash) {
+                    action.accept(entry.value);
+                }
+            }
+            return;
+        }
+        Node<V> child = node.children.get(segments[index]);
+        if (child != null) {
+            collect(child, segments, index + 1, trailingSlash, action);
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, segments, index + 1, trailingSlash, action);
+        }
+    }
+
+    /**
+     * Segmentos ya decodificados de una ruta {@code /a/b[/]}; {@code null} si no tiene esa forma.
+     */
+    private static String[] regularSegments(List<PathContainer.Element> elements) {
+        int size = elements.size();
+        if (size == 0 || !(elements.getFirst() instanceof PathContainer.Separator)) {
+            return null;
+        }
+        String[] segments = new String[size / 2];
+        for (int i = 1; i < size; i += 2) {
+            if (!(elements.get(i) instanceof PathContainer.PathSegment segment)) {
+                return null;
+            }
+            segments[i / 2] = segment.valueToMatch();
+            if (i + 1 < size && !(elements.get(i + 1) instanceof PathContainer.Separator)) {
+                return null;
+            }
+        }
+        return segments;
+    }
+
+    private static String[] segments(String pattern) {
+        return pattern.equals("/") ? new String[0] : pattern.substring(1).split("/", -1);
+    }
+
+    private static boolean isLiteral(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            switch (segment.charAt(i)) {
+                case '*', '?', '{', '}', '%', ';' -> {
+                    return false;
+                }
+                default -> {
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWildcard(String segment) {
+        return segment.equals("*") || (segment.length() > 2 && segment.charAt(0) == '{'
+                && segment.charAt(segment.length() - 1) == '}' && isLiteral(segment.substring(1, segment.length() - 1))
+                && segment.indexOf(':') < 0);
+    }
+
+    private static boolean isRest(String segment) {
+        return segment.equals("**") || (segment.startsWith("{*") && segment.endsWith("}")
+                && isLiteral(segment.substring(2, segment.length() - 1)));
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private final List<Entry<V>> exact = new ArrayList<>(1);
+        private final List<Entry<V>> rest = new ArrayList<>(1);
+        private Node<V> wildcard;
+    }
+
+    private record Entry<V>(PathPattern pattern, boolean optionalTrailingSlash, V value) {
+        boolean matches(PathContainer path) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+            List<PathContainer.Element> elements = path.elements();
+            return optionalTrailingSlash && elements.size() > 1
+                    && elements.getLast() instanceof PathContainer.Separator
+                    && pattern.matches(path.subPath(0, elements.size() - 1));
+        }
+    }
+}
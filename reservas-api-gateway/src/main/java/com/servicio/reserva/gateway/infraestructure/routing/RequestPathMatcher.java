@@ -0,0 +1,216 @@
+package com.servicio.reserva.gateway.infraestructure.routing;
+
+import com.servicio.reserva.gateway.infraestructure.config.AuthorizationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compila en un único {@link PathTrie} los predicados {@code Path} de las rutas y las reglas de
+ * {@code gateway.authorization.rules}, y resuelve ambas tablas con un solo recorrido por petición.
+ * <p>
+ * El resultado se guarda en el exchange: la autorización lo calcula y la búsqueda de ruta lo reutiliza.
+ * Las rutas con otros predicados (o patrones que el árbol no indexa) se evalúan aparte, respetando su orden.
+ * Se recompila con cada {@link RefreshRoutesResultEvent}; hasta la primera carga de rutas solo hay reglas.
+ */
+@Slf4j
+public class RequestPathMatcher implements ApplicationListener<RefreshRoutesResultEvent> {
+    public static final String MATCH_ATTR = RequestPathMatcher.class.getName() + ".match";
+    private static final String PATH_PREDICATE = "Path";
+
+    private final List<AuthorizationProperties.Rule> rules;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private volatile Table table;
+
+    public RequestPathMatcher(List<AuthorizationProperties.Rule> rules, RouteDefinitionLocator routeDefinitionLocator) {
+        this.rules = List.copyOf(rules);
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.table = compile(this.rules, null, Map.of());
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess() || !(event.getSource() instanceof RouteLocator routeLocator)) {
+            return;
+        }
+        Mono.zip(routeLocator.getRoutes().collectList(),
+                        routeDefinitionLocator.getRouteDefinitions().collectMap(RouteDefinition::getId))
+                .subscribe(routes -> {
+                            table = compile(rules, routes.getT1(), routes.getT2());
+                            log.debug("Compiled {} path patterns for {} routes", table.trie.size(), routes.getT1().size());
+                        },
+                        error -> log.warn("Could not compile route paths, keeping previous table", error));
+    }
+
+    /**
+     * Ruta y regla de la petición; se calcula la primera vez y se reutiliza en el resto del procesamiento.
+     */
+    public Match match(ServerWebExchange exchange) {
+        Match match = exchange.getAttribute(MATCH_ATTR);
+        if (match == null) {
+            match = table.match(exchange.getRequest().getMethod(),
+                    exchange.getRequest().getPath().pathWithinApplication());
+            exchange.getAttributes().put(MATCH_ATTR, match);
+        }
+        return match;
+    }
+
+    static Table compile(List<AuthorizationProperties.Rule> rules, List<Route> routes,
+                         Map<String, RouteDefinition> definitions) {
+        PathTrie<Target> trie = new PathTrie<>();
+        for (int i = 0; i < rules.size(); i++) {
+            trie.add(rules.get(i).getPath(), false, new RuleTarget(i, rules.get(i)));
+        }
+        if (routes == null) {
+            return new Table(trie, null);
+        }
+
+        List<RouteTarget> unindexed = new ArrayList<>();
+        for (int rank = 0; rank < routes.size(); rank++) {
+            RouteTarget target = new RouteTarget(rank, routes.get(rank));
+            PathPredicate path = pathPredicate(definitions.get(target.route.getId()));
+            if (path == null) {
+                unindexed.add(target);
+            } else {
+                path.patterns.forEach(pattern -> trie.add(pattern, path.matchTrailingSlash, target));
+            }
+        }
+        return new Table(trie, List.copyOf(unindexed));
+    }
+
+    /**
+     * Patrones de la ruta si su único predicado es {@code Path} y todos se pueden indexar; {@code null} si no.
+     */
+    private static PathPredicate pathPredicate(RouteDefinition definition) {
+        if (definition == null || definition.getPredicates().size() != 1) {
+            return null;
+        }
+        PredicateDefinition predicate = definition.getPredicates().getFirst();
+        if (!PATH_PREDICATE.equals(predicate.getName())) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>(predicate.getArgs().values());
+        boolean matchTrailingSlash = true;
+        String flag = predicate.getArgs().get("matchTrailingSlash");
+        if (flag == null && values.size() > 1 && isBoolean(values.getLast())) {
+            flag = values.removeLast();
+        } else if (flag != null) {
+            values.remove(flag);
+        }
+        if (flag != null) {
+            matchTrailingSlash = Boolean.parseBoolean(flag);
+        }
+        if (values.isEmpty() || !values.stream().allMatch(PathTrie::isIndexable)) {
+            return null;
+        }
+        return new PathPredicate(values, matchTrailingSlash);
+    }
+
+    private static boolean isBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value);
+    }
+
+    /**
+     * @param route           ruta indexada de menor orden que casa, si hay
+     * @param rule            primera regla de autorización que casa, si hay
+     * @param unindexedRoutes rutas que hay que probar con su predicado; {@code null} antes de cargar las rutas
+     */
+    public record Match(Route route, int routeRank, AuthorizationProperties.Rule rule,
+                        List<RouteTarget> unindexedRoutes) {
+
+        public boolean routesCompiled() {
+            return unindexedRoutes != null;
+        }
+
+        /**
+         * Rutas a evaluar en orden: las no indexadas anteriores a {@code route}, ella misma y las posteriores.
+         */
+        public List<Route> candidates() {
+            if (unindexedRoutes.isEmpty()) {
+                return route == null ? List.of() : List.of(route);
+            }
+            List<Route> candidates = new ArrayList<>(unindexedRoutes.size() + 1);
+            boolean added = route == null;
+            for (RouteTarget target : unindexedRoutes) {
+                if (!added && target.rank > routeRank) {
+                    candidates.add(route);
+                    added = true;
+                }
+                candidates.add(target.route);
+            }
+            if (!added) {
+                candidates.add(route);
+            }
+            return candidates;
+        }
+    }
+
+    sealed interface Target permits RouteTarget, RuleTarget {
+    }
+
+    /**
+     * @param rank posición de la ruta en el {@code RouteLocator}, que ya las ordena
+     */
+    public record RouteTarget(int rank, Route route) implements Target {
+    }
+
+    record RuleTarget(int index, AuthorizationProperties.Rule rule) implements Target {
+    }
+
+    private record PathPredicate(List<String> patterns, boolean matchTrailingSlash) {
+    }
+
+    record Table(PathTrie<Target> trie, List<RouteTarget> unindexedRoutes) {
+        Match match(HttpMethod method, PathContainer path) {
+            Selection selection = new Selection(method);
+            trie.forEachMatch(path, selection);
+            return new Match(selection.route == null ? null : selection.route.route,
+                    selection.route == null ? -1 : selection.route.rank,
+                    selection.rule == null ? null : selection.rule.rule, unindexedRoutes);
+        }
+    }
+
+    /**
+     * Se queda con la ruta de menor orden y la primera regla declarada entre todo lo que casa.
+     */
+    private static final class Selection implements Consumer<Target> {
+        private final HttpMethod method;
+        private RouteTarget route;
+        private RuleTarget rule;
+
+        private Selection(HttpMethod method) {
+            this.method = method;
+        }
+
+        @Override
+        public void accept(Target target) {
+            switch (target) {
+                case RouteTarget candidate -> {
+                    if (route == null || candidate.rank < route.rank) {
+                        route = candidate;
+                    }
+                }
+                case RuleTarget candidate -> {
+                    if ((rule == null || candidate.index < rule.index) && candidate.rule.appliesTo(method)) {
+                        rule = candidate;
+                    }
+                }
+            }
+        }
+    }
+}
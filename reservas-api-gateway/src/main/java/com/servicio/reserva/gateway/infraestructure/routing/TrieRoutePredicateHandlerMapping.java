@@ -0,0 +1,61 @@
+package com.servicio.reserva.gateway.infraestructure.routing;
+
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * {@link RoutePredicateHandlerMapping} que toma la ruta de {@link RequestPathMatcher} en lugar de evaluar los
+ * predicados de todas las rutas en orden.
+ * <p>
+ * Solo se evalúa el predicado de la ruta elegida (para que deje las variables de la URI en el exchange, como
+ * haría el Gateway) y los de las rutas que el árbol no indexa.
+ */
+public class TrieRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+    private final RequestPathMatcher matcher;
+
+    public TrieRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                            GlobalCorsProperties globalCorsProperties, Environment environment,
+                                            RequestPathMatcher matcher) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.matcher = matcher;
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        RequestPathMatcher.Match match = matcher.match(exchange);
+        if (!match.routesCompiled()) {
+            return super.lookupRoute(exchange);
+        }
+
+        List<Route> candidates = match.candidates();
+        if (candidates.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(candidates)
+                .concatMap(route -> Mono.just(route)
+                        .filterWhen(candidate -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, candidate.getId());
+                            return candidate.getPredicate().apply(exchange);
+                        })
+                        .onErrorResume(e -> {
+                            logger.error("Error applying predicate for route: " + route.getId(), e);
+                            return Mono.empty();
+                        }))
+                .next()
+                .map(route -> {
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+}
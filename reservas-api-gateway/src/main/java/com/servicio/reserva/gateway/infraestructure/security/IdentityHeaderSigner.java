@@ -0,0 +1,127 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Firma y verifica las cabeceras de identidad que el Gateway envía a los servicios internos en lugar del JWT.
+ * <p>
+ * Cabeceras: {@code X-Gateway-Subject}, {@code X-Gateway-Roles} (separados por comas),
+ * {@code X-Gateway-Expires} (segundos epoch) y {@code X-Gateway-Signature} ({@code <kid>:<firma>}), donde la firma es
+ * HMAC-SHA256 en Base64 URL de {@code subject \n roles \n expires}. Verificar cuesta un HMAC, no una firma RSA.
+ * <p>
+ * Firma con la clave activa y verifica con cualquiera de las configuradas, para poder rotarlas sin cortes.
+ */
+public class IdentityHeaderSigner {
+    public static final String SUBJECT = "X-Gateway-Subject";
+    public static final String ROLES = "X-Gateway-Roles";
+    public static final String EXPIRES = "X-Gateway-Expires";
+    public static final String SIGNATURE = "X-Gateway-Signature";
+    public static final List<String> HEADERS = List.of(SUBJECT, ROLES, EXPIRES, SIGNATURE);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final String activeKeyId;
+    private final Map<String, ThreadLocal<Mac>> macs = new HashMap<>();
+
+    /**
+     * @param keys claves por id, en Base64
+     * @throws IllegalStateException si falta la clave activa o alguna es demasiado corta
+     */
+    public IdentityHeaderSigner(String activeKeyId, Map<String, String> keys) {
+        if (activeKeyId == null || !keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Identity header key '" + activeKeyId + "' is not configured");
+        }
+        this.activeKeyId = activeKeyId;
+        keys.forEach((keyId, encoded) -> {
+            byte[] secret = Base64.getDecoder().decode(encoded);
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Identity header key '" + keyId + "' must have at least "
+                        + MIN_KEY_BYTES + " bytes");
+            }
+            SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+            // Mac no es thread-safe y crearlo en cada firma cuesta más que el propio HMAC
+            macs.put(keyId, ThreadLocal.withInitial(() -> newMac(key)));
+        });
+    }
+
+    public Map<String, String> sign(String subject, List<String> roles, Instant expiresAt) {
+        String joinedRoles = String.join(",", roles);
+        String expires = String.valueOf(expiresAt.getEpochSecond());
+        String signature = activeKeyId + ":" + ENCODER.encodeToString(mac(activeKeyId, subject, joinedRoles, expires));
+        return Map.of(SUBJECT, subject, ROLES, joinedRoles, EXPIRES, expires, SIGNATURE, signature);
+    }
+
+    /**
+     * Lo que haría un servicio interno al recibir la petición. Vacío si falta alguna cabecera, la clave no se
+     * conoce, la firma no coincide o ya caducó.
+     */
+    public Optional<Identity> verify(HttpHeaders headers, Instant now) {
+        String subject = headers.getFirst(SUBJECT);
+        String roles = headers.getFirst(ROLES);
+        String expires = headers.getFirst(EXPIRES);
+        String signature = headers.getFirst(SIGNATURE);
+        if (subject == null || roles == null || expires == null || signature == null) {
+            return Optional.empty();
+        }
+
+        int separator = signature.indexOf(':');
+        if (separator < 0 || !macs.containsKey(signature.substring(0, separator))) {
+            return Optional.empty();
+        }
+        byte[] expected = mac(signature.substring(0, separator), subject, roles, expires);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        Instant expiresAt;
+        try {
+            expiresAt = Instant.ofEpochSecond(Long.parseLong(expires));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (!now.isBefore(expiresAt)) {
+            return Optional.empty();
+        }
+        List<String> roleList = roles.isEmpty() ? List.of() : Arrays.asList(roles.split(","));
+        return Optional.of(new Identity(subject, roleList, expiresAt));
+    }
+
+    private byte[] mac(String keyId, String subject, String roles, String expires) {
+        Mac mac = macs.get(keyId).get();
+        return mac.doFinal((subject + "\n" + roles + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    public record Identity(String subject, List<String> roles, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cabeceras de identidad de {@link IdentityHeaderSigner} a partir de un JWT ya verificado: subject, roles del claim
+ * {@code roles} y caducidad (la del JWT, como mucho {@code maxLifetime}).
+ * <p>
+ * Las usan las rutas de {@code gateway.identity.routes} y las llamadas que hace el propio Gateway a los servicios
+ * (dashboard del BFF y revalidación de la cache), para que estos no tengan que aceptar también el JWT.
+ */
+public class IdentityHeaders {
+    private static final String ROLES_CLAIM = "roles";
+
+    private final IdentityHeaderSigner signer;
+    private final Set<String> routes;
+    private final Duration maxLifetime;
+    private final Clock clock;
+
+    /**
+     * @param signer {@code null} con la funcionalidad desactivada
+     */
+    public IdentityHeaders(IdentityHeaderSigner signer, Set<String> routes, Duration maxLifetime) {
+        this.signer = signer;
+        this.routes = routes;
+        this.maxLifetime = maxLifetime;
+        this.clock = Clock.systemUTC();
+    }
+
+    public boolean isEnabled() {
+        return signer != null;
+    }
+
+    public boolean appliesTo(String routeId) {
+        return signer != null && routes.contains(routeId);
+    }
+
+    /**
+     * Sustituye el {@code Authorization} por las cabeceras firmadas; desactivada, no cambia nada.
+     */
+    public void apply(HttpHeaders headers, Jwt token) {
+        if (signer == null) {
+            return;
+        }
+        headers.remove(HttpHeaders.AUTHORIZATION);
+        signer.sign(token.getSubject(), roles(token), expiresAt(token)).forEach(headers::set);
+    }
+
+    private Instant expiresAt(Jwt token) {
+        Instant limit = clock.instant().plus(maxLifetime);
+        Instant expiresAt = token.getExpiresAt();
+        return expiresAt != null && expiresAt.isBefore(limit) ? expiresAt : limit;
+    }
+
+    private static List<String> roles(Jwt token) {
+        List<String> roles = token.getClaimAsStringList(ROLES_CLAIM);
+        return roles != null ? roles : List.of();
+    }
+}
@@ -0,0 +1,25 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Mantiene el Gateway fuera del grupo de readiness hasta que el JWKS inicial está en memoria.
+ */
+@RequiredArgsConstructor
+public class JwkSetHealthIndicator implements HealthIndicator {
+    private final PrefetchingJwkSource jwkSource;
+
+    @Override
+    public Health health() {
+        if (!jwkSource.isLoaded()) {
+            return Health.outOfService().withDetail("keys", 0).build();
+        }
+
+        return Health.up()
+                .withDetail("keys", jwkSource.keyCount())
+                .withDetail("lastRefresh", String.valueOf(jwkSource.getLastRefresh()))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import com.servicio.reserva.gateway.infraestructure.config.AuthorizationProperties;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Aplica la regla de {@code gateway.authorization.rules} que {@link RequestPathMatcher} encuentra para la petición;
+ * sin regla, exige estar autenticado. Los roles se leen del claim {@code roles} del JWT.
+ */
+public class PathAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+    private static final String ROLES_CLAIM = "roles";
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RequestPathMatcher matcher;
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    public PathAuthorizationManager(RequestPathMatcher matcher) {
+        this.matcher = matcher;
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        AuthorizationProperties.Rule rule = matcher.match(context.getExchange()).rule();
+        AuthorizationProperties.Access access = rule == null ? AuthorizationProperties.Access.AUTHENTICATED : rule.getAccess();
+        return switch (access) {
+            case PERMIT_ALL -> Mono.just(GRANTED);
+            case DENY_ALL -> Mono.just(DENIED);
+            case AUTHENTICATED -> authentication
+                    .filter(auth -> !trustResolver.isAnonymous(auth) && auth.isAuthenticated())
+                    .map(auth -> rule == null || rule.getRoles().isEmpty() || hasAnyRole(auth, rule) ? GRANTED : DENIED)
+                    .defaultIfEmpty(DENIED);
+        };
+    }
+
+    private static boolean hasAnyRole(Authentication authentication, AuthorizationProperties.Rule rule) {
+        if (!(authentication instanceof JwtAuthenticationToken token)) {
+            return false;
+        }
+        List<String> roles = token.getToken().getClaimAsStringList(ROLES_CLAIM);
+        return roles != null && roles.stream().anyMatch(rule.getRoles()::contains);
+    }
+}
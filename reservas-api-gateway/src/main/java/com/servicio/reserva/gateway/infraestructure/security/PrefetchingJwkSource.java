@@ -0,0 +1,153 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fuente de claves JWKS que se descarga al arrancar y se refresca en segundo plano.
+ * <p>
+ * Las peticiones nunca esperan a la descarga programada: siempre leen el último JWKS válido.
+ * Solo un {@code kid} desconocido provoca una descarga en línea, como mucho una vez por ventana
+ * de enfriamiento. Si el Auth Server no responde se sigue sirviendo el último JWKS conocido.
+ */
+@Slf4j
+public class PrefetchingJwkSource implements SmartLifecycle {
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration refreshInterval;
+    private final Duration unknownKeyCooldown;
+    private final Duration fetchTimeout;
+    private final Clock clock;
+
+    private final AtomicReference<JWKSet> current = new AtomicReference<>();
+    private final AtomicReference<Instant> lastRefresh = new AtomicReference<>();
+    private final AtomicLong lastOnDemandRefresh = new AtomicLong(Long.MIN_VALUE);
+    private volatile Disposable refreshTask;
+
+    public PrefetchingJwkSource(WebClient webClient, String jwkSetUri, Duration refreshInterval,
+                                Duration unknownKeyCooldown, Duration fetchTimeout) {
+        this(webClient, jwkSetUri, refreshInterval, unknownKeyCooldown, fetchTimeout, Clock.systemUTC());
+    }
+
+    PrefetchingJwkSource(WebClient webClient, String jwkSetUri, Duration refreshInterval,
+                         Duration unknownKeyCooldown, Duration fetchTimeout, Clock clock) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.unknownKeyCooldown = unknownKeyCooldown;
+        this.fetchTimeout = fetchTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * Función de claves para {@code NimbusReactiveJwtDecoder.withJwkSource}.
+     */
+    public Flux<JWK> getKeys(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        JWKSet jwkSet = current.get();
+        if (jwkSet != null) {
+            List<JWK> keys = selector.select(jwkSet);
+            if (!keys.isEmpty()) {
+                return Flux.fromIterable(keys);
+            }
+        }
+
+        return refreshOnUnknownKey()
+                .flatMapIterable(selector::select);
+    }
+
+    public boolean isLoaded() {
+        return current.get() != null;
+    }
+
+    public int keyCount() {
+        JWKSet jwkSet = current.get();
+        return jwkSet == null ? 0 : jwkSet.getKeys().size();
+    }
+
+    public Instant getLastRefresh() {
+        return lastRefresh.get();
+    }
+
+    Mono<JWKSet> refresh() {
+        return webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(fetchTimeout)
+                .handle((body, sink) -> {
+                    try {
+                        sink.next(JWKSet.parse(body));
+                    } catch (ParseException e) {
+                        sink.error(new IllegalStateException("Invalid JWK set from " + jwkSetUri, e));
+                    }
+                })
+                .cast(JWKSet.class)
+                .doOnNext(jwkSet -> {
+                    current.set(jwkSet);
+                    lastRefresh.set(clock.instant());
+                });
+    }
+
+    private Mono<JWKSet> refreshOnUnknownKey() {
+        long now = clock.millis();
+        long last = lastOnDemandRefresh.get();
+        boolean coolingDown = last != Long.MIN_VALUE && now - last < unknownKeyCooldown.toMillis();
+        if (coolingDown || !lastOnDemandRefresh.compareAndSet(last, now)) {
+            return Mono.justOrEmpty(current.get());
+        }
+
+        return refresh()
+                .onErrorResume(e -> {
+                    log.warn("JWK set refresh for unknown key failed, keeping last known keys: {}", e.getMessage());
+                    return Mono.justOrEmpty(current.get());
+                });
+    }
+
+    @Override
+    public void start() {
+        Mono<JWKSet> prefetch = refresh()
+                .doOnError(e -> log.warn("JWK set prefetch from {} failed, retrying: {}", jwkSetUri, e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(500)).maxBackoff(Duration.ofSeconds(30)));
+
+        Flux<JWKSet> scheduled = Flux.interval(refreshInterval, refreshInterval)
+                .concatMap(tick -> refresh()
+                        .onErrorResume(e -> {
+                            log.warn("Scheduled JWK set refresh failed, keeping last known keys: {}", e.getMessage());
+                            return Mono.empty();
+                        }));
+
+        refreshTask = prefetch.thenMany(scheduled).subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+            refreshTask = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refreshTask != null;
+    }
+}
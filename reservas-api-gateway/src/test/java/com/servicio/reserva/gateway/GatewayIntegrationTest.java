@@ -1,52 +1,95 @@
 package com.servicio.reserva.gateway;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import com.github.tomakehurst.wiremock.WireMockServer;
-import com.github.tomakehurst.wiremock.client.WireMock;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 import com.servicio.reserva.gateway.application.dto.requests.LoginRequest;
 import com.servicio.reserva.gateway.application.dto.requests.LogoutRequest;
 import com.servicio.reserva.gateway.application.dto.requests.RefreshTokenRequest;
+import com.servicio.reserva.gateway.infraestructure.config.IdentityHeaderProperties;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.PooledByteBufAllocator;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWebTestClient
+@AutoConfigureObservability(tracing = false)
 @ActiveProfiles("test")
 class GatewayIntegrationTest {
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdentityHeaderProperties identityHeaderProperties;
+
+    @Autowired
+    private RequestPathMatcher requestPathMatcher;
+
+    @Autowired
+    private AdjustableClock clock;
+
+    private static StubUpstream upstream;
     private static WireMockServer wireMockServer;
-    private static RSAKey rsaKey; // Clave para firmar tokens en los tests
 
     @TestConfiguration
     static class TestConfig {
@@ -56,32 +99,59 @@ class GatewayIntegrationTest {
         public WebClient.Builder testWebClientBuilder() {
             return WebClient.builder();
         }
+
+        @Bean
+        public AdjustableClock adjustableClock() {
+            return new AdjustableClock();
+        }
     }
 
-    @BeforeAll
-    static void setUp() throws Exception {
-        // 1. Iniciar WireMock en un puerto aleatorio
-        wireMockServer = new WireMockServer(0);
-        wireMockServer.start();
+    /**
+     * Reloj del sistema que un test puede adelantar para que caduquen las entradas de la cache sin esperar.
+     */
+    static final class AdjustableClock extends Clock {
+        private final AtomicLong offsetMillis = new AtomicLong();
+
+        void advance(Duration duration) {
+            offsetMillis.addAndGet(duration.toMillis());
+        }
 
-        // 2. Generar Par de Claves RSA para simular el Auth Server
-        rsaKey = new RSAKeyGenerator(2048)
-                .keyID("test-key-id")
-                .generate();
+        void reset() {
+            offsetMillis.set(0);
+        }
 
-        // 3. Simular el endpoint JWKS del Auth Server (El Gateway lo llamará al inicio)
-        String jwksResponse = new JWKSet(rsaKey.toPublicJWK()).toString();
+        @Override
+        public long millis() {
+            return System.currentTimeMillis() + offsetMillis.get();
+        }
 
-        wireMockServer.stubFor(WireMock.get(urlEqualTo("/oauth2/jwks"))
-                .willReturn(aResponse()
-                        .withHeader("Content-Type", "application/json")
-                        .withBody(jwksResponse)));
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // WireMock en un puerto aleatorio, con el JWKS del Auth Server simulado (el Gateway lo llamará al inicio)
+        upstream = StubUpstream.start(StubUpstream.defaultOptions());
+        wireMockServer = upstream.wireMock();
     }
 
     @AfterAll
     static void tearDown() {
-        if (wireMockServer != null) {
-            wireMockServer.stop();
+        if (upstream != null) {
+            upstream.stop();
         }
     }
 
@@ -93,20 +163,7 @@ class GatewayIntegrationTest {
 
     // Generador de token JWT
     private String generateValidJwt(List<String> roles) throws Exception {
-        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                .subject("juan@test.com")
-                .issuer("http://localhost:" + wireMockServer.port())
-                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
-                .claim("roles", roles)
-                .build();
-
-        SignedJWT signedJWT = new SignedJWT(
-                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
-                claimsSet
-        );
-
-        signedJWT.sign(new RSASSASigner(rsaKey));
-        return signedJWT.serialize();
+        return upstream.jwt("juan@test.com", roles);
     }
 
     /**
@@ -149,6 +206,742 @@ class GatewayIntegrationTest {
                 .expectBody().json(mockResponseBody);
     }
 
+    /**
+     * Caso 1b: Cache de Respuestas del Catálogo.
+     * <p>
+     * Verifica que las lecturas repetidas del catálogo (`/api/services/**`) se sirvan desde el Gateway:
+     * 1. La primera petición llega al microservicio y la respuesta se guarda (X-Cache: MISS).
+     * 2. La segunda se responde desde la cache sin llegar al microservicio (X-Cache: HIT).
+     * 3. Una petición con `If-None-Match` igual al ETag guardado recibe 304 Not Modified desde el Gateway.
+     */
+    @Test
+    @DisplayName("Cache de Catálogo: HIT tras la primera lectura y 304 con If-None-Match")
+    void testServicesCatalogIsCached() throws Exception {
+        String body = "[{\"id\":1,\"name\":\"Corte de Pelo\"}]";
+        wireMockServer.stubFor(get(urlEqualTo("/api/services/catalog"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "public, max-age=60")
+                        .withHeader("ETag", "\"catalog-v1\"")
+                        .withBody(body)
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        webTestClient.get().uri("/api/services/catalog")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS")
+                .expectBody().json(body);
+
+        webTestClient.get().uri("/api/services/catalog")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"catalog-v1\"")
+                .expectBody().json(body);
+
+        webTestClient.get().uri("/api/services/catalog")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"catalog-v1\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/services/catalog")));
+    }
+
+    /**
+     * Caso 1c: Límite de Concurrencia por Ruta.
+     * <p>
+     * Con el límite de Reportes fijado a 1 (application-test.properties), una segunda petición simultánea
+     * mientras la primera sigue en curso se rechaza al instante con 503, sin llegar al microservicio.
+     */
+    @Test
+    @DisplayName("Concurrencia: por encima del límite de la ruta -> 503 inmediato")
+    void testConcurrencyLimitShedsExcessRequests() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/slow"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"total\":100}")
+                        .withFixedDelay(500)
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        List<Integer> statuses = Flux.range(0, 2)
+                .flatMap(i -> Mono.fromCallable(() -> webTestClient.get()
+                                .uri("/api/reports/slow")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                                .exchange()
+                                .returnResult(String.class)
+                                .getStatus()
+                                .value())
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .delaySubscription(Duration.ofMillis(i * 100L)))
+                .collectList()
+                .block();
+
+        assertThat(statuses).containsExactlyInAnyOrder(200, 503);
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/api/reports/slow")));
+    }
+
+    /**
+     * Caso 1d: Circuit Breaker por Ruta.
+     * <p>
+     * Con el microservicio de Pagos cortando las conexiones, tras los fallos mínimos configurados
+     * (application-test.properties) el circuito se abre y el Gateway responde 503 al instante,
+     * con el formato de error habitual, sin volver a intentar la conexión.
+     */
+    @Test
+    @DisplayName("Circuit Breaker: Pagos caído -> circuito abierto y 503 inmediato")
+    void testRouteCircuitBreakerOpensOnFaults() throws Exception {
+        circuitBreakerRegistry.circuitBreaker("reservas-pagos-service").reset();
+        wireMockServer.stubFor(get(urlEqualTo("/api/payments/fault"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                webTestClient.get().uri("/api/payments/fault")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .exchange()
+                        .expectStatus().is5xxServerError();
+            }
+
+            webTestClient.get().uri("/api/payments/fault")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().exists("Retry-After")
+                    .expectBody()
+                    .jsonPath("$.status").isEqualTo(503)
+                    .jsonPath("$.message").isEqualTo("Service Unavailable");
+
+            wireMockServer.verify(4, getRequestedFor(urlEqualTo("/api/payments/fault")));
+        } finally {
+            circuitBreakerRegistry.circuitBreaker("reservas-pagos-service").reset();
+        }
+    }
+
+    /**
+     * Caso 1e: Hedging en Agenda.
+     * <p>
+     * La primera llamada al microservicio tarda 2 segundos; pasado el retardo de hedging (200 ms en
+     * application-test.properties) el Gateway lanza un segundo intento, que responde al instante y gana.
+     * El segundo intento lleva el plazo que queda al lanzarlo, no el del primero.
+     */
+    @Test
+    @DisplayName("Hedging: respuesta lenta -> gana el segundo intento")
+    void testHedgingWinsOverSlowAttempt() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/availability"))
+                .inScenario("hedging")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("slow-attempt-sent")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"attempt\":\"slow\"}")
+                        .withFixedDelay(2000)
+                        .withStatus(200)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/availability"))
+                .inScenario("hedging")
+                .whenScenarioStateIs("slow-attempt-sent")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"attempt\":\"hedge\"}")
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        double wonBefore = meterRegistry.counter("gateway.hedge.won", "route", "reservas-agenda-service").count();
+
+        long start = System.nanoTime();
+        webTestClient.get().uri("/api/reservations/availability")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"attempt\":\"hedge\"}");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+        assertThat(meterRegistry.counter("gateway.hedge.won", "route", "reservas-agenda-service").count())
+                .isEqualTo(wonBefore + 1);
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/api/reservations/availability")));
+        List<Long> deadlines = wireMockServer.findAll(getRequestedFor(urlEqualTo("/api/reservations/availability")))
+                .stream()
+                .map(request -> Long.parseLong(request.getHeader("X-Request-Timeout")))
+                .sorted()
+                .toList();
+        assertThat(deadlines.get(1) - deadlines.get(0)).isGreaterThanOrEqualTo(150);
+    }
+
+    /**
+     * Caso 1f: Exportaciones Grandes en Streaming.
+     * <p>
+     * Reportes envía una exportación de 64 MB en trozos durante 2 segundos. El Gateway debe reenviarla
+     * trozo a trozo: el cliente recibe datos durante todo ese tiempo (no todos al final), los event loops
+     * no reservan en el heap nada parecido al tamaño del cuerpo y, a mitad de la descarga, la memoria
+     * directa de Netty tampoco ha crecido en esa medida.
+     * <p>
+     * Se usa un cliente Reactor Netty en lugar de WebTestClient porque este guarda una copia del cuerpo.
+     */
+    @Test
+    @DisplayName("Streaming: exportación de 64 MB reenviada por trozos sin acumularse en memoria")
+    void testLargeExportIsStreamed() throws Exception {
+        int size = 64 * 1024 * 1024;
+        byte[] export = new byte[size];
+        Arrays.fill(export, (byte) 'a');
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/export"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/csv")
+                        .withBody(export)
+                        .withChunkedDribbleDelay(32, 2000)
+                        .withStatus(200)));
+        export = null;
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        long allocatedBefore = eventLoopAllocatedBytes();
+        long directBefore = PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory();
+
+        AtomicLong received = new AtomicLong();
+        AtomicLong firstChunk = new AtomicLong();
+        AtomicLong lastChunk = new AtomicLong();
+        AtomicLong directGrowth = new AtomicLong(-1);
+
+        HttpClient.create()
+                .headers(headers -> headers.add(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .get()
+                .uri("http://localhost:" + port + "/api/reports/export")
+                .responseContent()
+                .doOnNext(chunk -> {
+                    long now = System.nanoTime();
+                    firstChunk.compareAndSet(0, now);
+                    lastChunk.set(now);
+                    if (received.addAndGet(chunk.readableBytes()) >= size / 2 && directGrowth.get() < 0) {
+                        directGrowth.set(PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory() - directBefore);
+                    }
+                })
+                .blockLast(Duration.ofSeconds(30));
+        long allocated = eventLoopAllocatedBytes() - allocatedBefore;
+
+        assertThat(received.get()).isEqualTo(size);
+        assertThat(Duration.ofNanos(lastChunk.get() - firstChunk.get())).isGreaterThan(Duration.ofSeconds(1));
+        assertThat(allocated).isLessThan(size / 4);
+        assertThat(directGrowth.get()).isLessThan(size / 4);
+    }
+
+    /**
+     * Bytes reservados en el heap por los event loops de Reactor Netty (Gateway y clientes).
+     * WireMock sirve desde sus propios hilos, así que sus copias del cuerpo no cuentan.
+     */
+    private static long eventLoopAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("reactor-http-"))
+                .mapToLong(thread -> threads.getThreadAllocatedBytes(thread.threadId()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    /**
+     * Caso 1g: Compresión por Ruta.
+     * <p>
+     * En Reportes se comprimen las respuestas de tipos permitidos por encima del tamaño mínimo y llevan
+     * {@code Vary: Accept-Encoding}; las pequeñas y las de rutas sin compresión configurada se envían tal cual.
+     */
+    @Test
+    @DisplayName("Compresión: gzip en Reportes por encima del umbral, no en respuestas pequeñas ni otras rutas")
+    void testPerRouteCompression() throws Exception {
+        String largeCsv = "fecha;servicio;total\n".repeat(500);
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/monthly.csv"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/csv")
+                        .withBody(largeCsv)
+                        .withStatus(200)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/summary"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"total\":100}")
+                        .withStatus(200)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/export"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/csv")
+                        .withBody(largeCsv)
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        // WebTestClient se enlaza al contexto, no al servidor Netty, así que aquí se llama al puerto real
+        io.netty.handler.codec.http.HttpHeaders compressed = responseHeaders("/api/reports/monthly.csv", token);
+        assertThat(compressed.get(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.get(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(responseHeaders("/api/reports/summary", token).contains(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(responseHeaders("/api/users/export", token).contains(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(responseHeaders("/api/users/export", token).contains(HttpHeaders.VARY)).isFalse();
+    }
+
+    private io.netty.handler.codec.http.HttpHeaders responseHeaders(String path, String token) {
+        return HttpClient.create()
+                .headers(headers -> headers
+                        .add(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .add(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .get()
+                .uri("http://localhost:" + port + path)
+                .responseSingle((response, body) -> body.then(Mono.fromSupplier(() -> {
+                    assertThat(response.status().code()).isEqualTo(200);
+                    return response.responseHeaders();
+                })))
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Caso 1h: Desglose de Tiempos por Ruta.
+     * <p>
+     * Una petición autenticada devuelve {@code Server-Timing} con la validación del JWT, la espera al servicio y la
+     * sobrecarga del Gateway, y deja sus histogramas por ruta en {@code /actuator/prometheus}. El login del BFF se mide
+     * igual, con la llamada al Auth Server como upstream. Las métricas solo las ve un JWT con {@code ROLE_MONITORING}.
+     */
+    @Test
+    @DisplayName("Métricas: Desglose de Tiempos y Server-Timing")
+    void testTimingBreakdown() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/timing"))
+                .willReturn(okJson("{\"id\":1}")));
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=metricas%40test.com"))
+                .willReturn(okJson("{\"access_token\":\"fake-jwt\",\"refresh_token\":\"fake-refresh\"}")));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        webTestClient.get().uri("/api/users/timing")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("Server-Timing", value ->
+                        assertThat(value).contains("jwt;dur=", "upstream;dur=", "overhead;dur="));
+
+        webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LoginRequest.builder().email("metricas@test.com").password("12345678").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("Server-Timing", value ->
+                        assertThat(value).contains("upstream;dur=").doesNotContain("jwt;dur="));
+
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateValidJwt(List.of("ROLE_MONITORING")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body)
+                        .contains("gateway_request_duration_seconds_bucket{route=\"reservas-usuarios-service\",le=")
+                        .contains("gateway_request_phase_seconds_count{phase=\"jwt\",route=\"reservas-usuarios-service\"}")
+                        .contains("gateway_request_phase_seconds_count{phase=\"upstream\",route=\"/api/auth/login\"}")
+                        .contains("gateway_response_bytes_total{route=\"reservas-usuarios-service\"}"));
+    }
+
+    /**
+     * Caso 1i: Idempotency-Key en Reservas.
+     * <p>
+     * Dos POST simultáneos con la misma clave llegan una sola vez al servicio de agenda y reciben la misma
+     * respuesta. Un reintento posterior se responde desde el Gateway y la misma clave con otro cuerpo da 422.
+     */
+    @Test
+    @DisplayName("Idempotencia: reintentos con la misma clave comparten la respuesta sin llegar al servicio")
+    void testIdempotentReservationPost() throws Exception {
+        wireMockServer.stubFor(post(urlEqualTo("/api/reservations"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":42,\"status\":\"CONFIRMED\"}")
+                        .withFixedDelay(500)));
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        String reservation = "{\"serviceId\":1,\"slot\":\"2026-10-20T10:00\"}";
+
+        // 1. Dos intentos a la vez: el segundo espera al primero y comparte su respuesta
+        WebClient client = WebClient.create("http://localhost:" + port);
+        Mono<ResponseEntity<String>> attempt = client.post().uri("/api/reservations")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("Idempotency-Key", "reserva-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reservation)
+                .retrieve()
+                .toEntity(String.class);
+        List<ResponseEntity<String>> concurrent = Flux.merge(attempt, attempt).collectList().block(Duration.ofSeconds(10));
+
+        assertThat(concurrent).hasSize(2).allSatisfy(response -> {
+            assertThat(response.getStatusCode().value()).isEqualTo(201);
+            assertThat(response.getBody()).isEqualTo("{\"id\":42,\"status\":\"CONFIRMED\"}");
+        });
+        assertThat(concurrent).anySatisfy(response ->
+                assertThat(response.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true"));
+
+        // 2. Reintento posterior: se repite la respuesta guardada
+        webTestClient.post().uri("/api/reservations")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("Idempotency-Key", "reserva-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(reservation)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Idempotent-Replayed", "true")
+                .expectBody().json("{\"id\":42,\"status\":\"CONFIRMED\"}");
+
+        // 3. Misma clave, otra reserva: conflicto
+        webTestClient.post().uri("/api/reservations")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("Idempotency-Key", "reserva-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"serviceId\":2,\"slot\":\"2026-10-20T11:00\"}")
+                .exchange()
+                .expectStatus().isEqualTo(422);
+
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/api/reservations")));
+        assertThat(meterRegistry.get("gateway.idempotency.requests")
+                .tag("route", "reservas-agenda-service").tag("outcome", "mismatch").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Caso 1j: Cabeceras de identidad firmadas.
+     * <p>
+     * En las rutas internas el servicio no recibe el JWT sino {@code X-Gateway-*} firmadas con HMAC, que verifica
+     * con la clave compartida. Las cabeceras {@code X-Gateway-*} que envía el cliente se descartan.
+     */
+    @Test
+    @DisplayName("Identidad: el servicio recibe cabeceras firmadas en lugar del Authorization")
+    void testSignedIdentityHeaders() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/me"))
+                .willReturn(aResponse().withStatus(200).withBody("{}")));
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        webTestClient.get().uri("/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(IdentityHeaderSigner.ROLES, "ROLE_ADMIN")
+                .exchange()
+                .expectStatus().isOk();
+
+        LoggedRequest received = wireMockServer.findAll(getRequestedFor(urlEqualTo("/api/users/me"))).getFirst();
+        assertThat(received.containsHeader(HttpHeaders.AUTHORIZATION)).isFalse();
+        // Lo que haría el servicio de usuarios con la clave compartida
+        IdentityHeaderSigner downstream = new IdentityHeaderSigner(identityHeaderProperties.getActiveKeyId(),
+                identityHeaderProperties.getKeys());
+        HttpHeaders headers = new HttpHeaders();
+        IdentityHeaderSigner.HEADERS.forEach(name -> headers.addAll(name, received.getHeaders().getHeader(name).values()));
+        assertThat(downstream.verify(headers, Instant.now())).hasValueSatisfying(identity -> {
+            assertThat(identity.subject()).isEqualTo("juan@test.com");
+            assertThat(identity.roles()).containsExactly("ROLE_CLIENTE");
+        });
+    }
+
+    /**
+     * Caso 1k: Autorización por Rol.
+     * <p>
+     * La regla de {@code /api/reports/admin/**} (perfil test) exige {@code ROLE_ADMIN} en el claim {@code roles}:
+     * con otro rol la petición se rechaza con 403 sin llegar al servicio; con él se enruta a Reportes.
+     */
+    @Test
+    @DisplayName("Autorización: la regla con rol rechaza con 403 y deja pasar al rol requerido")
+    void testRoleRuleAuthorization() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/admin/usage"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"users\":3}")));
+
+        webTestClient.get().uri("/api/reports/admin/usage")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateValidJwt(List.of("ROLE_CLIENTE")))
+                .exchange()
+                .expectStatus().isForbidden();
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo("/api/reports/admin/usage")));
+
+        webTestClient.get().uri("/api/reports/admin/usage")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateValidJwt(List.of("ROLE_CLIENTE", "ROLE_ADMIN")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"users\":3}");
+
+        // Ruta y regla salen del mismo árbol, ya compilado con las rutas cargadas
+        RequestPathMatcher.Match match = requestPathMatcher.match(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/api/reports/admin/usage")));
+        assertThat(match.routesCompiled()).isTrue();
+        assertThat(match.route().getId()).isEqualTo("reservas-reportes-service");
+        assertThat(match.rule().getRoles()).containsExactly("ROLE_ADMIN");
+    }
+
+    /**
+     * Caso 1l: Plazo de la Petición.
+     * <p>
+     * El cliente acorta el plazo con {@code X-Request-Timeout}: el servicio recibe en la misma cabecera lo que queda
+     * y, si no responde a tiempo, la llamada se cancela y el Gateway responde 504 con {@code GatewayErrorResponse},
+     * tanto en una ruta como en una llamada del BFF.
+     */
+    @Test
+    @DisplayName("Plazo: el servicio recibe el tiempo restante y al vencer se responde 504")
+    void testRequestDeadline() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/budget"))
+                .willReturn(aResponse().withStatus(200).withBody("{}")));
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/slow"))
+                .willReturn(aResponse().withStatus(200).withBody("{}").withFixedDelay(3000)));
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=lento"))
+                .willReturn(aResponse().withStatus(200).withBody("{}").withFixedDelay(3000)));
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+
+        webTestClient.get().uri("/api/users/budget")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("X-Request-Timeout", "4000")
+                .exchange()
+                .expectStatus().isOk();
+        String budget = wireMockServer.findAll(getRequestedFor(urlEqualTo("/api/users/budget")))
+                .getFirst().getHeader("X-Request-Timeout");
+        assertThat(Long.parseLong(budget)).isBetween(1L, 4000L);
+
+        long start = System.nanoTime();
+        webTestClient.get().uri("/api/users/slow")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("X-Request-Timeout", "300")
+                .exchange()
+                .expectStatus().isEqualTo(504)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(504)
+                .jsonPath("$.errors.error").isEqualTo("Deadline exceeded");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(2000));
+
+        webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Request-Timeout", "300")
+                .bodyValue(LoginRequest.builder().email("lento@test.com").password("12345678").build())
+                .exchange()
+                .expectStatus().isEqualTo(504);
+        wireMockServer.verify(postRequestedFor(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=lento"))
+                .withHeader("X-Request-Timeout", matching("\\d+")));
+
+        assertThat(meterRegistry.get("gateway.deadline.exceeded")
+                .tag("route", "reservas-usuarios-service").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Caso 1m: Reintentos en Usuarios.
+     * <p>
+     * Un 503 puntual del servicio en un GET se reintenta y el cliente recibe la respuesta del segundo intento;
+     * un POST con la misma respuesta no se repite, porque el servicio ya lo ha recibido.
+     */
+    @Test
+    @DisplayName("Reintentos: GET con 503 puntual -> 200 del reintento; POST sin reintento")
+    void testRetryIdempotentRequests() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/flaky"))
+                .inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("first-attempt-failed")
+                .willReturn(aResponse().withStatus(503).withBody("{\"attempt\":\"first\"}")));
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/flaky"))
+                .inScenario("retry")
+                .whenScenarioStateIs("first-attempt-failed")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"attempt\":\"retry\"}")
+                        .withStatus(200)));
+        wireMockServer.stubFor(post(urlEqualTo("/api/users/flaky"))
+                .willReturn(aResponse().withStatus(503)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        double attemptsBefore = meterRegistry.counter("gateway.retry.attempts", "route", "reservas-usuarios-service").count();
+
+        webTestClient.get().uri("/api/users/flaky")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"attempt\":\"retry\"}");
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/api/users/flaky")));
+
+        webTestClient.post().uri("/api/users/flaky")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"juan\"}")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/api/users/flaky")));
+
+        assertThat(meterRegistry.counter("gateway.retry.attempts", "route", "reservas-usuarios-service").count())
+                .isEqualTo(attemptsBefore + 1);
+    }
+
+    /**
+     * Caso 1n: Revalidación de Variantes de la Cache.
+     * <p>
+     * Una entrada con {@code Vary: Accept-Language} caducada (el reloj de la cache se adelanta más allá de su
+     * {@code max-age}) se sirve (X-Cache: STALE) mientras se revalida en segundo plano. La revalidación pide la misma
+     * variante (mismo Accept-Language), y la entrada renovada sigue teniendo el contenido de esa variante y no el de
+     * la variante por defecto. Como cualquier llamada del Gateway, la revalidación lleva su plazo en la cabecera y,
+     * como la ruta firma la identidad, las cabeceras firmadas del usuario en lugar de su JWT.
+     */
+    @Test
+    @DisplayName("Cache: la revalidación en segundo plano conserva la variante de Vary")
+    void testStaleRevalidationKeepsVariant() throws Exception {
+        String path = "/api/services/greeting";
+        wireMockServer.stubFor(get(urlEqualTo(path))
+                .atPriority(1)
+                .withHeader(HttpHeaders.ACCEPT_LANGUAGE, equalTo("en"))
+                .willReturn(okJson("{\"greeting\":\"hello\"}")
+                        .withHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                        .withHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=30")));
+        wireMockServer.stubFor(get(urlEqualTo(path))
+                .atPriority(2)
+                .willReturn(okJson("{\"greeting\":\"hola\"}")
+                        .withHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                        .withHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=1, stale-while-revalidate=30")));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        WebTestClient.RequestHeadersSpec<?> english = webTestClient.get().uri(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en");
+        double revalidations = revalidations("reservas-servicios-service");
+
+        english.exchange()
+                .expectHeader().valueEquals("X-Cache", "MISS")
+                .expectBody().json("{\"greeting\":\"hello\"}");
+        clock.advance(Duration.ofSeconds(2));
+        try {
+            english.exchange()
+                    .expectHeader().valueEquals("X-Cache", "STALE")
+                    .expectBody().json("{\"greeting\":\"hello\"}");
+            awaitRevalidations("reservas-servicios-service", revalidations + 1);
+
+            english.exchange()
+                    .expectHeader().valueEquals("X-Cache", "HIT")
+                    .expectBody().json("{\"greeting\":\"hello\"}");
+        } finally {
+            clock.reset();
+        }
+
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo(path))
+                .withHeader(HttpHeaders.ACCEPT_LANGUAGE, equalTo("en")));
+        wireMockServer.verify(getRequestedFor(urlEqualTo(path))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, matching(".+"))
+                .withHeader("X-Request-Timeout", matching("\\d+"))
+                .withHeader(IdentityHeaderSigner.SUBJECT, equalTo("juan@test.com"))
+                .withHeader(HttpHeaders.AUTHORIZATION, absent()));
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo(path))
+                .withoutHeader(HttpHeaders.ACCEPT_LANGUAGE));
+    }
+
+    private double revalidations(String routeId) {
+        return meterRegistry.counter("gateway.response.cache.revalidations", "route", routeId, "outcome", "completed")
+                .count();
+    }
+
+    /**
+     * Espera a que terminen las revalidaciones en segundo plano (la entrada ya está sustituida), no un tiempo fijo.
+     */
+    private void awaitRevalidations(String routeId, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (revalidations(routeId) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(revalidations(routeId)).isEqualTo(expected);
+    }
+
+    /**
+     * Caso 1o: Hedging con Respuestas Grandes.
+     * <p>
+     * En una ruta con hedging la respuesta ganadora se envía en streaming, como en el resto de rutas: un cuerpo de
+     * 2 MB llega completo al cliente, tanto si gana el primer intento como si gana el segundo.
+     */
+    @Test
+    @DisplayName("Hedging: respuestas grandes en streaming, sin límite de tamaño")
+    void testHedgingStreamsLargeResponses() throws Exception {
+        String body = "x".repeat(2 * 1024 * 1024);
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/availability/large"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(body)
+                        .withStatus(200)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/availability/large-slow"))
+                .inScenario("hedging-large")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("slow-attempt-sent")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(body)
+                        .withFixedDelay(2000)
+                        .withStatus(200)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/availability/large-slow"))
+                .inScenario("hedging-large")
+                .whenScenarioStateIs("slow-attempt-sent")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(body)
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        WebTestClient client = webTestClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build();
+
+        for (String path : List.of("/api/reservations/availability/large", "/api/reservations/availability/large-slow")) {
+            byte[] received = client.get().uri(path)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(byte[].class)
+                    .returnResult()
+                    .getResponseBody();
+            assertThat(received).hasSize(body.length());
+        }
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/api/reservations/availability/large-slow")));
+    }
+
+    /**
+     * Caso 1p: Compresión en Streaming.
+     * <p>
+     * Una exportación de Reportes que el servicio envía por trozos llega comprimida también por trozos: el cliente
+     * recibe datos antes de que el servicio termine, la respuesta lleva {@code Vary: Accept-Encoding} y el cuerpo
+     * descomprimido es el original.
+     */
+    @Test
+    @DisplayName("Compresión: exportación en streaming comprimida por trozos y con Vary: Accept-Encoding")
+    void testCompressedStreamingResponse() throws Exception {
+        String csv = "fecha;servicio;total\n".repeat(10_000);
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/stream.csv"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/csv")
+                        .withBody(csv)
+                        .withChunkedDribbleDelay(16, 1000)
+                        .withStatus(200)));
+
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        AtomicLong firstChunk = new AtomicLong();
+        AtomicLong lastChunk = new AtomicLong();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+
+        io.netty.handler.codec.http.HttpHeaders headers = HttpClient.create()
+                .headers(h -> h
+                        .add(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .add(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .get()
+                .uri("http://localhost:" + port + "/api/reports/stream.csv")
+                .response((response, body) -> body.asByteArray()
+                        .doOnNext(chunk -> {
+                            long now = System.nanoTime();
+                            firstChunk.compareAndSet(0, now);
+                            lastChunk.set(now);
+                            gzip.writeBytes(chunk);
+                        })
+                        .then(Mono.just(response.responseHeaders())))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertThat(headers.get(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.get(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(Duration.ofNanos(lastChunk.get() - firstChunk.get())).isGreaterThan(Duration.ofMillis(500));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+        }
+    }
+
     /**
      * Caso 2: Seguridad - Petición Sin Token.
      * <p>
@@ -285,6 +1078,44 @@ class GatewayIntegrationTest {
                 .jsonPath("$.expires_in").isEqualTo(899);
     }
 
+    /**
+     * Caso 5b: Flujo BFF - Refrescos Concurrentes con el Mismo Token.
+     * <p>
+     * Verifica que varias peticiones simultáneas a `/api/auth/refresh` con el mismo refresh_token
+     * (varias pestañas abiertas) generen una única llamada a `/oauth2/token` y compartan su resultado.
+     */
+    @Test
+    @DisplayName("BFF Refresh: Peticiones concurrentes se agrupan en una sola llamada")
+    void testBffRefreshCoalescesConcurrentCalls() {
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("refresh_token=shared-refresh-token"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"access_token\":\"shared-jwt\", \"refresh_token\":\"rotated-refresh\",\"token_type\":\"Bearer\",\"expires_in\":899}")
+                        .withFixedDelay(300)
+                        .withStatus(200)));
+
+        RefreshTokenRequest request = RefreshTokenRequest.builder()
+                .refresh_token("shared-refresh-token")
+                .build();
+
+        Flux.range(0, 5)
+                .flatMap(i -> Mono.fromRunnable(() -> webTestClient.post()
+                        .uri("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody()
+                        .jsonPath("$.access_token").isEqualTo("shared-jwt")
+                        .jsonPath("$.refresh_token").isEqualTo("rotated-refresh"))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .blockLast();
+
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("refresh_token=shared-refresh-token")));
+    }
+
     /**
      * Caso 6: Manejo de Errores - Servicio No Disponible.
      * <p>
@@ -325,6 +1156,45 @@ class GatewayIntegrationTest {
                 .jsonPath("$.message").isEqualTo("Service Unavailable");
     }
 
+    /**
+     * Caso 6b: Circuit Breaker del BFF.
+     * <p>
+     * Si el Auth Server corta las conexiones, el login responde 503 con el formato de error del Gateway;
+     * abierto el circuito, las siguientes peticiones se rechazan sin llamar al Auth Server.
+     */
+    @Test
+    @DisplayName("BFF Login: Auth Server caído -> 503 y circuito abierto")
+    void testBffCircuitBreakerOpensOnFaults() {
+        circuitBreakerRegistry.circuitBreaker("bff-auth").reset();
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=caido%40test.com"))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("caido@test.com")
+                .password("12345678")
+                .build();
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                webTestClient.post()
+                        .uri("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(loginRequest)
+                        .exchange()
+                        .expectStatus().isEqualTo(503)
+                        .expectBody()
+                        .jsonPath("$.status").isEqualTo(503)
+                        .jsonPath("$.message").isEqualTo("Service Unavailable");
+            }
+
+            wireMockServer.verify(3, postRequestedFor(urlEqualTo("/oauth2/token"))
+                    .withRequestBody(containing("username=caido%40test.com")));
+        } finally {
+            circuitBreakerRegistry.circuitBreaker("bff-auth").reset();
+        }
+    }
+
     /**
      * Caso 7: Flujo BFF - Logout Exitoso.
      * <p>
@@ -360,4 +1230,170 @@ class GatewayIntegrationTest {
                 .exchange()
                 .expectStatus().isOk();
     }
+
+    /**
+     * Caso 7b: Limitación de tasa del login por email.
+     * <p>
+     * Superado el límite de intentos para un mismo email, el Gateway responde 429 con {@code Retry-After}
+     * y el formato de error habitual, sin llegar a llamar al Auth Server.
+     */
+    @Test
+    @DisplayName("BFF Login: Demasiados intentos para un email -> 429 con Retry-After")
+    void testBffLoginRateLimitedByEmail() {
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=limite%40test.com"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"access_token\":\"fake-jwt\"}")
+                        .withStatus(200)));
+
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("limite@test.com")
+                .password("12345678")
+                .build();
+
+        // application.properties: bff-login-email admite 5 intentos por minuto
+        for (int i = 0; i < 5; i++) {
+            webTestClient.post()
+                    .uri("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(loginRequest)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        webTestClient.post()
+                .uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists("Retry-After")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(429)
+                .jsonPath("$.message").isEqualTo("Too Many Requests");
+
+        wireMockServer.verify(5, postRequestedFor(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=limite%40test.com")));
+    }
+
+    /**
+     * Caso 7c: Rechazos del Gateway en el Access Log.
+     * <p>
+     * El 429 del límite de tasa lo escribe el manejador de errores después de los filtros: el access log lo registra
+     * con su estado y no como una petición cancelada (estado 0), igual que los 200 del controlador, que no fija el
+     * estado.
+     */
+    @Test
+    @DisplayName("Access Log: un 429 del propio Gateway se registra como 4xx")
+    void testRejectionIsLoggedWithStatus() throws Exception {
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .withRequestBody(containing("username=acceso%40test.com"))
+                .willReturn(okJson("{\"access_token\":\"fake-jwt\"}")));
+        LoginRequest loginRequest = LoginRequest.builder()
+                .email("acceso@test.com")
+                .password("12345678")
+                .build();
+
+        Logger accessLogger = (Logger) LoggerFactory.getLogger("gateway.access");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        accessLogger.addAppender(appender);
+        try {
+            for (int i = 0; i < 6; i++) {
+                webTestClient.post()
+                        .uri("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(loginRequest)
+                        .exchange()
+                        .expectStatus().isEqualTo(i < 5 ? 200 : 429);
+            }
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (loginStatuses(appender).size() < 6 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(loginStatuses(appender)).containsExactly("200", "200", "200", "200", "200", "429");
+        } finally {
+            accessLogger.detachAppender(appender);
+        }
+    }
+
+    private static List<String> loginStatuses(ListAppender<ILoggingEvent> appender) {
+        return List.copyOf(appender.list).stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .filter(line -> line.contains("\"route\":\"/api/auth/login\""))
+                .map(line -> line.replaceAll(".*\"status\":(\\d+).*", "$1"))
+                .toList();
+    }
+
+    /**
+     * Caso 8: Flujo BFF - Dashboard Agregado.
+     * <p>
+     * {@code GET /api/dashboard} pide en paralelo el perfil, el catálogo y las próximas reservas y devuelve las tres
+     * partes en una sola respuesta sin errores. Con {@code gateway.identity.enabled} las llamadas llevan las cabeceras
+     * de identidad firmadas en lugar del JWT, igual que las rutas.
+     */
+    @Test
+    @DisplayName("BFF Dashboard: Perfil, Catálogo y Reservas en una sola respuesta")
+    void testDashboardAggregatesParts() throws Exception {
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        // El subject se codifica como variable de la URI: la @ del email viaja como %40
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/email/juan%40test.com"))
+                .withHeader(IdentityHeaderSigner.SUBJECT, equalTo("juan@test.com"))
+                .withHeader(HttpHeaders.AUTHORIZATION, absent())
+                .willReturn(okJson("{\"id\":1,\"name\":\"Juan\"}")));
+        wireMockServer.stubFor(get(urlEqualTo("/api/services"))
+                .withHeader(IdentityHeaderSigner.SUBJECT, equalTo("juan@test.com"))
+                .withHeader(HttpHeaders.AUTHORIZATION, absent())
+                .willReturn(okJson("[{\"id\":1,\"name\":\"Corte de Pelo\"}]")));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/upcoming"))
+                .withHeader(IdentityHeaderSigner.SUBJECT, equalTo("juan@test.com"))
+                .withHeader(HttpHeaders.AUTHORIZATION, absent())
+                .willReturn(okJson("[{\"id\":7,\"status\":\"CONFIRMED\"}]")));
+
+        webTestClient.get().uri("/api/dashboard")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.profile.name").isEqualTo("Juan")
+                .jsonPath("$.services[0].name").isEqualTo("Corte de Pelo")
+                .jsonPath("$.reservations[0].id").isEqualTo(7)
+                .jsonPath("$.errors").isEmpty();
+    }
+
+    /**
+     * Caso 8b: Dashboard con Servicios Lentos o Caídos.
+     * <p>
+     * Reservas tarda más que su plazo (300 ms en los tests) y el catálogo devuelve 500: el dashboard responde
+     * a tiempo con el perfil y una marca de error por cada parte que falta.
+     */
+    @Test
+    @DisplayName("BFF Dashboard: Parte lenta o caída -> respuesta parcial con errores por parte")
+    void testDashboardReturnsPartialResults() throws Exception {
+        String token = generateValidJwt(List.of("ROLE_CLIENTE"));
+        wireMockServer.stubFor(get(urlEqualTo("/api/users/email/juan%40test.com"))
+                .willReturn(okJson("{\"id\":1,\"name\":\"Juan\"}")));
+        wireMockServer.stubFor(get(urlEqualTo("/api/services"))
+                .willReturn(serverError()));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reservations/upcoming"))
+                .willReturn(okJson("[]").withFixedDelay(2000)));
+
+        long start = System.nanoTime();
+        webTestClient.get().uri("/api/dashboard")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.profile.name").isEqualTo("Juan")
+                .jsonPath("$.services").isEmpty()
+                .jsonPath("$.reservations").isEmpty()
+                .jsonPath("$.errors.services.error").isEqualTo("upstream_error")
+                .jsonPath("$.errors.services.status").isEqualTo(500)
+                .jsonPath("$.errors.reservations.error").isEqualTo("timeout")
+                .jsonPath("$.errors.profile").doesNotExist();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    }
 }
@@ -0,0 +1,377 @@
+package com.servicio.reserva.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.netty.handler.codec.http.HttpMethod;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+/**
+ * Prueba de carga de extremo a extremo: el Gateway completo contra WireMock, sin Eureka ni Auth Server.
+ * <p>
+ * Se ejecuta aparte de los tests normales: {@code ./mvnw -Ploadtest test}. Cada usuario virtual envía la siguiente
+ * petición al terminar la anterior (bucle cerrado) con una mezcla fija de login, refresh, lecturas del catálogo,
+ * altas de reservas y descargas de informes. La misma mezcla se lanza después directamente contra WireMock para
+ * obtener la sobrecarga que añade el Gateway.
+ * <p>
+ * Parámetros (propiedades de sistema): {@code loadtest.concurrency}, {@code loadtest.duration},
+ * {@code loadtest.warmup}, {@code loadtest.seed} y los umbrales {@code loadtest.min-throughput} (peticiones/s),
+ * {@code loadtest.max-p99}, {@code loadtest.max-p999}, {@code loadtest.max-overhead-p50},
+ * {@code loadtest.max-overhead-p99} y {@code loadtest.max-error-rate}. Las duraciones admiten {@code 30s}, {@code 250ms}...
+ * El resultado se escribe en {@code target/loadtest-result.json}; WireMock comparte JVM y CPU con el Gateway, así que
+ * la sobrecarga medida es una cota superior.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "loadtest"})
+class GatewayLoadTest {
+    private static final int REPORT_SIZE = 64 * 1024;
+    private static final int USERS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static StubUpstream upstream;
+    private static WireMockServer wireMockServer;
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        @Primary
+        public WebClient.Builder testWebClientBuilder() {
+            return WebClient.builder();
+        }
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // Más hilos que los de por defecto: WireMock no debe ser el cuello de botella de la prueba
+        upstream = StubUpstream.start(StubUpstream.defaultOptions().containerThreads(256));
+        wireMockServer = upstream.wireMock();
+
+        String tokenResponse = "{\"access_token\":\"load-jwt\",\"refresh_token\":\"load-refresh\",\"token_type\":\"Bearer\",\"expires_in\":899}";
+        wireMockServer.stubFor(post(urlEqualTo("/oauth2/token"))
+                .willReturn(okJson(tokenResponse)));
+        wireMockServer.stubFor(get(urlPathMatching("/api/services/\\d+"))
+                .willReturn(okJson("{\"id\":1,\"name\":\"Corte de Pelo\",\"price\":15.0,\"duration\":30}")));
+        wireMockServer.stubFor(post(urlEqualTo("/api/reservations"))
+                .willReturn(jsonResponse("{\"id\":1,\"status\":\"CONFIRMED\"}", 201)));
+        wireMockServer.stubFor(get(urlEqualTo("/api/reports/monthly.csv"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/csv")
+                        .withBody("fecha;servicio;total\n".repeat(REPORT_SIZE / 21))
+                        .withStatus(200)));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (upstream != null) {
+            upstream.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("wiremock.server.port", wireMockServer::port);
+    }
+
+    @Test
+    @DisplayName("Carga: mezcla realista dentro de los umbrales")
+    void realisticMixWithinThresholds() throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(upstream.jwt("cliente" + i + "@test.com", List.of("ROLE_CLIENTE")));
+        }
+        String basicAuth = "Basic " + Base64.getEncoder().encodeToString("gateway-test:secret-test".getBytes(StandardCharsets.UTF_8));
+        List<Scenario> gatewayMix = mix(tokens, null);
+        List<Scenario> directMix = mix(tokens, basicAuth);
+
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(settings.concurrency())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections).responseTimeout(Duration.ofSeconds(10));
+        String gatewayUrl = "http://localhost:" + port;
+        String directUrl = "http://localhost:" + wireMockServer.port();
+
+        try {
+            run(client, gatewayUrl, gatewayMix, settings, settings.warmup());
+            run(client, directUrl, directMix, settings, settings.warmup());
+
+            Result direct = run(client, directUrl, directMix, settings, settings.duration());
+            Result gateway = run(client, gatewayUrl, gatewayMix, settings, settings.duration());
+
+            report(settings, gateway, direct);
+            assertThresholds(settings, gateway, direct);
+        } finally {
+            connections.dispose();
+        }
+    }
+
+    /**
+     * Mezcla de peticiones, con el peso de cada una. {@code basicAuth == null}: a través del Gateway;
+     * si no, la petición equivalente directamente al servicio (el login y el refresh van a {@code /oauth2/token}).
+     */
+    private List<Scenario> mix(List<String> tokens, String basicAuth) {
+        boolean direct = basicAuth != null;
+        List<Scenario> scenarios = new ArrayList<>();
+
+        scenarios.add(new Scenario("login", 10, random -> {
+            String email = "cliente" + random.nextInt(10_000) + "@test.com";
+            return direct
+                    ? form("/oauth2/token", basicAuth, "grant_type=password&username=" + email + "&password=password123&scope=openid+read+write")
+                    : json(HttpMethod.POST, "/api/auth/login", null, "{\"email\":\"" + email + "\",\"password\":\"password123\"}");
+        }));
+        scenarios.add(new Scenario("refresh", 10, random -> {
+            String refreshToken = "refresh-" + random.nextLong();
+            return direct
+                    ? form("/oauth2/token", basicAuth, "grant_type=refresh_token&refresh_token=" + refreshToken)
+                    : json(HttpMethod.POST, "/api/auth/refresh", null, "{\"refresh_token\":\"" + refreshToken + "\"}");
+        }));
+        scenarios.add(new Scenario("catalog", 50, random ->
+                json(HttpMethod.GET, "/api/services/" + random.nextInt(1, 201), bearer(tokens, random), null)));
+        scenarios.add(new Scenario("reservation", 20, random ->
+                json(HttpMethod.POST, "/api/reservations", bearer(tokens, random),
+                        "{\"serviceId\":" + random.nextInt(1, 201) + ",\"date\":\"2026-11-02T10:00:00\"}")));
+        scenarios.add(new Scenario("report", 10, random ->
+                json(HttpMethod.GET, "/api/reports/monthly.csv", bearer(tokens, random), null)));
+        return scenarios;
+    }
+
+    private static String bearer(List<String> tokens, SplittableRandom random) {
+        return "Bearer " + tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private static Call json(HttpMethod method, String path, String authorization, String body) {
+        return new Call(method, path, authorization, MediaType.APPLICATION_JSON_VALUE, body);
+    }
+
+    private static Call form(String path, String authorization, String body) {
+        return new Call(HttpMethod.POST, path, authorization, MediaType.APPLICATION_FORM_URLENCODED_VALUE, body);
+    }
+
+    private Result run(HttpClient client, String baseUrl, List<Scenario> scenarios, Settings settings, Duration duration) {
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> latencies.put(scenario.name(), new ConcurrentHistogram(3)));
+        AtomicLong errors = new AtomicLong();
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        Flux.range(0, settings.concurrency())
+                .flatMap(user -> {
+                    // Una secuencia por usuario virtual: la mezcla es la misma en cada ejecución con la misma semilla
+                    SplittableRandom random = new SplittableRandom(settings.seed() + user);
+                    return Mono.defer(() -> {
+                                Scenario scenario = pick(scenarios, totalWeight, random);
+                                Call call = scenario.next().apply(random);
+                                long sent = System.nanoTime();
+                                return send(client, baseUrl, call)
+                                        .doOnNext(status -> {
+                                            latencies.get(scenario.name()).recordValue(System.nanoTime() - sent);
+                                            if (status >= 400) {
+                                                errors.incrementAndGet();
+                                            }
+                                        })
+                                        .onErrorResume(e -> {
+                                            errors.incrementAndGet();
+                                            return Mono.empty();
+                                        });
+                            })
+                            .repeat(() -> System.nanoTime() < deadline);
+                }, settings.concurrency())
+                .blockLast();
+
+        return new Result(latencies, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int totalWeight, SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.getLast();
+    }
+
+    private static Mono<Integer> send(HttpClient client, String baseUrl, Call call) {
+        return client
+                .headers(headers -> {
+                    if (call.authorization() != null) {
+                        headers.add(HttpHeaders.AUTHORIZATION, call.authorization());
+                    }
+                    if (call.body() != null) {
+                        headers.add(HttpHeaders.CONTENT_TYPE, call.contentType());
+                    }
+                })
+                .request(call.method())
+                .uri(baseUrl + call.path())
+                .send(call.body() == null ? Mono.empty() : ByteBufFlux.fromString(Mono.just(call.body())))
+                // El cuerpo se consume entero (y se libera) antes de dar la petición por terminada
+                .response((response, body) -> body.then(Mono.just(response.status().code())))
+                .next();
+    }
+
+    private void report(Settings settings, Result gateway, Result direct) throws Exception {
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("concurrency", settings.concurrency());
+        output.put("durationSeconds", settings.duration().toSeconds());
+        output.put("seed", settings.seed());
+        output.put("gateway", gateway.summary());
+        output.put("direct", direct.summary());
+        output.put("overheadMillis", Map.of(
+                "p50", millis(gateway.total().getValueAtPercentile(50) - direct.total().getValueAtPercentile(50)),
+                "p99", millis(gateway.total().getValueAtPercentile(99) - direct.total().getValueAtPercentile(99)),
+                "p999", millis(gateway.total().getValueAtPercentile(99.9) - direct.total().getValueAtPercentile(99.9))));
+
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(output);
+        Path resultFile = Path.of(System.getProperty("loadtest.result-file", "target/loadtest-result.json"));
+        Files.writeString(resultFile, json);
+        System.out.println("Resultado de la prueba de carga (" + resultFile + "):\n" + json);
+    }
+
+    private static void assertThresholds(Settings settings, Result gateway, Result direct) {
+        Histogram total = gateway.total();
+        Histogram directTotal = direct.total();
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(gateway.errorRate()).as("tasa de errores").isLessThanOrEqualTo(settings.maxErrorRate());
+        settings.minThroughput().ifPresent(min ->
+                softly.assertThat(gateway.throughput()).as("peticiones/s").isGreaterThanOrEqualTo(min));
+        settings.maxP99().ifPresent(max ->
+                softly.assertThat(Duration.ofNanos(total.getValueAtPercentile(99))).as("p99").isLessThanOrEqualTo(max));
+        settings.maxP999().ifPresent(max ->
+                softly.assertThat(Duration.ofNanos(total.getValueAtPercentile(99.9))).as("p999").isLessThanOrEqualTo(max));
+        settings.maxOverheadP50().ifPresent(max ->
+                softly.assertThat(Duration.ofNanos(total.getValueAtPercentile(50) - directTotal.getValueAtPercentile(50)))
+                        .as("sobrecarga p50 del Gateway").isLessThanOrEqualTo(max));
+        settings.maxOverheadP99().ifPresent(max ->
+                softly.assertThat(Duration.ofNanos(total.getValueAtPercentile(99) - directTotal.getValueAtPercentile(99)))
+                        .as("sobrecarga p99 del Gateway").isLessThanOrEqualTo(max));
+        softly.assertAll();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private record Call(HttpMethod method, String path, String authorization, String contentType, String body) {
+    }
+
+    private record Scenario(String name, int weight, Function<SplittableRandom, Call> next) {
+    }
+
+    private record Result(Map<String, Histogram> latencies, long errors, Duration elapsed) {
+
+        Histogram total() {
+            Histogram total = new Histogram(3);
+            latencies.values().forEach(total::add);
+            return total;
+        }
+
+        long requests() {
+            return total().getTotalCount();
+        }
+
+        double throughput() {
+            return requests() / (elapsed.toNanos() / 1e9);
+        }
+
+        double errorRate() {
+            return requests() == 0 ? 1.0 : (double) errors / requests();
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests());
+            summary.put("errors", errors);
+            summary.put("throughput", Math.round(throughput()));
+            summary.put("latencyMillis", percentiles(total()));
+            Map<String, Object> scenarios = new LinkedHashMap<>();
+            latencies.forEach((name, histogram) -> scenarios.put(name, percentiles(histogram)));
+            summary.put("scenarios", scenarios);
+            return summary;
+        }
+
+        private static Map<String, Object> percentiles(Histogram histogram) {
+            Map<String, Object> percentiles = new LinkedHashMap<>();
+            percentiles.put("count", histogram.getTotalCount());
+            percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+            percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+            percentiles.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            percentiles.put("max", millis(histogram.getMaxValue()));
+            return percentiles;
+        }
+    }
+
+    /**
+     * Los umbrales de latencia y throughput dependen de la máquina, así que solo se comprueban si se indican;
+     * la tasa de errores se comprueba siempre.
+     */
+    private record Settings(int concurrency, Duration duration, Duration warmup, long seed,
+                            Optional<Double> minThroughput, Optional<Duration> maxP99, Optional<Duration> maxP999,
+                            Optional<Duration> maxOverheadP50, Optional<Duration> maxOverheadP99, double maxErrorRate) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("loadtest.concurrency", 64),
+                    duration("loadtest.duration").orElse(Duration.ofSeconds(30)),
+                    duration("loadtest.warmup").orElse(Duration.ofSeconds(10)),
+                    Long.getLong("loadtest.seed", 42L),
+                    Optional.ofNullable(System.getProperty("loadtest.min-throughput")).map(Double::parseDouble),
+                    duration("loadtest.max-p99"),
+                    duration("loadtest.max-p999"),
+                    duration("loadtest.max-overhead-p50"),
+                    duration("loadtest.max-overhead-p99"),
+                    Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001")));
+        }
+
+        private static Optional<Duration> duration(String property) {
+            return Optional.ofNullable(System.getProperty(property)).map(DurationStyle::detectAndParse);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.servicio.reserva.gateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ReactorResourceFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reinicio progresivo bajo carga, como lo hace Kubernetes: un balanceador simulado reparte las peticiones entre las
+ * instancias del Gateway cuya readiness responde UP, comprobándola cada {@link #PROBE_PERIOD}. Con dos instancias
+ * recibiendo tráfico se apaga la primera, se arranca una nueva y se apaga la segunda.
+ * <p>
+ * Durante la espera de drenaje la instancia que se apaga ya no está lista pero sigue atendiendo (con
+ * {@code Connection: close}), así que el balanceador tiene tiempo de retirarla antes de que cierre el puerto.
+ * Ninguna petición debe fallar.
+ */
+class GatewayShutdownTest {
+    private static final int USERS = 16;
+    private static final Duration DRAIN_DELAY = Duration.ofMillis(1500);
+    private static final Duration PROBE_PERIOD = Duration.ofMillis(100);
+    private static final String PATH = "/api/payments/rolling";
+
+    private static StubUpstream upstream;
+    private static WireMockServer wireMockServer;
+
+    /**
+     * Cada instancia con sus propios event loops: con los globales de Reactor Netty, la primera que se apaga
+     * los cierra y se lleva por delante el servidor de las demás, que en producción viven en otra JVM.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class IsolatedNettyResources {
+
+        @Bean
+        public ReactorResourceFactory reactorResourceFactory() {
+            ReactorResourceFactory factory = new ReactorResourceFactory();
+            factory.setUseGlobalResources(false);
+            return factory;
+        }
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        upstream = StubUpstream.start(StubUpstream.defaultOptions());
+        wireMockServer = upstream.wireMock();
+        wireMockServer.stubFor(get(urlEqualTo(PATH))
+                .willReturn(okJson("{\"id\":1,\"amount\":50.0}").withFixedDelay(50)));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (upstream != null) {
+            upstream.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Apagado: un reinicio progresivo bajo carga no pierde peticiones")
+    void rollingRestartUnderLoad() throws Exception {
+        String token = upstream.jwt("cliente@test.com", List.of("ROLE_CLIENTE"));
+        ConnectionProvider connections = ConnectionProvider.builder("shutdown-test")
+                .maxConnections(USERS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections).responseTimeout(Duration.ofSeconds(5));
+
+        CopyOnWriteArrayList<Integer> ready = new CopyOnWriteArrayList<>();
+        Map<Integer, AtomicLong> served = new ConcurrentHashMap<>();
+        AtomicLong closing = new AtomicLong();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean loading = new AtomicBoolean(true);
+
+        ConfigurableApplicationContext first = startGateway();
+        ConfigurableApplicationContext second = startGateway();
+        ConfigurableApplicationContext replacement = null;
+        List<Integer> instances = new CopyOnWriteArrayList<>(List.of(port(first), port(second)));
+
+        Disposable prober = Flux.interval(PROBE_PERIOD, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(instances)
+                        .flatMap(port -> probe(HttpClient.newConnection(), port).map(up -> Map.entry(port, up)))
+                        .doOnNext(result -> {
+                            if (result.getValue()) {
+                                ready.addIfAbsent(result.getKey());
+                            } else {
+                                ready.remove(result.getKey());
+                            }
+                        })
+                        .then())
+                .subscribe();
+
+        Mono<Void> user = Mono.defer(() -> call(client, token, ready, served, closing, failures))
+                .repeat(loading::get)
+                .then();
+        CompletableFuture<Void> load = Flux.range(0, USERS)
+                .flatMap(i -> user, USERS)
+                .then()
+                .toFuture();
+
+        try {
+            awaitReady(ready, 2);
+            Thread.sleep(500);
+
+            close(first);
+            replacement = startGateway();
+            instances.add(port(replacement));
+            awaitReady(ready, 2);
+            Thread.sleep(500);
+
+            close(second);
+            Thread.sleep(500);
+        } finally {
+            loading.set(false);
+            load.get(10, TimeUnit.SECONDS);
+            prober.dispose();
+            if (replacement != null) {
+                replacement.close();
+            }
+            connections.dispose();
+        }
+
+        assertThat(failures).as("peticiones fallidas").isEmpty();
+        assertThat(served.keySet()).as("instancias que atendieron tráfico")
+                .containsExactlyInAnyOrder(port(first), port(second), port(replacement));
+        assertThat(closing.get()).as("respuestas con Connection: close durante el drenaje").isPositive();
+        assertThat(first.isActive()).isFalse();
+        assertThat(second.isActive()).isFalse();
+    }
+
+    private static ConfigurableApplicationContext startGateway() {
+        return new SpringApplicationBuilder(ReservasApiGatewayApplication.class, IsolatedNettyResources.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--wiremock.server.port=" + wireMockServer.port(),
+                        "--gateway.shutdown.drain-delay=" + DRAIN_DELAY.toMillis() + "ms");
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * Bloquea hasta que termina la secuencia de apagado (drenaje, peticiones en curso y pools); la carga sigue
+     * mientras tanto en los hilos de Reactor Netty.
+     */
+    private static void close(ConfigurableApplicationContext context) throws Exception {
+        CompletableFuture.runAsync(context::close).get(30, TimeUnit.SECONDS);
+    }
+
+    private static void awaitReady(List<Integer> ready, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (ready.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(PROBE_PERIOD.toMillis());
+        }
+        assertThat(ready).hasSize(expected);
+    }
+
+    private static Mono<Boolean> probe(HttpClient client, int port) {
+        return client.get()
+                .uri("http://localhost:" + port + "/actuator/health/readiness")
+                .responseSingle((response, body) -> Mono.just(response.status().code() == 200))
+                .onErrorReturn(false);
+    }
+
+    private static Mono<Void> call(HttpClient client, String token, List<Integer> ready,
+                                   Map<Integer, AtomicLong> served, AtomicLong closing, Queue<String> failures) {
+        // El prober cambia la lista entre la comprobación y la elección: se elige sobre una copia
+        List<Integer> snapshot = List.copyOf(ready);
+        if (snapshot.isEmpty()) {
+            return Mono.delay(PROBE_PERIOD).then();
+        }
+        int port = snapshot.get(ThreadLocalRandom.current().nextInt(snapshot.size()));
+        return client.headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .get()
+                .uri("http://localhost:" + port + PATH)
+                .responseSingle((response, body) -> body.then(Mono.fromRunnable(() -> {
+                    if (response.status().code() != 200) {
+                        failures.add(port + " -> " + response.status().code());
+                        return;
+                    }
+                    served.computeIfAbsent(port, p -> new AtomicLong()).incrementAndGet();
+                    if ("close".equalsIgnoreCase(response.responseHeaders().get(HttpHeaders.CONNECTION))) {
+                        closing.incrementAndGet();
+                    }
+                })))
+                .onErrorResume(error -> {
+                    failures.add(port + " -> " + error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,90 @@
+package com.servicio.reserva.gateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * WireMock que hace de microservicios y de Auth Server en los tests que arrancan el Gateway completo.
+ * <p>
+ * Publica el JWKS en {@code /oauth2/jwks} (el Gateway lo descarga al arrancar) y firma JWT con la clave privada.
+ */
+final class StubUpstream {
+    private final WireMockServer wireMockServer;
+    private final RSAKey rsaKey;
+
+    private StubUpstream(WireMockServer wireMockServer, RSAKey rsaKey) {
+        this.wireMockServer = wireMockServer;
+        this.rsaKey = rsaKey;
+    }
+
+    /**
+     * gzip desactivado: la compresión de las respuestas la tiene que hacer el Gateway.
+     * Sin chunked, los cuerpos fijos llevan Content-Length como en los servicios reales.
+     */
+    static WireMockConfiguration defaultOptions() {
+        return WireMockConfiguration.options()
+                .dynamicPort()
+                .gzipDisabled(true)
+                .useChunkedTransferEncoding(Options.ChunkedEncodingPolicy.NEVER);
+    }
+
+    static StubUpstream start(WireMockConfiguration options) throws JOSEException {
+        WireMockServer wireMockServer = new WireMockServer(options);
+        wireMockServer.start();
+
+        // Par de claves RSA para simular el Auth Server
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyID("test-key-id")
+                .generate();
+
+        wireMockServer.stubFor(get(urlEqualTo("/oauth2/jwks"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(new JWKSet(rsaKey.toPublicJWK()).toString())));
+
+        return new StubUpstream(wireMockServer, rsaKey);
+    }
+
+    WireMockServer wireMock() {
+        return wireMockServer;
+    }
+
+    String jwt(String subject, List<String> roles) throws JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issuer("http://localhost:" + wireMockServer.port())
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .claim("roles", roles)
+                .build();
+
+        SignedJWT signedJWT = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+                claimsSet
+        );
+
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        return signedJWT.serialize();
+    }
+
+    void stop() {
+        wireMockServer.stop();
+    }
+}
@@ -0,0 +1,63 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayExceptionHandler;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traducción de errores a {@code GatewayErrorResponse} y su serialización a JSON, tal y como llega al cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayExceptionHandlerBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GatewayExceptionHandler handler;
+    private MockServerHttpRequest request;
+    private WebClientResponseException oauth2Error;
+    private WebClientResponseException plainTextError;
+    private GatewayRejectionException rejection;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        handler = new GatewayExceptionHandler(objectMapper);
+        request = MockServerHttpRequest.post("/api/auth/login").build();
+        oauth2Error = WebClientResponseException.create(HttpStatus.UNAUTHORIZED.value(), "Unauthorized", HttpHeaders.EMPTY,
+                "{\"error\":\"invalid_grant\",\"error_description\":\"Bad credentials\"}".getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8);
+        plainTextError = WebClientResponseException.create(HttpStatus.BAD_GATEWAY.value(), "Bad Gateway", HttpHeaders.EMPTY,
+                "upstream connect error".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        rejection = new GatewayRejectionException(HttpStatus.TOO_MANY_REQUESTS, "rate_limited", Duration.ofMillis(1500));
+    }
+
+    @Benchmark
+    public byte[] oauth2ErrorBody() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleWebClientResponseException(oauth2Error, request).getBody());
+    }
+
+    @Benchmark
+    public byte[] nonJsonErrorBody() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleWebClientResponseException(plainTextError, request).getBody());
+    }
+
+    @Benchmark
+    public byte[] gatewayRejection() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleGatewayRejectionException(rejection, request).getBody());
+    }
+}
@@ -0,0 +1,88 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de firmar y verificar las cabeceras de identidad frente a verificar el JWT RS256 que sustituyen.
+ * <p>
+ * Ejecutar con: {@code ./mvnw -Pbenchmark test -Djmh.include=IdentityHeaderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentityHeaderBenchmark {
+
+    private IdentityHeaderSigner signer;
+    private HttpHeaders signedHeaders;
+    private Instant expiresAt;
+    private ReactiveJwtDecoder jwtDecoder;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        signer = new IdentityHeaderSigner("bench", Map.of("bench", Base64.getEncoder().encodeToString(secret)));
+        expiresAt = Instant.now().plusSeconds(3600);
+        signedHeaders = new HttpHeaders();
+        signer.sign("juan@test.com", List.of("ROLE_CLIENTE"), expiresAt).forEach(signedHeaders::set);
+
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("bench-key").generate();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("juan@test.com")
+                .issuer("http://localhost")
+                .expirationTime(Date.from(expiresAt))
+                .claim("roles", List.of("ROLE_CLIENTE"))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(rsaKey));
+        token = jwt.serialize();
+        jwtDecoder = NimbusReactiveJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+    }
+
+    @Benchmark
+    public Map<String, String> sign() {
+        return signer.sign("juan@test.com", List.of("ROLE_CLIENTE"), expiresAt);
+    }
+
+    @Benchmark
+    public Optional<IdentityHeaderSigner.Identity> verify() {
+        return signer.verify(signedHeaders, Instant.now());
+    }
+
+    @Benchmark
+    public Jwt jwtDecode() {
+        return jwtDecoder.decode(token).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IdentityHeaderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.servicio.reserva.gateway.infraestructure.security.CachingReactiveJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el decode de un JWT RS256 con y sin la cache de tokens verificados.
+ * <p>
+ * Ejecutar con: {@code ./mvnw -Pbenchmark test -Djmh.include=JwtDecoderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private ReactiveJwtDecoder uncached;
+    private ReactiveJwtDecoder cached;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("bench-key").generate();
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("juan@test.com")
+                .issuer("http://localhost")
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .claim("roles", List.of("ROLE_CLIENTE"))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(rsaKey));
+        token = jwt.serialize();
+
+        uncached = NimbusReactiveJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+        cached = new CachingReactiveJwtDecoder(uncached, 10_000, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Jwt uncachedDecode() {
+        return uncached.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt cachedDecode() {
+        return cached.decode(token).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtDecoderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.servicio.reserva.gateway.application.dto.requests.LoginRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation de {@link LoginRequest}, que se ejecuta en cada login del BFF antes de llamar al servicio de Auth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginRequestValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private LoginRequest valid;
+    private LoginRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = LoginRequest.builder().email("juan@test.com").password("password123").build();
+        invalid = LoginRequest.builder().email("no-es-un-email").password("corta").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<LoginRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<LoginRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+}
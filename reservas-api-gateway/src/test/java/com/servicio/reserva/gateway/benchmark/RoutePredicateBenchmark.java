@@ -0,0 +1,70 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.PropertiesRouteDefinitionLocator;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de ruta como en {@code RoutePredicateHandlerMapping}: los predicados de las seis rutas de
+ * {@code application.properties} se evalúan en orden hasta el primero que acepta la petición.
+ * <p>
+ * Las rutas se construyen una vez, igual que hace {@code CachingRouteLocator} en el Gateway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutePredicateBenchmark {
+
+    /** Primera ruta, última ruta y una petición que no casa con ninguna (recorre las seis). */
+    @Param({"/api/auth/token", "/api/reports/monthly.csv", "/api/unknown/path"})
+    public String path;
+
+    private List<Route> routes;
+
+    @Setup
+    public void setUp() throws Exception {
+        MutablePropertySources sources = new MutablePropertySources();
+        sources.addFirst(new ResourcePropertySource(new ClassPathResource("application.properties")));
+        GatewayProperties properties = new Binder(ConfigurationPropertySources.from(sources),
+                null, ApplicationConversionService.getSharedInstance())
+                .bind(GatewayProperties.PREFIX, GatewayProperties.class)
+                .orElseThrow(() -> new IllegalStateException("No hay rutas en application.properties"));
+
+        ConfigurationService configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+                ApplicationConversionService::getSharedInstance, () -> null);
+        routes = new RouteDefinitionRouteLocator(new PropertiesRouteDefinitionLocator(properties),
+                List.of(new PathRoutePredicateFactory()), List.of(), properties, configurationService)
+                .getRoutes()
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public Route lookupRoute() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        return Flux.fromIterable(routes)
+                .filterWhen(route -> route.getPredicate().apply(exchange))
+                .next()
+                .block();
+    }
+}
@@ -0,0 +1,134 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.servicio.reserva.gateway.infraestructure.config.AuthorizationProperties;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.PropertiesRouteDefinitionLocator;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de resolver ruta y regla de autorización según crece la tabla de rutas ({@code /api/svc<i>/**}), con las
+ * reglas de {@code application.properties}:
+ * <ul>
+ *     <li>{@code linear}: como antes, los matchers de Spring Security en orden y después los predicados de las
+ *     rutas en orden hasta el primero que casa.</li>
+ *     <li>{@code trie}: {@link RequestPathMatcher} y el predicado de la ruta elegida, como
+ *     {@code TrieRoutePredicateHandlerMapping}.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteTrieBenchmark {
+
+    @Param({"10", "50", "100", "500"})
+    public int routeCount;
+
+    /** Primera ruta, última ruta y una petición que no casa con ninguna. */
+    @Param({"first", "last", "none"})
+    public String target;
+
+    private List<Route> routes;
+    private List<ServerWebExchangeMatcher> securityMatchers;
+    private RequestPathMatcher matcher;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() throws Exception {
+        GatewayProperties properties = new GatewayProperties();
+        List<RouteDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < routeCount; i++) {
+            RouteDefinition definition = new RouteDefinition();
+            definition.setId("svc-" + i);
+            definition.setUri(URI.create("http://localhost:" + (9000 + i)));
+            definition.setPredicates(List.of(new PredicateDefinition("Path=/api/svc" + i + "/**")));
+            definitions.add(definition);
+        }
+        properties.setRoutes(definitions);
+        PropertiesRouteDefinitionLocator definitionLocator = new PropertiesRouteDefinitionLocator(properties);
+
+        ConfigurationService configurationService = new ConfigurationService(new DefaultListableBeanFactory(),
+                ApplicationConversionService::getSharedInstance, () -> null);
+        routes = new RouteDefinitionRouteLocator(definitionLocator, List.of(new PathRoutePredicateFactory()),
+                List.of(), properties, configurationService)
+                .getRoutes()
+                .collectList()
+                .block();
+
+        List<AuthorizationProperties.Rule> rules = authorizationRules();
+        securityMatchers = rules.stream()
+                .map(rule -> ServerWebExchangeMatchers.pathMatchers(rule.getPath()))
+                .toList();
+        matcher = new RequestPathMatcher(rules, definitionLocator);
+        matcher.onApplicationEvent(new RefreshRoutesResultEvent((RouteLocator) () -> Flux.fromIterable(routes)));
+
+        String path = switch (target) {
+            case "first" -> "/api/svc0/items/42";
+            case "last" -> "/api/svc" + (routeCount - 1) + "/items/42";
+            default -> "/api/unknown/items/42";
+        };
+        // Un solo exchange: se mide la búsqueda, no la construcción de la petición
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    @Benchmark
+    public Route linear() {
+        return Flux.fromIterable(securityMatchers)
+                .concatMap(securityMatcher -> securityMatcher.matches(exchange))
+                .filter(ServerWebExchangeMatcher.MatchResult::isMatch)
+                .next()
+                .then(Flux.fromIterable(routes)
+                        .filterWhen(route -> route.getPredicate().apply(exchange))
+                        .next())
+                .block();
+    }
+
+    @Benchmark
+    public Route trie() {
+        exchange.getAttributes().remove(RequestPathMatcher.MATCH_ATTR);
+        return Mono.fromSupplier(() -> matcher.match(exchange))
+                .flatMapMany(match -> Flux.fromIterable(match.candidates()))
+                .filterWhen(route -> route.getPredicate().apply(exchange))
+                .next()
+                .block();
+    }
+
+    private static List<AuthorizationProperties.Rule> authorizationRules() throws Exception {
+        MutablePropertySources sources = new MutablePropertySources();
+        sources.addFirst(new ResourcePropertySource(new ClassPathResource("application.properties")));
+        return new Binder(ConfigurationPropertySources.from(sources),
+                null, ApplicationConversionService.getSharedInstance())
+                .bind("gateway.authorization", AuthorizationProperties.class)
+                .orElseThrow(() -> new IllegalStateException("No hay reglas en application.properties"))
+                .getRules();
+    }
+}
@@ -0,0 +1,123 @@
+package com.servicio.reserva.gateway.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.servicio.reserva.gateway.infraestructure.config.AuthorizationProperties;
+import com.servicio.reserva.gateway.infraestructure.config.SecurityConfig;
+import com.servicio.reserva.gateway.infraestructure.routing.RequestPathMatcher;
+import com.servicio.reserva.gateway.infraestructure.security.CachingReactiveJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorrido completo del {@code SecurityWebFilterChain} de {@link SecurityConfig}: emparejado de rutas,
+ * autenticación del Bearer (con la cache de JWT ya caliente) y decisión de autorización.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+    private static final WebFilterChain HANDLER = exchange -> Mono.empty();
+
+    private GenericApplicationContext context;
+    private WebFilterChainProxy filterChain;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID("bench-key").generate();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("juan@test.com")
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .claim("roles", List.of("ROLE_CLIENTE"))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(rsaKey));
+        token = jwt.serialize();
+
+        ReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(
+                NimbusReactiveJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build(), 10_000, new SimpleMeterRegistry());
+
+        // Contexto mínimo: ServerHttpSecurity busca en él el ReactiveJwtDecoder de oauth2ResourceServer
+        context = new GenericApplicationContext();
+        context.registerBean(ReactiveJwtDecoder.class, () -> decoder);
+        context.refresh();
+        ServerHttpSecurity http = new ServerHttpSecurity() {
+            {
+                setApplicationContext(context);
+            }
+        };
+        filterChain = new WebFilterChainProxy(new SecurityConfig().securityWebFilterChain(http, requestPathMatcher()));
+    }
+
+    /**
+     * Reglas de autorización de {@code application.properties}, sin rutas (solo se mide la cadena de seguridad).
+     */
+    private static RequestPathMatcher requestPathMatcher() throws IOException {
+        MutablePropertySources sources = new MutablePropertySources();
+        sources.addFirst(new ResourcePropertySource(new ClassPathResource("application.properties")));
+        AuthorizationProperties properties = new Binder(ConfigurationPropertySources.from(sources),
+                null, ApplicationConversionService.getSharedInstance())
+                .bind("gateway.authorization", AuthorizationProperties.class)
+                .orElseThrow(() -> new IllegalStateException("No hay reglas en application.properties"));
+        return new RequestPathMatcher(properties.getRules(), Flux::empty);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockServerWebExchange publicPath() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/auth/login"));
+        filterChain.filter(exchange, HANDLER).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange authenticatedRoute() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/reservations/42")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        filterChain.filter(exchange, HANDLER).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange anonymousRejected() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/reports/monthly"));
+        filterChain.filter(exchange, HANDLER).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,130 @@
+package com.servicio.reserva.gateway.infraestructure.accesslog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicio.reserva.gateway.infraestructure.config.AccessLogProperties;
+import com.servicio.reserva.gateway.infraestructure.security.TokenHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AccessLogTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Cada registro es una línea JSON con tiempos en ms y el subject como huella")
+    void formatsRecordAsJson() throws Exception {
+        AccessLog accessLog = accessLog(new AccessLogProperties());
+
+        accessLog.append("reservas-agenda-service", HttpMethod.POST, 201, 12_345_678, 1_500_000, 20_000,
+                10_000_000, 120, 64, "juan@test.com");
+        accessLog.drain();
+
+        JsonNode line = objectMapper.readTree(lines.poll());
+        assertThat(line.get("route").asText()).isEqualTo("reservas-agenda-service");
+        assertThat(line.get("method").asText()).isEqualTo("POST");
+        assertThat(line.get("status").asInt()).isEqualTo(201);
+        assertThat(line.get("duration_ms").asDouble()).isEqualTo(12.345);
+        assertThat(line.get("lb_ms").asDouble()).isEqualTo(0.02);
+        assertThat(line.get("upstream_ms").asDouble()).isEqualTo(10.0);
+        assertThat(line.get("req_bytes").asLong()).isEqualTo(120);
+        assertThat(line.get("subject").asText())
+                .isEqualTo(TokenHasher.sha256("juan@test.com").substring(0, 16))
+                .doesNotContain("juan");
+    }
+
+    @Test
+    @DisplayName("Con el buffer lleno los registros se descartan y se cuentan")
+    void dropsWhenFull() {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setBufferSize(4);
+        AccessLog accessLog = accessLog(properties);
+
+        int accepted = 0;
+        for (int i = 0; i < 6; i++) {
+            accepted += append(accessLog, "reservas-agenda-service", 200) ? 1 : 0;
+        }
+
+        assertThat(accepted).isEqualTo(4);
+        assertThat(outcome("dropped")).isEqualTo(2);
+        assertThat(accessLog.drain()).isEqualTo(4);
+        assertThat(append(accessLog, "reservas-agenda-service", 200)).isTrue();
+    }
+
+    @Test
+    @DisplayName("El muestreo se configura por ruta y clase de estado")
+    void samplesByRouteAndStatusClass() {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setSampling(Map.of("2xx", 1.0));
+        properties.setRoutes(Map.of("reservas-servicios-service", Map.of("2xx", 0.0)));
+        AccessLog accessLog = accessLog(properties);
+
+        assertThat(append(accessLog, "reservas-servicios-service", 200)).isFalse();
+        assertThat(append(accessLog, "reservas-servicios-service", 503)).isTrue();
+        assertThat(append(accessLog, "reservas-agenda-service", 200)).isTrue();
+        assertThat(outcome("sampled-out")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Con varios productores y el escritor en marcha no se pierde ni se duplica ningún registro")
+    void concurrentProducers() throws Exception {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setBufferSize(256);
+        properties.setIdleWait(Duration.ofMillis(1));
+        AccessLog accessLog = accessLog(properties);
+        accessLog.start();
+
+        int threads = 4;
+        int perThread = 5_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        if (append(accessLog, "reservas-agenda-service", 200)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> lines.size() == accepted.get());
+        accessLog.stop();
+        assertThat(accepted.get() + outcome("dropped")).isEqualTo(threads * perThread);
+        assertThat(outcome("written")).isEqualTo(accepted.get());
+        assertThat(List.copyOf(lines)).allSatisfy(line -> assertThat(line).startsWith("{\"ts\":").endsWith("}"));
+    }
+
+    private AccessLog accessLog(AccessLogProperties properties) {
+        return new AccessLog(properties, meterRegistry, lines::add);
+    }
+
+    private static boolean append(AccessLog accessLog, String route, int status) {
+        return accessLog.append(route, HttpMethod.GET, status, 1_000_000, 0, 0, 500_000, 0, 10, null);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("gateway.access-log.records").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.servicio.reserva.gateway.infraestructure.bff;
+
+import com.servicio.reserva.gateway.infraestructure.config.RetryProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.retry.RetryPolicy;
+import com.servicio.reserva.gateway.infraestructure.loadbalancer.PeakEwmaLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.InstanceOfAssertFactories.COLLECTION;
+
+class RetryExchangeFilterFunctionTest {
+    private static final URI TOKEN_URI = URI.create("lb://reservas-auth-service/oauth2/token");
+    private static final URI INSTANCE_URI = URI.create("http://10.0.0.1:9000/oauth2/token");
+
+    private final List<ClientRequest> sent = new ArrayList<>();
+
+    private static RetryExchangeFilterFunction filter() {
+        RetryProperties.RouteRetry config = new RetryProperties.RouteRetry();
+        config.setFirstBackoff(Duration.ofMillis(1));
+        return new RetryExchangeFilterFunction(new RetryPolicy("bff-auth", config, new SimpleMeterRegistry()));
+    }
+
+    private static WebClientRequestException failure(Throwable cause) {
+        return new WebClientRequestException(cause, HttpMethod.POST, INSTANCE_URI, new HttpHeaders());
+    }
+
+    @Test
+    @DisplayName("Un POST que no pudo conectar se reintenta evitando la instancia que falló")
+    void retriesConnectFailuresOnAnotherInstance() {
+        ClientResponse response = filter().filter(ClientRequest.create(HttpMethod.POST, TOKEN_URI).build(), request -> {
+            sent.add(request);
+            return sent.size() == 1
+                    ? Mono.error(failure(new ConnectException("Connection refused")))
+                    : Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        }).block();
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).attribute(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR))
+                .hasValueSatisfying(avoided -> assertThat(avoided).asInstanceOf(COLLECTION).containsExactly("10.0.0.1:9000"));
+    }
+
+    @Test
+    @DisplayName("Si la petición llegó al servicio no se repite")
+    void doesNotRetryAfterReachingService() {
+        Mono<ClientResponse> call = filter().filter(ClientRequest.create(HttpMethod.POST, TOKEN_URI).build(), request -> {
+            sent.add(request);
+            return Mono.error(failure(new IOException("Connection reset by peer")));
+        });
+
+        assertThatThrownBy(call::block).isInstanceOf(WebClientRequestException.class);
+        assertThat(sent).hasSize(1);
+    }
+}
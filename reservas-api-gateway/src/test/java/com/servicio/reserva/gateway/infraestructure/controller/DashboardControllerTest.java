@@ -0,0 +1,98 @@
+package com.servicio.reserva.gateway.infraestructure.controller;
+
+import com.servicio.reserva.gateway.infraestructure.config.DashboardProperties;
+import com.servicio.reserva.gateway.infraestructure.config.DeadlineProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.resilience.ResilienceGuard;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaderSigner;
+import com.servicio.reserva.gateway.infraestructure.security.IdentityHeaders;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DashboardControllerTest {
+    private static final String KEY = Base64.getEncoder()
+            .encodeToString("clave-del-dashboard-de-al-menos-32-bytes".getBytes(StandardCharsets.UTF_8));
+
+    private final Map<String, HttpHeaders> sent = new ConcurrentHashMap<>();
+    private final WebClient.Builder webClientBuilder = WebClient.builder()
+            .exchangeFunction(request -> {
+                sent.put(request.url().getPath(), request.headers());
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{}")
+                        .build());
+            });
+    private final IdentityHeaders identityHeaders = new IdentityHeaders(
+            new IdentityHeaderSigner("k1", Map.of("k1", KEY)), Set.of("reservas-usuarios-service"), Duration.ofSeconds(60));
+    private final Jwt jwt = Jwt.withTokenValue("token")
+            .header("alg", "RS256")
+            .subject("juan@test.com")
+            .claim("roles", List.of("ROLE_CLIENTE"))
+            .expiresAt(Instant.now().plusSeconds(300))
+            .build();
+
+    @Test
+    @DisplayName("Solo las partes de rutas con identidad firmada sustituyen el JWT por las cabeceras firmadas")
+    void signsIdentityOnlyForIdentityRoutes() {
+        DashboardProperties properties = new DashboardProperties();
+        properties.getParts().put("profile", part("lb://reservas-usuarios-service/api/users/email/{subject}", null));
+        properties.getParts().put("payments", part("lb://reservas-pagos-service/api/payments/pending", null));
+        properties.getParts().put("local", part("http://localhost:8080/api/users/me", "reservas-usuarios-service"));
+
+        controller(properties).dashboard(jwt).block(Duration.ofSeconds(5));
+
+        HttpHeaders profile = sent.get("/api/users/email/juan@test.com");
+        assertThat(profile.getFirst(IdentityHeaderSigner.SUBJECT)).isEqualTo("juan@test.com");
+        assertThat(profile.containsKey(HttpHeaders.AUTHORIZATION)).isFalse();
+        HttpHeaders payments = sent.get("/api/payments/pending");
+        assertThat(payments.containsKey(IdentityHeaderSigner.SUBJECT)).isFalse();
+        assertThat(payments.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer token");
+        assertThat(sent.get("/api/users/me").getFirst(IdentityHeaderSigner.SUBJECT)).isEqualTo("juan@test.com");
+    }
+
+    @Test
+    @DisplayName("Una parte llamada errors chocaría con los motivos de error: se rechaza al arrancar")
+    void rejectsPartNamedErrors() {
+        DashboardProperties properties = new DashboardProperties();
+        properties.getParts().put("errors", part("lb://reservas-usuarios-service/api/users/errors", null));
+
+        assertThatThrownBy(() -> controller(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("errors");
+    }
+
+    private DashboardController controller(DashboardProperties properties) {
+        ResilienceGuard resilienceGuard = new ResilienceGuard(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry());
+        return new DashboardController(webClientBuilder, properties, resilienceGuard, new DeadlineProperties(),
+                identityHeaders);
+    }
+
+    private static DashboardProperties.Part part(String uri, String route) {
+        DashboardProperties.Part part = new DashboardProperties.Part();
+        part.setUri(uri);
+        part.setRoute(route);
+        return part;
+    }
+}
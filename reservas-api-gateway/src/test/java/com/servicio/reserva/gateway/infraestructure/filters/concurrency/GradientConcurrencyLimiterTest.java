@@ -0,0 +1,118 @@
+package com.servicio.reserva.gateway.infraestructure.filters.concurrency;
+
+import com.servicio.reserva.gateway.infraestructure.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTest {
+    private static final long WINDOW = Duration.ofSeconds(1).toNanos();
+
+    private long now = 0;
+
+    private static GradientConcurrencyLimiter limiter(int initialLimit) {
+        ConcurrencyLimitProperties.Limit overrides = new ConcurrencyLimitProperties.Limit();
+        overrides.setInitialLimit(initialLimit);
+        overrides.setMinLimit(2);
+        overrides.setMaxLimit(100);
+        overrides.setMinWindowSamples(1);
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.getRoutes().put("reservas-reportes-service", overrides);
+        return new GradientConcurrencyLimiter(properties.forRoute("reservas-reportes-service"), 0);
+    }
+
+    /**
+     * Una ventana: se ocupan todos los huecos del límite y se liberan tras {@code rtt}.
+     */
+    private void runWindow(GradientConcurrencyLimiter limiter, Duration rtt, boolean dropped) {
+        now += WINDOW;
+        List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        GradientConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire(now)) != null) {
+            permits.add(permit);
+        }
+        for (GradientConcurrencyLimiter.Permit p : permits) {
+            if (dropped) {
+                p.dropped(now + rtt.toNanos());
+            } else {
+                p.success(now + rtt.toNanos());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Por encima del límite se rechaza y al liberar se vuelve a admitir")
+    void rejectsAboveLimit() {
+        GradientConcurrencyLimiter limiter = limiter(2);
+
+        GradientConcurrencyLimiter.Permit first = limiter.tryAcquire(0);
+        assertThat(limiter.tryAcquire(0)).isNotNull();
+        assertThat(limiter.tryAcquire(0)).isNull();
+
+        first.ignore();
+        first.ignore();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(0)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Con latencia estable el límite crece y cuando la latencia sube se reduce")
+    void limitFollowsLatency() {
+        GradientConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 10; i++) {
+            runWindow(limiter, Duration.ofMillis(10), false);
+        }
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(10);
+
+        for (int i = 0; i < 10; i++) {
+            runWindow(limiter, Duration.ofMillis(200), false);
+        }
+        assertThat(limiter.getLimit()).isLessThan(grown);
+    }
+
+    @Test
+    @DisplayName("El tiempo de subida del cuerpo no cuenta como latencia del servicio")
+    void uploadTimeIsNotSampled() {
+        GradientConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 10; i++) {
+            runWindow(limiter, Duration.ofMillis(10), false);
+        }
+        int grown = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            now += WINDOW;
+            List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            GradientConcurrencyLimiter.Permit permit;
+            while ((permit = limiter.tryAcquire(now)) != null) {
+                permits.add(permit);
+            }
+            long bodySent = now + Duration.ofMillis(500).toNanos();
+            for (GradientConcurrencyLimiter.Permit p : permits) {
+                p.bodySent(bodySent);
+                p.success(bodySent + Duration.ofMillis(10).toNanos());
+            }
+        }
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(grown);
+    }
+
+    @Test
+    @DisplayName("Los errores reducen el límite hasta el mínimo")
+    void dropsBackOffToMinimum() {
+        GradientConcurrencyLimiter limiter = limiter(20);
+
+        runWindow(limiter, Duration.ofMillis(10), true);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++) {
+            runWindow(limiter, Duration.ofMillis(10), true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
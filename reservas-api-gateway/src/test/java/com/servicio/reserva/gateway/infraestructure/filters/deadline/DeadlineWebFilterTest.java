@@ -0,0 +1,28 @@
+package com.servicio.reserva.gateway.infraestructure.filters.deadline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineWebFilterTest {
+    private static final Duration ROUTE_TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    @DisplayName("El cliente solo puede acortar el plazo de la ruta")
+    void clientCanOnlyShortenRouteTimeout() {
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, null)).isEqualTo(ROUTE_TIMEOUT);
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, " 250 ")).isEqualTo(Duration.ofMillis(250));
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, "60000")).isEqualTo(ROUTE_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Un plazo no válido del cliente se ignora")
+    void invalidClientTimeoutIsIgnored() {
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, "0")).isEqualTo(ROUTE_TIMEOUT);
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, "-1")).isEqualTo(ROUTE_TIMEOUT);
+        assertThat(DeadlineWebFilter.budget(ROUTE_TIMEOUT, "5s")).isEqualTo(ROUTE_TIMEOUT);
+    }
+}
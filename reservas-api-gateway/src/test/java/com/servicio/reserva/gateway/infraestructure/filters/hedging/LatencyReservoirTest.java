@@ -0,0 +1,23 @@
+package com.servicio.reserva.gateway.infraestructure.filters.hedging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyReservoirTest {
+
+    @Test
+    @DisplayName("El percentil se calcula sobre las últimas muestras")
+    void reservoirPercentile() {
+        LatencyReservoir reservoir = new LatencyReservoir(0.95);
+        assertThat(reservoir.percentileNanos()).isEqualTo(-1);
+
+        for (int i = 1; i <= 100; i++) {
+            reservoir.record(Duration.ofMillis(i).toNanos());
+        }
+        assertThat(reservoir.percentileNanos()).isBetween(Duration.ofMillis(55).toNanos(), Duration.ofMillis(64).toNanos());
+    }
+}
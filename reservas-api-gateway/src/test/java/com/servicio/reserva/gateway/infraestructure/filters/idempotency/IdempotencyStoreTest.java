@@ -0,0 +1,82 @@
+package com.servicio.reserva.gateway.infraestructure.filters.idempotency;
+
+import com.servicio.reserva.gateway.infraestructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyStore store = new IdempotencyStore("reservas", new IdempotencyProperties.RouteIdempotency(), meterRegistry);
+
+    @Test
+    @DisplayName("El reintento en curso espera a la primera petición y el posterior repite su respuesta")
+    void joinsInFlightAndReplaysCompleted() {
+        IdempotencyStore.Claim first = store.claim("user:key-1", "huella");
+        assertThat(first).isInstanceOf(IdempotencyStore.Lead.class);
+
+        IdempotencyStore.Claim retry = store.claim("user:key-1", "huella");
+        assertThat(retry).isInstanceOf(IdempotencyStore.Join.class);
+        Mono<IdempotentResponse> shared = ((IdempotencyStore.Join) retry).response();
+
+        IdempotentResponse created = response(201, "{\"id\":7}");
+        store.complete("user:key-1", (IdempotencyStore.Lead) first, created);
+
+        assertThat(shared.block()).isSameAs(created);
+        assertThat(store.claim("user:key-1", "huella"))
+                .isEqualTo(new IdempotencyStore.Replay(created));
+        assertThat(outcome("executed")).isEqualTo(1);
+        assertThat(outcome("joined")).isEqualTo(1);
+        assertThat(outcome("replayed")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("La misma clave con otra petición es un conflicto, en curso o completada")
+    void differentFingerprintIsMismatch() {
+        IdempotencyStore.Lead lead = (IdempotencyStore.Lead) store.claim("user:key-2", "huella-a");
+        assertThat(store.claim("user:key-2", "huella-b")).isEqualTo(IdempotencyStore.Mismatch.INSTANCE);
+
+        store.complete("user:key-2", lead, response(201, "{}"));
+        assertThat(store.claim("user:key-2", "huella-b")).isEqualTo(IdempotencyStore.Mismatch.INSTANCE);
+        assertThat(outcome("mismatch")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Un 5xx se entrega a quienes esperaban pero no se guarda")
+    void serverErrorIsSharedButNotStored() {
+        IdempotencyStore.Lead lead = (IdempotencyStore.Lead) store.claim("user:key-3", "huella");
+        IdempotencyStore.Join join = (IdempotencyStore.Join) store.claim("user:key-3", "huella");
+
+        store.complete("user:key-3", lead, response(503, ""));
+
+        assertThat(join.response().block().status()).isEqualTo(503);
+        assertThat(store.claim("user:key-3", "huella")).isInstanceOf(IdempotencyStore.Lead.class);
+    }
+
+    @Test
+    @DisplayName("Si la primera petición se abandona, quienes esperaban reciben vacío y la clave queda libre")
+    void abandonReleasesKey() {
+        IdempotencyStore.Lead lead = (IdempotencyStore.Lead) store.claim("user:key-4", "huella");
+        IdempotencyStore.Join join = (IdempotencyStore.Join) store.claim("user:key-4", "huella");
+
+        store.abandon("user:key-4", lead);
+
+        assertThat(join.response().blockOptional()).isEmpty();
+        assertThat(store.claim("user:key-4", "huella")).isInstanceOf(IdempotencyStore.Lead.class);
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("gateway.idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static IdempotentResponse response(int status, String body) {
+        return new IdempotentResponse(status, HttpHeaders.EMPTY, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
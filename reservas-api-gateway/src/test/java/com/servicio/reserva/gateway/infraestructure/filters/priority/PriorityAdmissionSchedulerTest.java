@@ -0,0 +1,99 @@
+package com.servicio.reserva.gateway.infraestructure.filters.priority;
+
+import com.servicio.reserva.gateway.infraestructure.config.PriorityProperties;
+import com.servicio.reserva.gateway.infraestructure.config.PriorityProperties.PriorityClass;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityAdmissionSchedulerTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Bulk no pasa de su cuota y deja sitio a critical")
+    void bulkIsCappedByShare() {
+        PriorityAdmissionScheduler scheduler = scheduler(4, 10, Duration.ofSeconds(5));
+
+        PriorityAdmissionScheduler.Permit first = scheduler.acquire(PriorityClass.BULK).block();
+        scheduler.acquire(PriorityClass.BULK).block();
+        List<PriorityAdmissionScheduler.Permit> queued = new ArrayList<>();
+        Disposable waiting = scheduler.acquire(PriorityClass.BULK).subscribe(queued::add);
+
+        assertThat(queued).isEmpty();
+        assertThat(scheduler.queued(PriorityClass.BULK)).isEqualTo(1);
+        assertThat(scheduler.acquire(PriorityClass.CRITICAL).block()).isNotNull();
+
+        first.release();
+        assertThat(queued).hasSize(1);
+        waiting.dispose();
+    }
+
+    @Test
+    @DisplayName("Al liberarse un hueco pasa antes critical aunque bulk llevara más tiempo esperando")
+    void criticalIsServedFirst() {
+        PriorityAdmissionScheduler scheduler = scheduler(2, 10, Duration.ofSeconds(5));
+        PriorityAdmissionScheduler.Permit running = scheduler.acquire(PriorityClass.NORMAL).block();
+        scheduler.acquire(PriorityClass.CRITICAL).block();
+
+        List<String> order = new ArrayList<>();
+        scheduler.acquire(PriorityClass.BULK).subscribe(permit -> {
+            order.add("bulk");
+            permit.release();
+        });
+        PriorityAdmissionScheduler.Permit[] critical = new PriorityAdmissionScheduler.Permit[1];
+        scheduler.acquire(PriorityClass.CRITICAL).subscribe(permit -> {
+            order.add("critical");
+            critical[0] = permit;
+        });
+
+        running.release();
+        assertThat(order).containsExactly("critical");
+        critical[0].release();
+        assertThat(order).containsExactly("critical", "bulk");
+        assertThat(meterRegistry.get("gateway.priority.queue.wait").tag("class", "critical").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Con la cola llena o agotada la espera se responde 503 y se cuenta por motivo")
+    void shedsWhenQueueFullOrTimedOut() {
+        PriorityAdmissionScheduler scheduler = scheduler(1, 1, Duration.ofMillis(100));
+        scheduler.acquire(PriorityClass.BULK).block();
+        StepVerifier.create(scheduler.acquire(PriorityClass.BULK))
+                .then(() -> StepVerifier.create(scheduler.acquire(PriorityClass.BULK))
+                        .expectError(GatewayRejectionException.class)
+                        .verify())
+                .expectError(GatewayRejectionException.class)
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(shed("queue-full")).isEqualTo(1);
+        assertThat(shed("timeout")).isEqualTo(1);
+        assertThat(scheduler.queued(PriorityClass.BULK)).isZero();
+    }
+
+    private PriorityAdmissionScheduler scheduler(int maxConcurrency, int bulkQueue, Duration maxWait) {
+        PriorityProperties properties = new PriorityProperties();
+        properties.setMaxConcurrency(maxConcurrency);
+        PriorityProperties.Lane bulk = new PriorityProperties.Lane();
+        bulk.setShare(0.5);
+        bulk.setMaxQueue(bulkQueue);
+        bulk.setMaxWait(maxWait);
+        properties.setLanes(Map.of(PriorityClass.BULK, bulk));
+        return new PriorityAdmissionScheduler(properties, meterRegistry);
+    }
+
+    private double shed(String reason) {
+        return meterRegistry.get("gateway.priority.shed").tag("class", "bulk").tag("reason", reason).counter().count();
+    }
+}
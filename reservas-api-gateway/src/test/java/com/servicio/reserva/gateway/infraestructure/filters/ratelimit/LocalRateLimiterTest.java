@@ -0,0 +1,84 @@
+package com.servicio.reserva.gateway.infraestructure.filters.ratelimit;
+
+import com.servicio.reserva.gateway.infraestructure.config.RateLimitProperties;
+import com.servicio.reserva.gateway.infraestructure.exceptions.GatewayRejectionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalRateLimiterTest {
+
+    private static LocalRateLimiter limiter(int limit, Duration period, Integer burst) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setLimit(limit);
+        policy.setPeriod(period);
+        policy.setBurst(burst);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getPolicies().put("login", policy);
+        return new LocalRateLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Se admite la ráfaga configurada y después se rechaza con 429 y Retry-After")
+    void burstThenReject() {
+        LocalRateLimiter limiter = limiter(1, Duration.ofMinutes(1), 3);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(limiter.acquire("login", "10.0.0.1")).verifyComplete();
+        }
+
+        StepVerifier.create(limiter.acquire("login", "10.0.0.1"))
+                .expectErrorSatisfies(error -> {
+                    assertThat(error).isInstanceOf(GatewayRejectionException.class);
+                    GatewayRejectionException rejection = (GatewayRejectionException) error;
+                    assertThat(rejection.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(rejection.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1));
+                })
+                .verify();
+
+        // Otra clave tiene su propio bucket
+        StepVerifier.create(limiter.acquire("login", "10.0.0.2")).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Sin política configurada no se limita")
+    void noPolicyMeansUnlimited() {
+        LocalRateLimiter limiter = limiter(1, Duration.ofMinutes(1), 1);
+
+        for (int i = 0; i < 100; i++) {
+            StepVerifier.create(limiter.acquire("otra-ruta", "10.0.0.1")).verifyComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("El bucket se rellena al ritmo de la política")
+    void refillsOverTime() {
+        TokenBucket bucket = new TokenBucket(Duration.ofMillis(100).toNanos(), 1);
+        long now = 0;
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(Duration.ofMillis(100).toNanos());
+        assertThat(bucket.tryAcquire(now + Duration.ofMillis(100).toNanos())).isZero();
+    }
+
+    @Test
+    @DisplayName("Una política del BFF con key distinta de la de su endpoint se rechaza al arrancar")
+    void bffPolicyWithKeyIsRejected() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setLimit(5);
+        policy.setKey(RateLimitProperties.KeyType.SUBJECT);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getPolicies().put("bff-login-email", policy);
+
+        assertThatThrownBy(() -> new LocalRateLimiter(properties, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bff-login-email");
+    }
+}
@@ -0,0 +1,38 @@
+package com.servicio.reserva.gateway.infraestructure.filters.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+    @Test
+    @DisplayName("Agotada la ráfaga, solo se permite un intento extra por cada 20 peticiones (5%)")
+    void capsExtraAttemptsAtPercent() {
+        RetryBudget budget = new RetryBudget(5, 2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        for (int i = 0; i < 19; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    @DisplayName("El saldo no supera la ráfaga configurada")
+    void balanceIsCappedAtBurst() {
+        RetryBudget budget = new RetryBudget(50, 1);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+}
@@ -0,0 +1,63 @@
+package com.servicio.reserva.gateway.infraestructure.filters.retry;
+
+import com.servicio.reserva.gateway.infraestructure.config.RetryProperties;
+import com.servicio.reserva.gateway.infraestructure.filters.deadline.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RetryPolicy policy(int maxRetries, int budgetBurst) {
+        RetryProperties.RouteRetry config = new RetryProperties.RouteRetry();
+        config.setMaxRetries(maxRetries);
+        config.setBudgetPercent(10);
+        config.setBudgetBurst(budgetBurst);
+        return new RetryPolicy("reservas-usuarios-service", config, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("La espera se dobla en cada reintento hasta el máximo, con jitter entre cero y ese valor")
+    void exponentialBackoffWithJitter() {
+        Duration first = Duration.ofMillis(50);
+        Duration max = Duration.ofMillis(500);
+        for (int i = 0; i < 200; i++) {
+            assertThat(RetryPolicy.backoff(1, first, max)).isBetween(Duration.ZERO, first);
+            assertThat(RetryPolicy.backoff(3, first, max)).isBetween(Duration.ZERO, Duration.ofMillis(200));
+            assertThat(RetryPolicy.backoff(30, first, max)).isBetween(Duration.ZERO, max);
+        }
+    }
+
+    @Test
+    @DisplayName("Agotado el presupuesto no se reintenta y se cuenta; sin plazo para esperar, tampoco")
+    void budgetAndDeadlineLimitRetries() {
+        RetryPolicy policy = policy(2, 1);
+
+        assertThat(policy.nextBackoff(3, null)).isNull();
+        assertThat(policy.nextBackoff(1, Deadline.after(Duration.ZERO))).isNull();
+        assertThat(policy.nextBackoff(1, null)).isNotNull();
+        assertThat(policy.nextBackoff(1, null)).isNull();
+
+        for (int i = 0; i < 10; i++) {
+            policy.onRequest();
+        }
+        assertThat(policy.nextBackoff(2, Deadline.after(Duration.ofSeconds(5)))).isNotNull();
+
+        assertThat(meterRegistry.get("gateway.retry.attempts").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("gateway.retry.budget.exhausted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Solo un fallo al abrir la conexión cuenta como que la petición no llegó al servicio")
+    void connectFailures() {
+        assertThat(RetryPolicy.isConnectFailure(new IOException(new ConnectException("Connection refused")))).isTrue();
+        assertThat(RetryPolicy.isConnectFailure(new IOException("Connection reset by peer"))).isFalse();
+    }
+}
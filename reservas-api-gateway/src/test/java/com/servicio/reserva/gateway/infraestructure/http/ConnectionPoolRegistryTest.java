@@ -0,0 +1,56 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import com.servicio.reserva.gateway.infraestructure.config.ConnectionPoolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolRegistryTest {
+    private final HttpClientProperties httpClientProperties = new HttpClientProperties();
+    private final AtomicInteger customized = new AtomicInteger();
+    private ConnectionPoolRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+    }
+
+    @Test
+    @DisplayName("El cliente de cada pool conserva la configuración httpclient.* y los customizers del Gateway")
+    void routeClientsKeepGatewayHttpClientSettings() {
+        httpClientProperties.setConnectTimeout(1234);
+        httpClientProperties.setCompression(true);
+        HttpClientCustomizer customizer = httpClient -> {
+            customized.incrementAndGet();
+            return httpClient;
+        };
+        ServerProperties serverProperties = new ServerProperties();
+        registry = new ConnectionPoolRegistry(new ConnectionPoolProperties(), Duration.ofSeconds(1),
+                new PoolHttpClientFactory(httpClientProperties, serverProperties,
+                        new HttpClientSslConfigurer(httpClientProperties.getSsl(), serverProperties, null),
+                        List.of(customizer)),
+                new SimpleMeterRegistry());
+
+        HttpClient route = registry.routeHttpClient("reservas-agenda-service");
+        HttpClient bff = registry.bffHttpClient();
+
+        assertThat(route.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS)).isEqualTo(1234);
+        assertThat(route.configuration().isAcceptGzip()).isTrue();
+        assertThat(bff.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS)).isEqualTo(1234);
+        assertThat(customized).hasValue(2);
+        assertThat(registry.getProviders()).containsOnlyKeys("reservas-agenda-service", ConnectionPoolRegistry.BFF_POOL);
+    }
+}
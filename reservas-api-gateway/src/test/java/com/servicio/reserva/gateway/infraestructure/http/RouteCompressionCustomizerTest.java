@@ -0,0 +1,33 @@
+package com.servicio.reserva.gateway.infraestructure.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteCompressionCustomizerTest {
+    private final RouteCompressionCustomizer.RouteRule rule = new RouteCompressionCustomizer.RouteRule(
+            List.of(), 2048, List.of(MimeTypeUtils.APPLICATION_JSON, MimeTypeUtils.parseMimeType("text/*")));
+
+    @Test
+    @DisplayName("Se comprimen los tipos configurados a partir del tamaño mínimo, o sin Content-Length")
+    void compressesConfiguredTypesAboveMinimumSize() {
+        assertThat(rule.accepts("application/json", "4096")).isTrue();
+        assertThat(rule.accepts("text/csv; charset=UTF-8", null)).isTrue();
+        assertThat(rule.accepts("application/json", "100")).isFalse();
+        assertThat(rule.accepts("image/png", "4096")).isFalse();
+        assertThat(rule.accepts(null, "4096")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cabeceras mal formadas del servicio: se envía sin comprimir, sin romper la respuesta")
+    void malformedHeadersAreNotCompressed() {
+        assertThat(rule.accepts("json", "4096")).isFalse();
+        assertThat(rule.accepts("application/json;;=", "4096")).isFalse();
+        assertThat(rule.accepts("application/json", "mucho")).isFalse();
+        assertThat(rule.accepts("application/json", "99999999999999999999")).isFalse();
+    }
+}
@@ -0,0 +1,54 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HealthCheckFallbackServiceInstanceListSupplierTest {
+    private static final String SERVICE = "reservas-reportes-service";
+
+    private final ServiceInstance first = new DefaultServiceInstance("reportes-1", SERVICE, "10.0.0.1", 8080, false);
+    private final ServiceInstance second = new DefaultServiceInstance("reportes-2", SERVICE, "10.0.0.2", 8080, false);
+    private final ServiceInstanceListSupplier registry = supplier(Flux.just(List.of(first, second)));
+
+    @Test
+    @DisplayName("Con instancias sanas se balancea solo entre ellas")
+    void keepsHealthyInstances() {
+        HealthCheckFallbackServiceInstanceListSupplier supplier = new HealthCheckFallbackServiceInstanceListSupplier(
+                supplier(Flux.just(List.of(second))), registry);
+
+        assertThat(supplier.get().blockFirst()).containsExactly(second);
+    }
+
+    @Test
+    @DisplayName("Si ninguna instancia pasa el health check (p. ej. sin /actuator/health) se usan todas")
+    void fallsBackToUnfilteredListWhenNoneIsHealthy() {
+        HealthCheckFallbackServiceInstanceListSupplier supplier = new HealthCheckFallbackServiceInstanceListSupplier(
+                supplier(Flux.just(List.of(), List.of(first))), registry);
+
+        assertThat(supplier.get().collectList().block(Duration.ofSeconds(1)))
+                .containsExactly(List.of(first, second), List.of(first));
+    }
+
+    private static ServiceInstanceListSupplier supplier(Flux<List<ServiceInstance>> instances) {
+        return new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return instances;
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.servicio.reserva.gateway.infraestructure.config.LoadBalancerStatsProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeakEwmaLoadBalancerTest {
+    private final ServiceInstance fast = new DefaultServiceInstance("agenda-1", "reservas-agenda-service", "10.0.0.1", 8080, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("agenda-2", "reservas-agenda-service", "10.0.0.2", 8080, false);
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(new LoadBalancerStatsProperties());
+
+    // choose(List) no usa el proveedor de instancias
+    private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(null, registry);
+
+    private int chosenTimes(ServiceInstance instance, int requests) {
+        int chosen = 0;
+        for (int i = 0; i < requests; i++) {
+            if (loadBalancer.choose(List.of(fast, slow)).getServer() == instance) {
+                chosen++;
+            }
+        }
+        return chosen;
+    }
+
+    @Test
+    @DisplayName("Entre dos instancias se elige la de menor latencia")
+    void prefersLowerLatency() {
+        long now = System.nanoTime();
+        registry.stats(fast).record(Duration.ofMillis(10).toNanos(), false, now);
+        registry.stats(slow).record(Duration.ofMillis(400).toNanos(), false, now);
+
+        assertThat(chosenTimes(fast, 100)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Las peticiones en vuelo cuentan: una instancia rápida saturada cede tráfico")
+    void accountsForInFlight() {
+        long now = System.nanoTime();
+        registry.stats(fast).record(Duration.ofMillis(10).toNanos(), false, now);
+        registry.stats(slow).record(Duration.ofMillis(40).toNanos(), false, now);
+        for (int i = 0; i < 10; i++) {
+            registry.stats(fast).start();
+        }
+
+        assertThat(chosenTimes(slow, 100)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Una instancia que acaba de fallar se penaliza aunque su latencia sea baja")
+    void penalizesRecentFailures() {
+        long now = System.nanoTime();
+        registry.stats(fast).record(Duration.ofMillis(1).toNanos(), true, now);
+        registry.stats(slow).record(Duration.ofMillis(100).toNanos(), false, now);
+
+        assertThat(chosenTimes(slow, 100)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Un pico de latencia se refleja al instante y se olvida con el tiempo")
+    void peakEwmaDecays() {
+        InstanceStats stats = new InstanceStats(Duration.ofSeconds(1).toNanos(), 0, 1);
+        stats.record(Duration.ofMillis(10).toNanos(), false, 0);
+        stats.record(Duration.ofMillis(500).toNanos(), false, Duration.ofMillis(100).toNanos());
+        assertThat(stats.score(Duration.ofMillis(100).toNanos())).isGreaterThan(Duration.ofMillis(500).toNanos());
+
+        stats.record(Duration.ofMillis(10).toNanos(), false, Duration.ofSeconds(5).toNanos());
+        assertThat(stats.score(Duration.ofSeconds(5).toNanos())).isLessThan(Duration.ofMillis(20).toNanos());
+    }
+
+    @Test
+    @DisplayName("Un reintento evita la instancia que falló, salvo que sea la única")
+    void avoidedInstanceOnlyWhileOthersRemain() {
+        DefaultRequest<RequestDataContext> retry = new DefaultRequest<>(new RequestDataContext(new RequestData(
+                HttpMethod.GET, URI.create("lb://reservas-agenda-service/api/reservations"), new HttpHeaders(),
+                new LinkedMultiValueMap<>(), Map.of(PeakEwmaLoadBalancer.AVOIDED_INSTANCES_ATTR, Set.of("10.0.0.1:8080")))));
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(balancerOver(fast, slow).choose(retry).block().getServer()).isSameAs(slow);
+        }
+        assertThat(balancerOver(fast).choose(retry).block().getServer()).isSameAs(fast);
+    }
+
+    @Test
+    @DisplayName("Una petición descartada (ganó el hedge) libera su instancia sin dejar muestra de latencia")
+    void discardedRequestLeavesNoSample() {
+        InstanceStatsLifecycle lifecycle = new InstanceStatsLifecycle(registry, Duration.ofMinutes(1));
+        Map<String, Object> attributes = new HashMap<>();
+        DefaultRequest<RequestDataContext> primary = new DefaultRequest<>(new RequestDataContext(new RequestData(
+                HttpMethod.GET, URI.create("lb://reservas-agenda-service/api/reservations"), new HttpHeaders(),
+                new LinkedMultiValueMap<>(), attributes)));
+        DefaultResponse chosen = new DefaultResponse(slow);
+
+        lifecycle.onStartRequest(primary, chosen);
+        assertThat(registry.stats(slow).getInFlight()).isEqualTo(1);
+        attributes.put(InstanceStatsLifecycle.DISCARDED_ATTR, Boolean.TRUE);
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, primary, chosen));
+
+        assertThat(registry.stats(slow).getInFlight()).isZero();
+        assertThat(registry.stats(slow).score(System.nanoTime())).isEqualTo(1.0);
+    }
+
+    private PeakEwmaLoadBalancer balancerOver(ServiceInstance... instances) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("instances",
+                ServiceInstanceListSuppliers.from("reservas-agenda-service", instances)));
+        return new PeakEwmaLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class), registry);
+    }
+}
@@ -0,0 +1,100 @@
+package com.servicio.reserva.gateway.infraestructure.loadbalancer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotServiceInstanceListSupplierTest {
+    private static final String SERVICE = "reservas-agenda-service";
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServiceInstance instance = new DefaultServiceInstance("agenda-1", SERVICE, "10.0.0.1", 8080, false);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("La última lista del registro se guarda y, tras reiniciar sin Eureka, se sirve desde el fichero")
+    void servesPersistedSnapshotAfterRestart() {
+        RegistrySnapshotStore before = store(NOW);
+        assertThat(instances(supplier(before, Flux.just(List.of(instance))))).containsExactly(instance);
+        before.stop();
+
+        RegistrySnapshotStore after = store(NOW.plusSeconds(60));
+        List<ServiceInstance> restored = instances(supplier(after, Flux.just(List.of())));
+
+        assertThat(restored).singleElement().satisfies(restoredInstance -> {
+            assertThat(restoredInstance.getInstanceId()).isEqualTo("agenda-1");
+            assertThat(restoredInstance.getUri()).isEqualTo(instance.getUri());
+        });
+        assertThat(meterRegistry.get("gateway.registry.snapshot.fallback").tag("service", SERVICE).counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Un error del registro se trata como lista vacía y se usa la copia en memoria")
+    void fallsBackOnRegistryError() {
+        RegistrySnapshotStore store = store(NOW);
+        instances(supplier(store, Flux.just(List.of(instance))));
+
+        assertThat(instances(supplier(store, Flux.error(new IllegalStateException("eureka down")))))
+                .extracting(ServiceInstance::getInstanceId)
+                .containsExactly("agenda-1");
+    }
+
+    @Test
+    @DisplayName("Al arrancar se ignoran los servicios guardados hace más de max-age")
+    void ignoresExpiredSnapshot() {
+        RegistrySnapshotStore before = store(NOW);
+        instances(supplier(before, Flux.just(List.of(instance))));
+        before.stop();
+
+        RegistrySnapshotStore after = store(NOW.plus(Duration.ofHours(25)));
+
+        assertThat(instances(supplier(after, Flux.just(List.of())))).isEmpty();
+    }
+
+    private RegistrySnapshotStore store(Instant now) {
+        return new RegistrySnapshotStore(dir.resolve("registry-snapshot.json"), Duration.ofHours(24),
+                Duration.ofSeconds(30), objectMapper, meterRegistry, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static SnapshotServiceInstanceListSupplier supplier(RegistrySnapshotStore store,
+                                                                Flux<List<ServiceInstance>> registry) {
+        ServiceInstanceListSupplier delegate = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return registry;
+            }
+        };
+        return new SnapshotServiceInstanceListSupplier(delegate, store);
+    }
+
+    private static List<ServiceInstance> instances(ServiceInstanceListSupplier supplier) {
+        return supplier.get().blockFirst();
+    }
+}
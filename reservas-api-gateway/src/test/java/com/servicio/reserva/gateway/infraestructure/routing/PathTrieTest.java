@@ -0,0 +1,84 @@
+package com.servicio.reserva.gateway.infraestructure.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathTrieTest {
+    private static final List<String> PATTERNS = List.of("/", "/**", "/api/auth/**", "/api/auth/login",
+            "/api/users/{id}", "/api/users/{id}/bookings", "/api/*/health", "/api/reports/{*rest}",
+            "/actuator/health/**", "/api/services/*.json", "/api/items/{id:\\d+}", "/api/auth/login/");
+    private static final List<String> PATHS = List.of("/", "/api", "/api/", "/api/auth", "/api/auth/",
+            "/api/auth/login", "/api/auth/login/", "/api/auth/login/x", "/api/users", "/api/users/",
+            "/api/users/7", "/api/users/7/", "/api/users/7/bookings", "/api/users/7/bookings/",
+            "/api/users/7/other", "/api/x/health", "/api/x/health/", "/api/reports", "/api/reports/",
+            "/api/reports/a/b.csv", "/actuator/health", "/actuator/health/liveness", "/api/services/list.json",
+            "/api/services/list.xml", "/api/items/12", "/api/items/ab", "/api/users/a%20b", "/api/users/a;v=1",
+            "//api/auth/login", "/api//auth/login", "/API/auth/login");
+
+    @Test
+    @DisplayName("Casa exactamente las mismas rutas que PathPattern")
+    void matchesLikePathPattern() {
+        PathTrie<String> trie = new PathTrie<>();
+        PATTERNS.forEach(pattern -> trie.add(pattern, false, pattern));
+
+        for (String path : PATHS) {
+            PathContainer container = PathContainer.parsePath(path);
+            List<String> expected = PATTERNS.stream()
+                    .filter(pattern -> PathPatternParser.defaultInstance.parse(pattern).matches(container))
+                    .toList();
+            assertThat(matches(trie, container)).as(path).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Con barra final opcional casa lo mismo que el predicado Path del Gateway")
+    void matchesLikeGatewayPathPredicate() {
+        PathTrie<String> trie = new PathTrie<>();
+        PATTERNS.forEach(pattern -> trie.add(pattern, true, pattern));
+
+        for (String path : PATHS) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+            List<String> expected = PATTERNS.stream()
+                    .filter(pattern -> gatewayPredicate(pattern).test(exchange))
+                    .toList();
+            assertThat(matches(trie, exchange.getRequest().getPath().pathWithinApplication()))
+                    .as(path).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Solo los patrones con segmentos simples se indexan en el árbol")
+    void indexablePatterns() {
+        assertThat(PathTrie.isIndexable("/api/auth/**")).isTrue();
+        assertThat(PathTrie.isIndexable("/api/users/{id}/bookings")).isTrue();
+        assertThat(PathTrie.isIndexable("/api/reports/{*rest}")).isTrue();
+        assertThat(PathTrie.isIndexable("/api/services/*.json")).isFalse();
+        assertThat(PathTrie.isIndexable("/api/items/{id:\\d+}")).isFalse();
+        assertThat(PathTrie.isIndexable("/api/**/health")).isFalse();
+        assertThat(PathTrie.isIndexable("api/auth")).isFalse();
+    }
+
+    private static List<String> matches(PathTrie<String> trie, PathContainer path) {
+        List<String> matches = new ArrayList<>();
+        trie.forEachMatch(path, matches::add);
+        return matches;
+    }
+
+    private static Predicate<org.springframework.web.server.ServerWebExchange> gatewayPredicate(String pattern) {
+        PathRoutePredicateFactory.Config config = new PathRoutePredicateFactory.Config()
+                .setPatterns(List.of(pattern))
+                .setMatchTrailingSlash(true);
+        return new PathRoutePredicateFactory().apply(config);
+    }
+}
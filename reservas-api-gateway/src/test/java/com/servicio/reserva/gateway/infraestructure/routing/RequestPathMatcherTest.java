@@ -0,0 +1,97 @@
+package com.servicio.reserva.gateway.infraestructure.routing;
+
+import com.servicio.reserva.gateway.infraestructure.config.AuthorizationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestPathMatcherTest {
+    private final Route auth = route("auth");
+    private final Route hosted = route("hosted");
+    private final Route catchAll = route("catch-all");
+    private final List<RouteDefinition> definitions = List.of(
+            definition("auth", "Path=/api/auth/**"),
+            definition("hosted", "Host=**.example.org"),
+            definition("catch-all", "Path=/api/**"));
+
+    @Test
+    @DisplayName("Elige la ruta indexada de menor orden y deja en su sitio las que no se pueden indexar")
+    void selectsRouteInOrder() {
+        RequestPathMatcher matcher = new RequestPathMatcher(List.of(), () -> Flux.fromIterable(definitions));
+        matcher.onApplicationEvent(new RefreshRoutesResultEvent((RouteLocator) () -> Flux.just(auth, hosted, catchAll)));
+
+        RequestPathMatcher.Match login = matcher.match(exchange(HttpMethod.POST, "/api/auth/login"));
+        assertThat(login.route()).isSameAs(auth);
+        assertThat(login.candidates()).containsExactly(auth, hosted);
+
+        RequestPathMatcher.Match users = matcher.match(exchange(HttpMethod.GET, "/api/users/7"));
+        assertThat(users.candidates()).containsExactly(hosted, catchAll);
+
+        assertThat(matcher.match(exchange(HttpMethod.GET, "/other")).candidates()).containsExactly(hosted);
+    }
+
+    @Test
+    @DisplayName("Gana la primera regla que casa y se aplica al método")
+    void selectsFirstApplicableRule() {
+        AuthorizationProperties.Rule publicLogin = rule("/api/auth/login", Set.of(HttpMethod.POST),
+                AuthorizationProperties.Access.PERMIT_ALL);
+        AuthorizationProperties.Rule auth = rule("/api/auth/**", Set.of(), AuthorizationProperties.Access.AUTHENTICATED);
+        AuthorizationProperties.Rule admin = rule("/api/auth/login", Set.of(), AuthorizationProperties.Access.DENY_ALL);
+        RequestPathMatcher matcher = new RequestPathMatcher(List.of(publicLogin, auth, admin), Flux::empty);
+
+        assertThat(matcher.match(exchange(HttpMethod.POST, "/api/auth/login")).rule()).isSameAs(publicLogin);
+        assertThat(matcher.match(exchange(HttpMethod.GET, "/api/auth/login")).rule()).isSameAs(auth);
+        assertThat(matcher.match(exchange(HttpMethod.GET, "/api/users/7")).rule()).isNull();
+    }
+
+    @Test
+    @DisplayName("El resultado se calcula una vez por petición y, sin rutas cargadas, la búsqueda queda al Gateway")
+    void cachesMatchPerExchange() {
+        RequestPathMatcher matcher = new RequestPathMatcher(List.of(), Flux::empty);
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/users/7");
+
+        RequestPathMatcher.Match match = matcher.match(exchange);
+
+        assertThat(match.routesCompiled()).isFalse();
+        assertThat(matcher.match(exchange)).isSameAs(match);
+        assertThat((Object) exchange.getAttribute(RequestPathMatcher.MATCH_ATTR)).isSameAs(match);
+    }
+
+    private static Route route(String id) {
+        return Route.async().id(id).uri(URI.create("http://" + id)).predicate(exchange -> true).build();
+    }
+
+    private static RouteDefinition definition(String id, String predicate) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setPredicates(List.of(new PredicateDefinition(predicate)));
+        return definition;
+    }
+
+    private static AuthorizationProperties.Rule rule(String path, Set<HttpMethod> methods,
+                                                     AuthorizationProperties.Access access) {
+        AuthorizationProperties.Rule rule = new AuthorizationProperties.Rule();
+        rule.setPath(path);
+        rule.setMethods(methods);
+        rule.setAccess(access);
+        return rule;
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method, String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+    }
+}
@@ -0,0 +1,103 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingReactiveJwtDecoderTest {
+
+    private static RSAKey rsaKey;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        rsaKey = new RSAKeyGenerator(2048).keyID("test-key-id").generate();
+    }
+
+    private static String signedToken(Instant expiresAt) throws Exception {
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder().subject("juan@test.com");
+        if (expiresAt != null) {
+            claims.expirationTime(Date.from(expiresAt));
+        }
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims.build());
+        jwt.sign(new RSASSASigner(rsaKey));
+        return jwt.serialize();
+    }
+
+    private static ReactiveJwtDecoder countingDecoder(AtomicInteger calls) throws Exception {
+        ReactiveJwtDecoder nimbus = NimbusReactiveJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+        return token -> {
+            calls.incrementAndGet();
+            return nimbus.decode(token);
+        };
+    }
+
+    /**
+     * Un mismo token válido solo debe verificarse criptográficamente una vez;
+     * las siguientes peticiones se resuelven desde la cache.
+     */
+    @Test
+    @DisplayName("Token repetido -> una sola verificación de firma")
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(countingDecoder(calls), 100, Clock.systemUTC());
+        String token = signedToken(Instant.now().plusSeconds(3600));
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(decoder.decode(token))
+                    .assertNext(jwt -> assertThat(jwt.getSubject()).isEqualTo("juan@test.com"))
+                    .verifyComplete();
+        }
+
+        assertThat(calls).hasValue(1);
+    }
+
+    /**
+     * Los tokens sin claim {@code exp} no tienen un límite de vida y no se cachean.
+     */
+    @Test
+    @DisplayName("Token sin exp -> no se cachea")
+    void tokenWithoutExpiryIsNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(countingDecoder(calls), 100, Clock.systemUTC());
+        String token = signedToken(null);
+
+        decoder.decode(token).block();
+        decoder.decode(token).block();
+
+        assertThat(calls).hasValue(2);
+        assertThat(decoder.estimatedSize()).isZero();
+    }
+
+    /**
+     * Una firma inválida se propaga como error y nunca entra en la cache.
+     */
+    @Test
+    @DisplayName("Token inválido -> error y sin entrada en cache")
+    void invalidTokenIsNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(countingDecoder(calls), 100, Clock.systemUTC());
+        String token = signedToken(Instant.now().plusSeconds(3600));
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        StepVerifier.create(decoder.decode(tampered)).expectError().verify();
+
+        assertThat(decoder.estimatedSize()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentityHeaderSignerTest {
+    private static final String OLD_KEY = key("clave-antigua-de-al-menos-32-bytes");
+    private static final String NEW_KEY = key("clave-nueva-tambien-de-32-bytes-o-mas");
+    private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+    @Test
+    @DisplayName("Las cabeceras firmadas se verifican con subject, roles y caducidad")
+    void signAndVerify() {
+        IdentityHeaderSigner signer = new IdentityHeaderSigner("k1", Map.of("k1", OLD_KEY));
+
+        HttpHeaders headers = headers(signer.sign("juan@test.com", List.of("ROLE_CLIENTE", "ROLE_ADMIN"), NOW.plusSeconds(60)));
+
+        assertThat(headers.getFirst(IdentityHeaderSigner.SIGNATURE)).startsWith("k1:");
+        assertThat(signer.verify(headers, NOW)).contains(new IdentityHeaderSigner.Identity(
+                "juan@test.com", List.of("ROLE_CLIENTE", "ROLE_ADMIN"), NOW.plusSeconds(60)));
+    }
+
+    @Test
+    @DisplayName("Se rechazan cabeceras alteradas, caducadas o incompletas")
+    void rejectsTamperedOrExpired() {
+        IdentityHeaderSigner signer = new IdentityHeaderSigner("k1", Map.of("k1", OLD_KEY));
+        Map<String, String> signed = signer.sign("juan@test.com", List.of("ROLE_CLIENTE"), NOW.plusSeconds(60));
+
+        HttpHeaders tampered = headers(signed);
+        tampered.set(IdentityHeaderSigner.ROLES, "ROLE_ADMIN");
+        assertThat(signer.verify(tampered, NOW)).isEmpty();
+
+        assertThat(signer.verify(headers(signed), NOW.plusSeconds(60))).isEmpty();
+
+        HttpHeaders incomplete = headers(signed);
+        incomplete.remove(IdentityHeaderSigner.SIGNATURE);
+        assertThat(signer.verify(incomplete, NOW)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Durante la rotación se aceptan las dos claves y al retirar la antigua sus firmas dejan de valer")
+    void keyRotation() {
+        IdentityHeaderSigner before = new IdentityHeaderSigner("k1", Map.of("k1", OLD_KEY));
+        IdentityHeaderSigner during = new IdentityHeaderSigner("k2", Map.of("k1", OLD_KEY, "k2", NEW_KEY));
+        IdentityHeaderSigner after = new IdentityHeaderSigner("k2", Map.of("k2", NEW_KEY));
+        HttpHeaders oldSignature = headers(before.sign("juan@test.com", List.of(), NOW.plusSeconds(60)));
+        HttpHeaders newSignature = headers(during.sign("juan@test.com", List.of(), NOW.plusSeconds(60)));
+
+        assertThat(during.verify(oldSignature, NOW)).isPresent();
+        assertThat(during.verify(newSignature, NOW)).isPresent();
+        assertThat(after.verify(newSignature, NOW)).isPresent();
+        assertThat(after.verify(oldSignature, NOW)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Falla al arrancar sin la clave activa o con una clave corta")
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new IdentityHeaderSigner("k2", Map.of("k1", OLD_KEY)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new IdentityHeaderSigner("k1", Map.of("k1", key("corta"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        HttpHeaders headers = new HttpHeaders();
+        values.forEach(headers::set);
+        return headers;
+    }
+
+    private static String key(String secret) {
+        return Base64.getEncoder().encodeToString(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
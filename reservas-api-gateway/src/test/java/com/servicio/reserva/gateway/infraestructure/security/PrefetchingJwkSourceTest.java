@@ -0,0 +1,117 @@
+package com.servicio.reserva.gateway.infraestructure.security;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class PrefetchingJwkSourceTest {
+
+    private static WireMockServer wireMockServer;
+    private PrefetchingJwkSource jwkSource;
+
+    @BeforeAll
+    static void startServer() {
+        wireMockServer = new WireMockServer(0);
+        wireMockServer.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+        jwkSource = new PrefetchingJwkSource(WebClient.builder().build(),
+                "http://localhost:" + wireMockServer.port() + "/oauth2/jwks",
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwkSource.stop();
+    }
+
+    private static void stubJwks(RSAKey... keys) {
+        JWKSet jwkSet = new JWKSet(Arrays.stream(keys).<JWK>map(RSAKey::toPublicJWK).toList());
+        wireMockServer.stubFor(get(urlEqualTo("/oauth2/jwks"))
+                .willReturn(aResponse().withHeader("Content-Type", "application/json").withBody(jwkSet.toString())));
+    }
+
+    private static SignedJWT jwtWithKid(String kid) throws Exception {
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(kid).build();
+        return new SignedJWT(header.toBase64URL(), new JWTClaimsSet.Builder().subject("juan@test.com").build().toPayload().toBase64URL(),
+                Base64URL.encode("firma"));
+    }
+
+    /**
+     * Al arrancar el JWKS se descarga sin esperar a la primera petición autenticada.
+     */
+    @Test
+    @DisplayName("Arranque: el JWKS se precarga")
+    void prefetchesOnStart() throws Exception {
+        stubJwks(new RSAKeyGenerator(2048).keyID("k1").generate());
+
+        jwkSource.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(jwkSource::isLoaded);
+        assertThat(jwkSource.keyCount()).isEqualTo(1);
+    }
+
+    /**
+     * Un kid desconocido (rotación de claves) provoca como mucho una descarga por ventana de enfriamiento.
+     */
+    @Test
+    @DisplayName("Rotación: kid desconocido -> una sola re-descarga por ventana")
+    void unknownKidRefreshesOncePerCooldown() throws Exception {
+        RSAKey oldKey = new RSAKeyGenerator(2048).keyID("old").generate();
+        RSAKey newKey = new RSAKeyGenerator(2048).keyID("new").generate();
+        stubJwks(oldKey);
+        jwkSource.refresh().block();
+
+        stubJwks(oldKey, newKey);
+        StepVerifier.create(jwkSource.getKeys(jwtWithKid("new")))
+                .assertNext(jwk -> assertThat(jwk.getKeyID()).isEqualTo("new"))
+                .verifyComplete();
+
+        StepVerifier.create(jwkSource.getKeys(jwtWithKid("desconocido"))).verifyComplete();
+
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/oauth2/jwks")));
+    }
+
+    /**
+     * Si el Auth Server cae se siguen usando las últimas claves válidas.
+     */
+    @Test
+    @DisplayName("Auth Server caído -> se mantiene el último JWKS válido")
+    void keepsLastKnownKeysWhenServerFails() throws Exception {
+        stubJwks(new RSAKeyGenerator(2048).keyID("k1").generate());
+        jwkSource.refresh().block();
+
+        wireMockServer.stubFor(get(urlEqualTo("/oauth2/jwks")).willReturn(aResponse().withStatus(503)));
+
+        StepVerifier.create(jwkSource.getKeys(jwtWithKid("otra"))).verifyComplete();
+        StepVerifier.create(jwkSource.getKeys(jwtWithKid("k1")))
+                .assertNext(jwk -> assertThat(jwk.getKeyID()).isEqualTo("k1"))
+                .verifyComplete();
+        assertThat(jwkSource.keyCount()).isEqualTo(1);
+    }
+}